@@ -45,8 +45,8 @@ public class AdminController {
     }
 
     @GetMapping("/overview")
-    public Map<String, Object> getOverviewMetrics() {
-        return adminService.getOverviewMetrics();
+    public Map<String, Object> getOverviewMetrics(@RequestParam(value = "refresh", defaultValue = "false") boolean refresh) {
+        return adminService.getOverviewMetrics(refresh);
     }
 
     @GetMapping("/user/suspend")
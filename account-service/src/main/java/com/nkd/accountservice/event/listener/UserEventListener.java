@@ -2,42 +2,27 @@ package com.nkd.accountservice.event.listener;
 
 import com.nkd.accountservice.enumeration.EventType;
 import com.nkd.accountservice.event.UserEvent;
-import com.nkd.accountservice.service.EmailService;
+import com.nkd.accountservice.service.impl.EmailOutbox;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
 public class UserEventListener {
 
-    private final EmailService emailService;
+    private static final Set<EventType> EMAIL_EVENTS = EnumSet.of(
+            EventType.REGISTRATION, EventType.RESEND_ACTIVATION, EventType.FORGOT_PASSWORD, EventType.OAUTH2_SET_PASSWORD);
+
+    private final EmailOutbox emailOutbox;
 
     @EventListener
     public void handleAccountEvent(UserEvent userEvent){
-        switch (userEvent.getEventType()){
-            case EventType.REGISTRATION -> emailService.sendRegistrationEmail(
-                    (String) userEvent.getData().get("email"),
-                    (Integer) userEvent.getData().get("accountID"),
-                    (Integer) userEvent.getData().get("confirmationID"),
-                    (String) userEvent.getData().get("token"),
-                    (LocalDateTime) userEvent.getData().get("expirationTime")
-            );
-            case EventType.RESEND_ACTIVATION -> emailService.sendActivationEmail(
-                    (String) userEvent.getData().get("email"),
-                    (Integer) userEvent.getData().get("accountID"),
-                    (Integer) userEvent.getData().get("confirmationID"),
-                    (String) userEvent.getData().get("token"),
-                    (LocalDateTime) userEvent.getData().get("expirationTime")
-            );
-            case EventType.FORGOT_PASSWORD -> emailService.sendPasswordResetEmail(
-                    (String) userEvent.getData().get("email"),
-                    (String) userEvent.getData().get("code"),
-                    (LocalDateTime) userEvent.getData().get("expirationTime")
-            );
-            case OAUTH2_SET_PASSWORD -> emailService.sendOAuth2SetPasswordEmail((String) userEvent.getData().get("email"));
+        if(EMAIL_EVENTS.contains(userEvent.getEventType())){
+            emailOutbox.enqueue(userEvent);
         }
     }
 }
@@ -1,7 +1,9 @@
 package com.nkd.accountservice.security;
 
 import com.nkd.accountservice.service.JwtService;
+import com.nkd.accountservice.service.impl.AccountRevocationService;
 import com.nkd.accountservice.utils.CommonUtils;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.security.SignatureException;
 import jakarta.servlet.FilterChain;
@@ -11,6 +13,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,6 +22,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Date;
 
 @Component
 @RequiredArgsConstructor
@@ -27,20 +31,32 @@ public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final ApplicationContext applicationContext;
+    private final AccountRevocationService revocationService;
+
+    @Value("${auth.claims-only:true}")
+    private boolean claimsOnly;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String email = null, token = null;
+        String email = null;
+        Date issuedAt = null;
+        Claims claims = null;
 
         if(authHeader != null && authHeader.startsWith("Bearer ")){
-            token = authHeader.substring(7);
+            String token = authHeader.substring(7);
             try{
-                email = jwtService.extractEmail(token);
+                claims = jwtService.extractAllClaims(token);
+                email = claims.getSubject();
+                issuedAt = claims.getIssuedAt();
             } catch (ExpiredJwtException | SignatureException e){
+                if(e instanceof ExpiredJwtException expired){
+                    email = expired.getClaims().getSubject();
+                    issuedAt = expired.getClaims().getIssuedAt();
+                }
                 String authenticatedCookie = CommonUtils.getCookieValue(request, "AUTHENTICATED");
 
-                if(authenticatedCookie != null && authenticatedCookie.equals("true")){
+                if(authenticatedCookie != null && authenticatedCookie.equals("true") && !revocationService.isRevoked(email, issuedAt)){
                     String newToken = jwtService.generateLoginToken(email);
                     Cookie tokenCookie = CommonUtils.generateCookie("AUTH_TOKEN", newToken, 600);
                     response.addCookie(tokenCookie);
@@ -57,9 +73,12 @@ public class JwtFilter extends OncePerRequestFilter {
             }
         }
 
-        if(email != null && SecurityContextHolder.getContext().getAuthentication() == null){
-            CustomUserDetails userDetails = applicationContext.getBean(CustomUserDetailService.class).loadUserByUsername(email);
-            if(jwtService.validateToken(token, userDetails)){
+        if(email != null && SecurityContextHolder.getContext().getAuthentication() == null && !revocationService.isRevoked(email, issuedAt)){
+            CustomUserDetails userDetails = claimsOnly ? jwtService.buildUserDetails(claims) : null;
+            if(userDetails == null){
+                userDetails = applicationContext.getBean(CustomUserDetailService.class).loadUserByUsername(email);
+            }
+            if(userDetails != null && email.equals(userDetails.getUsername())){
                 UsernamePasswordAuthenticationToken authenticationToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -1,13 +1,21 @@
 package com.nkd.accountservice.service;
 
 import com.nkd.accountservice.security.CustomUserDetails;
+import io.jsonwebtoken.Claims;
+import org.jooq.Record;
+
+import java.util.Optional;
 
 public interface JwtService {
     String getInternalKey();
     String generateLoginToken(String email);
+    Optional<Record> fetchLoginAccount(String email);
+    String generateLoginToken(String email, Record loginAccount);
     String generateOauth2LoginToken(String email, String name, String picture);
     boolean validateToken(String token, CustomUserDetails userDetails);
     String extractEmail(String token);
+    Claims extractAllClaims(String token);
+    CustomUserDetails buildUserDetails(Claims claims);
     boolean isTokenExpired(String token);
     String generateInternalToken(String email);
 }
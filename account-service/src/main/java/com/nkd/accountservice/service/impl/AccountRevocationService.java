@@ -0,0 +1,130 @@
+package com.nkd.accountservice.service.impl;
+
+import com.nkd.accountservice.enums.UserAccountAccountStatus;
+import com.nkd.accountservice.utils.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.nkd.accountservice.Tables.USER_ACCOUNT;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AccountRevocationService {
+
+    // email -> epoch second; tokens issued at or before it are rejected
+    private static final String REVOKED_ACCOUNTS = "account-revocations";
+    private static final String PERMANENT = String.valueOf(Long.MAX_VALUE);
+    // Expired tokens can still be refreshed through the one-day AUTHENTICATED cookie, so cut-offs outlive that.
+    private static final Duration CUT_OFF_RETENTION = Duration.ofDays(2);
+    private static final int EXPECTED_REVOCATIONS = 100_000;
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+
+    private final DSLContext context;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private volatile BloomFilter filter = new BloomFilter(EXPECTED_REVOCATIONS, FALSE_POSITIVE_RATE);
+
+    public boolean isRevoked(String email, Date issuedAt) {
+        if (email == null) {
+            return false;
+        }
+        String key = normalize(email);
+        if (!filter.mightContain(key)) {
+            return false;
+        }
+        String cutOff = redisTemplate.<String, String>opsForHash().get(REVOKED_ACCOUNTS, key);
+        if (cutOff == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.toInstant().getEpochSecond() <= Long.parseLong(cutOff);
+    }
+
+    // Rejects every token of the account until it is reinstated.
+    public void revoke(String email) {
+        setCutOff(email, PERMANENT);
+    }
+
+    // Rejects the tokens issued so far, so the next login carries the account's current email and role.
+    public void expireTokens(String email) {
+        setCutOff(email, String.valueOf(Instant.now().getEpochSecond()));
+    }
+
+    // Lifts a permanent revocation; tokens issued while the account was disabled stay rejected.
+    public void reinstate(String email) {
+        if (email != null && PERMANENT.equals(redisTemplate.<String, String>opsForHash().get(REVOKED_ACCOUNTS, normalize(email)))) {
+            expireTokens(email);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            String[] disabled = context.select(USER_ACCOUNT.ACCOUNT_EMAIL)
+                    .from(USER_ACCOUNT)
+                    .where(USER_ACCOUNT.ACCOUNT_STATUS.eq(UserAccountAccountStatus.DISABLED))
+                    .fetch(USER_ACCOUNT.ACCOUNT_EMAIL)
+                    .stream()
+                    .map(AccountRevocationService::normalize)
+                    .toArray(String[]::new);
+            Map<String, String> cutOffs = new HashMap<>();
+            for (String email : disabled) {
+                cutOffs.put(email, PERMANENT);
+            }
+            if (!cutOffs.isEmpty()) {
+                redisTemplate.<String, String>opsForHash().putAll(REVOKED_ACCOUNTS, cutOffs);
+            }
+        } catch (Exception e) {
+            log.error("Error seeding revoked accounts: {}", e.getMessage());
+        }
+        refresh();
+    }
+
+    @Scheduled(fixedDelay = 10, initialDelay = 10, timeUnit = TimeUnit.SECONDS)
+    public void refresh() {
+        try {
+            Map<String, String> revoked = redisTemplate.<String, String>opsForHash().entries(REVOKED_ACCOUNTS);
+            long stale = Instant.now().minus(CUT_OFF_RETENTION).getEpochSecond();
+            String[] expired = revoked.entrySet().stream()
+                    .filter(entry -> Long.parseLong(entry.getValue()) < stale)
+                    .map(Map.Entry::getKey)
+                    .toArray(String[]::new);
+            if (expired.length > 0) {
+                redisTemplate.opsForHash().delete(REVOKED_ACCOUNTS, (Object[]) expired);
+            }
+
+            BloomFilter rebuilt = new BloomFilter(Math.max(EXPECTED_REVOCATIONS, revoked.size() * 2), FALSE_POSITIVE_RATE);
+            revoked.keySet().forEach(rebuilt::add);
+            filter = rebuilt;
+        } catch (Exception e) {
+            log.error("Error refreshing revoked accounts: {}", e.getMessage());
+        }
+    }
+
+    private void setCutOff(String email, String cutOff) {
+        if (email == null) {
+            return;
+        }
+        String key = normalize(email);
+        redisTemplate.opsForHash().put(REVOKED_ACCOUNTS, key, cutOff);
+        filter.add(key);
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -6,7 +6,6 @@ import com.nkd.accountservice.enumeration.EventType;
 import com.nkd.accountservice.enums.RoleRoleName;
 import com.nkd.accountservice.enums.UserAccountAccountStatus;
 import com.nkd.accountservice.event.UserEvent;
-import com.nkd.accountservice.security.CustomUserDetailService;
 import com.nkd.accountservice.security.CustomUserDetails;
 import com.nkd.accountservice.service.AccountService;
 import com.nkd.accountservice.service.JwtService;
@@ -21,15 +20,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Triple;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Record;
 import org.jooq.types.UInteger;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,10 +34,12 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 import static com.nkd.accountservice.Tables.*;
 
@@ -49,19 +48,27 @@ import static com.nkd.accountservice.Tables.*;
 @Slf4j
 public class AccountServiceImpl implements AccountService {
 
+    private static final int ATTENDEE_INFO_CHUNK_SIZE = 1000;
+
     private final DSLContext context;
-    private final PasswordEncoder encoder;
+    private final PasswordHashingService passwordHasher;
     private final ApplicationEventPublisher publisher;
-    private final AuthenticationManager authenticationManager;
     private final RedisTemplate<String, String> redisTemplate;
+    private final ProfileChangePublisher profileChangePublisher;
     private final JwtService jwtService;
-    private final CustomUserDetailService userDetailService;
 
     @Override
     @Transactional
     public Response handleSignUp(AccountDTO accountDTO) {
+        String passwordHash;
+        try {
+            passwordHash = passwordHasher.encode(accountDTO.getPassword());
+        } catch (RejectedExecutionException e) {
+            return hashingBusy("Sign up", accountDTO.getEmail());
+        }
+
         UInteger credentialID = context.insertInto(CREDENTIAL)
-                .set(CREDENTIAL.PASSWORD, encoder.encode(accountDTO.getPassword()))
+                .set(CREDENTIAL.PASSWORD, passwordHash)
                 .set(CREDENTIAL.LAST_UPDATED_AT, LocalDateTime.now())
                 .returningResult(CREDENTIAL.CREDENTIAL_ID)
                 .fetchSingleInto(UInteger.class);
@@ -126,33 +133,44 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public Response handleLogin(AccountDTO accountDTO, HttpServletRequest request, HttpServletResponse response) {
-        if(!isEmailExist(accountDTO.getEmail())){
+        Optional<Record> loginAccount = jwtService.fetchLoginAccount(accountDTO.getEmail());
+        if(loginAccount.isEmpty()){
             log.error("Email not found : {}", accountDTO.getEmail());
             return new Response(HttpStatus.BAD_REQUEST.name(), ResponseMessageCode.ACCOUNT_NOT_FOUND, null);
         }
-        if(context.fetchExists(context.selectFrom(USER_ACCOUNT)
-                .where(USER_ACCOUNT.ACCOUNT_STATUS.eq(UserAccountAccountStatus.DISABLED)))) {
-            log.error("Account not verified : {}", accountDTO.getEmail());
+
+        Record account = loginAccount.get();
+        if(account.get(USER_ACCOUNT.ACCOUNT_STATUS) == UserAccountAccountStatus.DISABLED) {
+            log.error("Account disabled : {}", accountDTO.getEmail());
             return new Response(HttpStatus.BAD_REQUEST.name(), ResponseMessageCode.ACCOUNT_DISABLED, null);
         }
-        if(checkVerifiedAccount(accountDTO.getEmail())){
+        if(account.get(USER_ACCOUNT.ACCOUNT_STATUS) != UserAccountAccountStatus.VERIFIED){
             log.error("Account not verified : {}", accountDTO.getEmail());
             return new Response(HttpStatus.BAD_REQUEST.name(), ResponseMessageCode.ACCOUNT_NOT_VERIFIED, null);
         }
-        if(context.fetchExists(context.selectFrom(USER_ACCOUNT).where(USER_ACCOUNT.CREDENTIAL_ID.isNull()
-                .and(USER_ACCOUNT.ACCOUNT_EMAIL.eq(accountDTO.getEmail()))))) {
+        if(account.get(USER_ACCOUNT.CREDENTIAL_ID) == null) {
             log.error("Mismatch login method : {}", accountDTO.getEmail());
             return new Response(HttpStatus.BAD_REQUEST.name()
                     , ResponseMessageCode.MISMATCH_LOGIN_METHOD, null);
         }
 
-        CustomUserDetails userDetails = userDetailService.loadUserByUsername(accountDTO.getEmail());
-        UsernamePasswordAuthenticationToken authenticationToken =
-                new UsernamePasswordAuthenticationToken(userDetails, accountDTO.getPassword(), userDetails.getAuthorities());
-        Authentication authentication = authenticationManager.authenticate(authenticationToken);
-        if (authentication.isAuthenticated()) {
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            String token = jwtService.generateLoginToken(accountDTO.getEmail());
+        boolean authenticated;
+        try {
+            authenticated = accountDTO.getPassword() != null
+                    && passwordHasher.matches(accountDTO.getPassword(), account.get(CREDENTIAL.PASSWORD));
+        } catch (RejectedExecutionException e) {
+            log.warn("Login rejected, password hashing saturated : {}", accountDTO.getEmail());
+            return new Response(HttpStatus.SERVICE_UNAVAILABLE.name(), ResponseMessageCode.LOGIN_BUSY, null);
+        }
+
+        if (authenticated) {
+            CustomUserDetails userDetails = CustomUserDetails.builder()
+                    .username(accountDTO.getEmail())
+                    .rolePrivileges(account.get(ROLE.ROLE_PRIVILEGES) + ",ROLE_" + account.get(ROLE.ROLE_NAME))
+                    .build();
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+            String token = jwtService.generateLoginToken(accountDTO.getEmail(), account);
 
             Cookie cookie = new Cookie("AUTHENTICATED", "true");
             cookie.setPath("/");
@@ -299,13 +317,20 @@ public class AccountServiceImpl implements AccountService {
             return new Response(HttpStatus.BAD_REQUEST.name(), "Invalid Operation", null);
         }
 
+        String passwordHash;
+        try {
+            passwordHash = passwordHasher.encode(newPassword);
+        } catch (RejectedExecutionException e) {
+            return hashingBusy("Password reset", email);
+        }
+
         UInteger credentialID = context.select(USER_ACCOUNT.CREDENTIAL_ID)
                 .from(USER_ACCOUNT)
                 .where(USER_ACCOUNT.ACCOUNT_EMAIL.eq(email))
                 .fetchSingleInto(UInteger.class);
 
         context.update(CREDENTIAL)
-                .set(CREDENTIAL.PASSWORD, encoder.encode(newPassword))
+                .set(CREDENTIAL.PASSWORD, passwordHash)
                 .set(CREDENTIAL.LAST_UPDATED_AT, LocalDateTime.now())
                 .where(CREDENTIAL.CREDENTIAL_ID.eq(credentialID))
                 .execute();
@@ -527,8 +552,14 @@ public class AccountServiceImpl implements AccountService {
                 .where(USER_ACCOUNT.ACCOUNT_EMAIL.eq(passwordDTO.getEmail()))
                 .fetchSingleInto(String.class);
 
-        if(!encoder.matches(passwordDTO.getPassword(), oldPassword)){
-            return new Response(HttpStatus.BAD_REQUEST.name(), "Old password is incorrect", null);
+        String passwordHash;
+        try {
+            if(!passwordHasher.matches(passwordDTO.getPassword(), oldPassword)){
+                return new Response(HttpStatus.BAD_REQUEST.name(), "Old password is incorrect", null);
+            }
+            passwordHash = passwordHasher.encode(passwordDTO.getNewPassword());
+        } catch (RejectedExecutionException e) {
+            return hashingBusy("Password change", passwordDTO.getEmail());
         }
 
         UInteger credentialID = context.select(USER_ACCOUNT.CREDENTIAL_ID)
@@ -537,7 +568,7 @@ public class AccountServiceImpl implements AccountService {
                 .fetchSingleInto(UInteger.class);
 
         context.update(CREDENTIAL)
-                .set(CREDENTIAL.PASSWORD, encoder.encode(passwordDTO.getNewPassword()))
+                .set(CREDENTIAL.PASSWORD, passwordHash)
                 .set(CREDENTIAL.LAST_UPDATED_AT, LocalDateTime.now())
                 .where(CREDENTIAL.CREDENTIAL_ID.eq(credentialID))
                 .execute();
@@ -547,8 +578,15 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public Response setPasswordForOauth2User(String email, String password) {
+        String passwordHash;
+        try {
+            passwordHash = passwordHasher.encode(password);
+        } catch (RejectedExecutionException e) {
+            return hashingBusy("Password setup", email);
+        }
+
         UInteger credentialID = context.insertInto(CREDENTIAL)
-                .set(CREDENTIAL.PASSWORD, encoder.encode(password))
+                .set(CREDENTIAL.PASSWORD, passwordHash)
                 .set(CREDENTIAL.LAST_UPDATED_AT, LocalDateTime.now())
                 .returningResult(CREDENTIAL.CREDENTIAL_ID)
                 .fetchSingleInto(UInteger.class);
@@ -621,12 +659,16 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public List<Map<String, Object>> getEventAttendeeInfo(List<Integer> profileIDs) {
-        return context.select(PROFILE.PROFILE_ID, PROFILE.PROFILE_NAME, USER_DATA.FULL_NAME, USER_DATA.PHONE_NUMBER, USER_ACCOUNT.ACCOUNT_EMAIL,
-                        USER_DATA.NATIONALITY, USER_DATA.DATE_OF_BIRTH, USER_DATA.GENDER, USER_DATA.INTERESTS)
-                .from(PROFILE.join(USER_ACCOUNT).on(PROFILE.ACCOUNT_ID.eq(USER_ACCOUNT.ACCOUNT_ID))
-                        .join(USER_DATA).on(PROFILE.USER_DATA_ID.eq(USER_DATA.USER_DATA_ID)))
-                .where(PROFILE.PROFILE_ID.in(profileIDs))
-                .fetchMaps();
+        List<Map<String, Object>> attendeeInfo = new ArrayList<>(profileIDs.size());
+        for (int from = 0; from < profileIDs.size(); from += ATTENDEE_INFO_CHUNK_SIZE) {
+            attendeeInfo.addAll(context.select(PROFILE.PROFILE_ID, PROFILE.PROFILE_NAME, USER_DATA.FULL_NAME, USER_DATA.PHONE_NUMBER, USER_ACCOUNT.ACCOUNT_EMAIL,
+                            USER_DATA.NATIONALITY, USER_DATA.DATE_OF_BIRTH, USER_DATA.GENDER, USER_DATA.INTERESTS)
+                    .from(PROFILE.join(USER_ACCOUNT).on(PROFILE.ACCOUNT_ID.eq(USER_ACCOUNT.ACCOUNT_ID))
+                            .join(USER_DATA).on(PROFILE.USER_DATA_ID.eq(USER_DATA.USER_DATA_ID)))
+                    .where(PROFILE.PROFILE_ID.in(profileIDs.subList(from, Math.min(from + ATTENDEE_INFO_CHUNK_SIZE, profileIDs.size()))))
+                    .fetchMaps());
+        }
+        return attendeeInfo;
     }
 
     @Override
@@ -663,6 +705,7 @@ public class AccountServiceImpl implements AccountService {
             }
             updateProfile.where(PROFILE.PROFILE_ID.eq(profileID.get())).execute();
             updateProfileID = profileID.get();
+            profileChangePublisher.publish(updateProfileID.toString());
         }
         else{
             UInteger userDataID = context.insertInto(USER_DATA)
@@ -793,4 +836,9 @@ public class AccountServiceImpl implements AccountService {
                 .where(PROFILE.PROFILE_ID.eq(profileID))
                 .execute();
     }
+
+    private static Response hashingBusy(String operation, String email) {
+        log.warn("{} rejected, password hashing saturated : {}", operation, email);
+        return new Response(HttpStatus.SERVICE_UNAVAILABLE.name(), ResponseMessageCode.LOGIN_BUSY, null);
+    }
 }
@@ -10,7 +10,6 @@ import com.nkd.accountservice.enums.UserAccountAccountStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jooq.DSLContext;
-import org.jooq.impl.DSL;
 import org.jooq.types.UInteger;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
@@ -29,7 +28,6 @@ import static com.nkd.accountservice.tables.Profile.PROFILE;
 import static com.nkd.accountservice.tables.Role.ROLE;
 import static com.nkd.accountservice.tables.UserAccount.USER_ACCOUNT;
 import static com.nkd.accountservice.tables.UserData.USER_DATA;
-import static org.jooq.impl.DSL.field;
 
 @Service
 @Slf4j
@@ -38,6 +36,8 @@ public class AdminService {
 
     private final DSLContext context;
     private final ResourceLoader resourceLoader;
+    private final AccountRevocationService revocationService;
+    private final OverviewMetricsSnapshot overviewMetricsSnapshot;
 
     @Value("${google.analytics.credentials.path:classpath:credentials/service-account.json}")
     private String credentialsPath;
@@ -82,6 +82,11 @@ public class AdminService {
     }
 
     public Response deleteUser(String userID) {
+        String email = context.select(USER_ACCOUNT.ACCOUNT_EMAIL)
+                .from(USER_ACCOUNT)
+                .where(USER_ACCOUNT.ACCOUNT_ID.eq(UInteger.valueOf(userID)))
+                .fetchOneInto(String.class);
+
         var deleted = context.deleteFrom(USER_ACCOUNT)
                 .where(USER_ACCOUNT.ACCOUNT_ID.eq(UInteger.valueOf(userID)))
                 .execute();
@@ -90,10 +95,17 @@ public class AdminService {
             return new Response(HttpStatus.NOT_FOUND.name(), "User not found", null);
         }
 
+        revocationService.expireTokens(email);
         return new Response(HttpStatus.OK.name(), "User deleted successfully", null);
     }
 
     public Response updateUserData(UserDataDTO userDataDTO){
+        var previous = context.select(USER_ACCOUNT.ACCOUNT_EMAIL, ROLE.ROLE_NAME, ROLE.ROLE_PRIVILEGES)
+                .from(USER_ACCOUNT)
+                .leftJoin(ROLE).on(USER_ACCOUNT.ROLE_ID.eq(ROLE.ROLE_ID))
+                .where(USER_ACCOUNT.ACCOUNT_ID.eq(userDataDTO.getAccountId()))
+                .fetchOne();
+
         UInteger newRoleID = context.insertInto(ROLE)
                 .set(ROLE.ROLE_NAME, RoleRoleName.valueOf(userDataDTO.getRoleName()))
                 .set(ROLE.ROLE_PRIVILEGES, userDataDTO.getAuthorities())
@@ -111,6 +123,19 @@ public class AdminService {
                 .where(USER_ACCOUNT.ACCOUNT_ID.eq(userDataDTO.getAccountId()))
                 .execute();
 
+        if(previous != null && !userDataDTO.getAccountEmail().equalsIgnoreCase(previous.value1())){
+            revocationService.expireTokens(previous.value1());
+        }
+        if(UserAccountAccountStatus.valueOf(userDataDTO.getAccountStatus()) == UserAccountAccountStatus.DISABLED){
+            revocationService.revoke(userDataDTO.getAccountEmail());
+        } else if(previous == null || previous.value2() != RoleRoleName.valueOf(userDataDTO.getRoleName())
+                || !Objects.equals(previous.value3(), userDataDTO.getAuthorities())
+                || !userDataDTO.getAccountEmail().equalsIgnoreCase(previous.value1())){
+            revocationService.expireTokens(userDataDTO.getAccountEmail());
+        } else {
+            revocationService.reinstate(userDataDTO.getAccountEmail());
+        }
+
         context.update(PROFILE)
                 .set(PROFILE.PROFILE_NAME, userDataDTO.getFullName())
                 .set(PROFILE.DESCRIPTION, userDataDTO.getDescription())
@@ -137,31 +162,8 @@ public class AdminService {
         return new Response(HttpStatus.OK.name(), "OK", null);
     }
 
-    public Map<String, Object> getOverviewMetrics() {
-        Map<String, Object> metrics = new HashMap<>();
-
-        try {
-            List<Map<String, Object>> usersByCountry = context.select(
-                            USER_DATA.NATIONALITY,
-                            DSL.count().as("count")
-                    )
-                    .from(USER_ACCOUNT)
-                    .join(PROFILE).on(USER_ACCOUNT.DEFAULT_PROFILE_ID.eq(PROFILE.PROFILE_ID))
-                    .join(USER_DATA).on(PROFILE.USER_DATA_ID.eq(USER_DATA.USER_DATA_ID))
-                    .where(USER_DATA.NATIONALITY.isNotNull())
-                    .groupBy(USER_DATA.NATIONALITY)
-                    .orderBy(field("count").desc())
-                    .limit(10)
-                    .fetchMaps();
-
-            metrics.put("usersByCountry", usersByCountry);
-
-        } catch (Exception e) {
-            log.error("Error retrieving admin overview metrics", e);
-            metrics.put("error", "Failed to retrieve metrics: " + e.getMessage());
-        }
-
-        return metrics;
+    public Map<String, Object> getOverviewMetrics(boolean refresh) {
+        return overviewMetricsSnapshot.get(refresh);
     }
 
     public Map<String, Object> getAnalytics(String propertyId, String startDate, String endDate) {
@@ -296,14 +298,15 @@ public class AdminService {
     }
 
     public Response suspendUser(String profileID) {
-        UInteger accountID = context.select(PROFILE.ACCOUNT_ID)
-                .from(PROFILE)
+        var account = context.select(PROFILE.ACCOUNT_ID, USER_ACCOUNT.ACCOUNT_EMAIL)
+                .from(PROFILE.leftJoin(USER_ACCOUNT).on(PROFILE.ACCOUNT_ID.eq(USER_ACCOUNT.ACCOUNT_ID)))
                 .where(PROFILE.PROFILE_ID.eq(UInteger.valueOf(profileID)))
-                .fetchOneInto(UInteger.class);
+                .fetchOne();
 
-        if (accountID == null) {
+        if (account == null || account.value1() == null) {
             return new Response(HttpStatus.NOT_FOUND.name(), "Profile not found", null);
         }
+        UInteger accountID = account.value1();
 
         var suspended = context.update(USER_ACCOUNT)
                 .set(USER_ACCOUNT.ACCOUNT_STATUS, UserAccountAccountStatus.DISABLED)
@@ -314,6 +317,7 @@ public class AdminService {
             return new Response(HttpStatus.NOT_FOUND.name(), "User account not found", null);
         }
 
+        revocationService.revoke(account.value2());
         return new Response(HttpStatus.OK.name(), "User suspended successfully", null);
     }
 }
@@ -0,0 +1,273 @@
+package com.nkd.accountservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nkd.accountservice.enumeration.EventType;
+import com.nkd.accountservice.event.UserEvent;
+import com.nkd.accountservice.service.EmailService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@Slf4j
+public class EmailOutbox {
+
+    private static final Table<?> EMAIL_OUTBOX = DSL.table(DSL.name("email_outbox"));
+    private static final Field<Long> ID = DSL.field(DSL.name("outbox_id"), SQLDataType.BIGINT.identity(true));
+    private static final Field<String> EVENT_TYPE = DSL.field(DSL.name("event_type"), SQLDataType.VARCHAR(32).nullable(false));
+    private static final Field<String> PAYLOAD = DSL.field(DSL.name("payload"), SQLDataType.CLOB.nullable(false));
+    private static final Field<String> STATUS = DSL.field(DSL.name("status"), SQLDataType.VARCHAR(16).nullable(false));
+    private static final Field<Integer> ATTEMPTS = DSL.field(DSL.name("attempts"), SQLDataType.INTEGER.nullable(false).defaultValue(0));
+    private static final Field<LocalDateTime> NEXT_ATTEMPT_AT = DSL.field(DSL.name("next_attempt_at"), SQLDataType.LOCALDATETIME.nullable(false));
+    private static final Field<String> LAST_ERROR = DSL.field(DSL.name("last_error"), SQLDataType.VARCHAR(1000));
+    private static final Field<LocalDateTime> CREATED_AT = DSL.field(DSL.name("created_at"), SQLDataType.LOCALDATETIME.nullable(false));
+    private static final Field<LocalDateTime> SENT_AT = DSL.field(DSL.name("sent_at"), SQLDataType.LOCALDATETIME);
+
+    private static final String PENDING = "PENDING";
+    private static final String SENDING = "SENDING";
+    private static final String SENT = "SENT";
+    private static final String DEAD = "DEAD";
+    // Payloads carry activation tokens and reset codes; they are wiped once a row is final.
+    // The column stays NOT NULL so tables created by earlier versions need no migration.
+    private static final String CLEARED_PAYLOAD = "{}";
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final Duration BASE_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    private static final Duration SENT_RETENTION = Duration.ofDays(7);
+    private static final long POLL_INTERVAL_MILLIS = 2000;
+
+    private final DSLContext context;
+    private final EmailService emailService;
+    private final ObjectMapper mapper;
+    private final int workerCount;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Semaphore wakeup = new Semaphore(0);
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter dead;
+
+    public EmailOutbox(DSLContext context, EmailService emailService, ObjectMapper mapper, MeterRegistry meterRegistry,
+                       @Value("${mail.outbox.workers:2}") int workerCount,
+                       @Value("${mail.outbox.batch-size:20}") int batchSize,
+                       @Value("${mail.outbox.max-attempts:6}") int maxAttempts) {
+        this.context = context;
+        this.emailService = emailService;
+        this.mapper = mapper;
+        this.workerCount = Math.max(1, workerCount);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+
+        this.sent = Counter.builder("email.outbox.messages").tag("result", "sent").register(meterRegistry);
+        this.retried = Counter.builder("email.outbox.messages").tag("result", "retried").register(meterRegistry);
+        this.dead = Counter.builder("email.outbox.messages").tag("result", "dead").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        context.createTableIfNotExists(EMAIL_OUTBOX)
+                .columns(ID, EVENT_TYPE, PAYLOAD, STATUS, ATTEMPTS, NEXT_ATTEMPT_AT, LAST_ERROR, CREATED_AT, SENT_AT)
+                .primaryKey(ID)
+                .indexes(DSL.index(DSL.name("email_outbox_due_idx"), STATUS, NEXT_ATTEMPT_AT))
+                .execute();
+
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "email-outbox-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    public void enqueue(UserEvent event) {
+        String payload;
+        try {
+            payload = mapper.writeValueAsString(event.getData());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error serializing " + event.getEventType() + " email", e);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        context.insertInto(EMAIL_OUTBOX)
+                .set(EVENT_TYPE, event.getEventType().name())
+                .set(PAYLOAD, payload)
+                .set(STATUS, PENDING)
+                .set(ATTEMPTS, 0)
+                .set(NEXT_ATTEMPT_AT, now)
+                .set(CREATED_AT, now)
+                .execute();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeup.release();
+                }
+            });
+        } else {
+            wakeup.release();
+        }
+    }
+
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeSent() {
+        int purged = context.deleteFrom(EMAIL_OUTBOX)
+                .where(STATUS.eq(SENT))
+                .and(SENT_AT.lt(LocalDateTime.now().minus(SENT_RETENTION)))
+                .execute();
+        if (purged > 0) {
+            log.info("Purged {} sent emails from the outbox", purged);
+        }
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                List<Entry> batch = claim();
+                if (batch.isEmpty()) {
+                    wakeup.tryAcquire(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                batch.forEach(this::deliver);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Error draining email outbox: {}", e.getMessage());
+                try {
+                    Thread.sleep(POLL_INTERVAL_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    private List<Entry> claim() {
+        return context.transactionResult(configuration -> {
+            DSLContext tx = configuration.dsl();
+            LocalDateTime now = LocalDateTime.now();
+
+            List<Entry> due = tx.select(ID, EVENT_TYPE, PAYLOAD, ATTEMPTS)
+                    .from(EMAIL_OUTBOX)
+                    .where(STATUS.in(PENDING, SENDING))
+                    .and(NEXT_ATTEMPT_AT.le(now))
+                    .orderBy(NEXT_ATTEMPT_AT)
+                    .limit(batchSize)
+                    .forUpdate()
+                    .skipLocked()
+                    .fetch(record -> new Entry(record.value1(), record.value2(), record.value3(), record.value4()));
+
+            if (!due.isEmpty()) {
+                tx.update(EMAIL_OUTBOX)
+                        .set(STATUS, SENDING)
+                        .set(NEXT_ATTEMPT_AT, now.plus(LEASE))
+                        .where(ID.in(due.stream().map(Entry::id).toList()))
+                        .execute();
+            }
+            return due;
+        });
+    }
+
+    private void deliver(Entry entry) {
+        try {
+            dispatch(EventType.valueOf(entry.eventType()), mapper.readValue(entry.payload(), new TypeReference<>() {}));
+            context.update(EMAIL_OUTBOX)
+                    .set(STATUS, SENT)
+                    .set(PAYLOAD, CLEARED_PAYLOAD)
+                    .set(ATTEMPTS, entry.attempts() + 1)
+                    .set(SENT_AT, LocalDateTime.now())
+                    .setNull(LAST_ERROR)
+                    .where(ID.eq(entry.id()))
+                    .execute();
+            sent.increment();
+        } catch (Exception e) {
+            int attempts = entry.attempts() + 1;
+            String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            boolean exhausted = attempts >= maxAttempts;
+
+            context.update(EMAIL_OUTBOX)
+                    .set(STATUS, exhausted ? DEAD : PENDING)
+                    .set(PAYLOAD, exhausted ? DSL.inline(CLEARED_PAYLOAD) : PAYLOAD)
+                    .set(ATTEMPTS, attempts)
+                    .set(NEXT_ATTEMPT_AT, LocalDateTime.now().plus(backoff(attempts)))
+                    .set(LAST_ERROR, error.length() > 1000 ? error.substring(0, 1000) : error)
+                    .where(ID.eq(entry.id()))
+                    .execute();
+
+            if (exhausted) {
+                dead.increment();
+                log.error("Giving up on outbox email {} ({}) after {} attempts: {}", entry.id(), entry.eventType(), attempts, error);
+            } else {
+                retried.increment();
+                log.warn("Outbox email {} ({}) failed on attempt {}: {}", entry.id(), entry.eventType(), attempts, error);
+            }
+        }
+    }
+
+    private void dispatch(EventType eventType, Map<String, Object> data) {
+        switch (eventType) {
+            case REGISTRATION -> emailService.sendRegistrationEmail(
+                    (String) data.get("email"),
+                    (Integer) data.get("accountID"),
+                    (Integer) data.get("confirmationID"),
+                    (String) data.get("token"),
+                    LocalDateTime.parse((String) data.get("expirationTime"))
+            );
+            case RESEND_ACTIVATION -> emailService.sendActivationEmail(
+                    (String) data.get("email"),
+                    (Integer) data.get("accountID"),
+                    (Integer) data.get("confirmationID"),
+                    (String) data.get("token"),
+                    LocalDateTime.parse((String) data.get("expirationTime"))
+            );
+            case FORGOT_PASSWORD -> emailService.sendPasswordResetEmail(
+                    (String) data.get("email"),
+                    (String) data.get("code"),
+                    LocalDateTime.parse((String) data.get("expirationTime"))
+            );
+            case OAUTH2_SET_PASSWORD -> emailService.sendOAuth2SetPasswordEmail((String) data.get("email"));
+            default -> throw new IllegalArgumentException("No email for event type " + eventType);
+        }
+    }
+
+    private static Duration backoff(int attempts) {
+        Duration delay = BASE_BACKOFF.multipliedBy(1L << Math.min(attempts - 1, 16));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private record Entry(Long id, String eventType, String payload, Integer attempts) {}
+}
@@ -4,9 +4,12 @@ import com.nkd.accountservice.enums.RoleRoleName;
 import com.nkd.accountservice.security.CustomUserDetails;
 import com.nkd.accountservice.service.JwtService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.jooq.DSLContext;
+import org.jooq.Record;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -17,6 +20,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
@@ -33,6 +37,8 @@ public class JwtServiceImpl implements JwtService {
     @Value("${jwt.secret}")
     private String secretKey;
     private final long EXPIRE_DURATION = TimeUnit.DAYS.toMillis(1);
+    private SecretKey key;
+    private JwtParser parser;
 
     @Override
     public String getInternalKey(){
@@ -41,22 +47,32 @@ public class JwtServiceImpl implements JwtService {
 
     @Override
     public String generateLoginToken(String email) {
-        Map<String, Object> claims = new HashMap<>();
+        return fetchLoginAccount(email)
+                .map(account -> generateLoginToken(email, account))
+                .orElse("");
+    }
 
-        var userData = context.select(USER_DATA.USER_DATA_ID, USER_DATA.FULL_NAME, USER_DATA.GENDER, USER_DATA.NATIONALITY, USER_DATA.DATE_OF_BIRTH, USER_DATA.PHONE_NUMBER,
+    @Override
+    public Optional<Record> fetchLoginAccount(String email) {
+        return context.select(USER_DATA.USER_DATA_ID, USER_DATA.FULL_NAME, USER_DATA.GENDER, USER_DATA.NATIONALITY, USER_DATA.DATE_OF_BIRTH, USER_DATA.PHONE_NUMBER,
                 USER_DATA.INTERESTS, PROFILE.PROFILE_NAME, PROFILE.DESCRIPTION, PROFILE.PROFILE_IMAGE_URL, PROFILE.PROFILE_ID, USER_ACCOUNT.ACCOUNT_ID
-                        , ROLE.ROLE_PRIVILEGES, ROLE.ROLE_NAME)
-                .from(USER_ACCOUNT.join(PROFILE).on(USER_ACCOUNT.DEFAULT_PROFILE_ID.eq(PROFILE.PROFILE_ID))
+                        , ROLE.ROLE_PRIVILEGES, ROLE.ROLE_NAME, USER_ACCOUNT.ACCOUNT_STATUS, USER_ACCOUNT.CREDENTIAL_ID, CREDENTIAL.PASSWORD)
+                .from(USER_ACCOUNT.leftJoin(PROFILE).on(USER_ACCOUNT.DEFAULT_PROFILE_ID.eq(PROFILE.PROFILE_ID))
                         .leftJoin(USER_DATA).on(PROFILE.USER_DATA_ID.eq(USER_DATA.USER_DATA_ID))
-                        .leftJoin(ROLE).on(ROLE.ROLE_ID.eq(USER_ACCOUNT.ROLE_ID)))
+                        .leftJoin(ROLE).on(ROLE.ROLE_ID.eq(USER_ACCOUNT.ROLE_ID))
+                        .leftJoin(CREDENTIAL).on(USER_ACCOUNT.CREDENTIAL_ID.eq(CREDENTIAL.CREDENTIAL_ID)))
                 .where(USER_ACCOUNT.ACCOUNT_EMAIL.eq(email))
-                .fetchOptional();
+                .fetchOptional()
+                .map(Record.class::cast);
+    }
 
-        if(userData.isEmpty()){
+    @Override
+    public String generateLoginToken(String email, Record record) {
+        if(record.get(PROFILE.PROFILE_ID) == null){
             return "";
         }
 
-        var record = userData.get();
+        Map<String, Object> claims = new HashMap<>();
         Function<Object, String> getValueOrDefault = value -> value == null ? "" : value.toString();
         claims.put("userID", getValueOrDefault.apply(record.get(USER_ACCOUNT.ACCOUNT_ID)));
         claims.put("userDataID", getValueOrDefault.apply(record.get(USER_DATA.USER_DATA_ID)));
@@ -129,14 +145,35 @@ public class JwtServiceImpl implements JwtService {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token).getPayload();
+    @Override
+    public Claims extractAllClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    @Override
+    public CustomUserDetails buildUserDetails(Claims claims) {
+        Object role = claims.get("role");
+        if (role == null || role.toString().isEmpty()) {
+            return null;
+        }
+
+        StringBuilder rolePrivileges = new StringBuilder();
+        rolePrivileges.append(claims.get("privileges")).append(",ROLE_").append(role);
+        return CustomUserDetails.builder()
+                .username(claims.getSubject())
+                .rolePrivileges(rolePrivileges.toString())
+                .build();
+    }
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(secretKey.getBytes());
+        parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
     }
 
     private SecretKey getKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+        return key;
     }
 }
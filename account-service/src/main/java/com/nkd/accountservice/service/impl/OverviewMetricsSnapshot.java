@@ -0,0 +1,195 @@
+package com.nkd.accountservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.nkd.accountservice.tables.Profile.PROFILE;
+import static com.nkd.accountservice.tables.UserAccount.USER_ACCOUNT;
+import static com.nkd.accountservice.tables.UserData.USER_DATA;
+import static org.jooq.impl.DSL.field;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OverviewMetricsSnapshot {
+
+    private static final String SNAPSHOT_KEY = "admin-account-overview-metrics";
+    private static final String LOCK = "admin-account-overview-metrics-lock";
+    private static final long REFRESH_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final Duration SNAPSHOT_TTL = Duration.ofHours(1);
+    private static final Duration LOCK_TIMEOUT = Duration.ofMinutes(1);
+    private static final long POLL_MILLIS = 500;
+
+    private final DSLContext context;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper mapper;
+    private final AtomicReference<CompletableFuture<Snapshot>> refreshing = new AtomicReference<>();
+    private volatile Snapshot latest;
+
+    private record Snapshot(Map<String, Object> metrics, long generatedAt) {}
+
+    public Map<String, Object> get(boolean refresh) {
+        try {
+            Snapshot snapshot = refresh ? refresh() : current();
+            Map<String, Object> metrics = new HashMap<>(snapshot.metrics());
+            metrics.put("generatedAt", Instant.ofEpochMilli(snapshot.generatedAt()).toString());
+            metrics.put("ageSeconds", TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - snapshot.generatedAt()));
+            return metrics;
+        } catch (Exception e) {
+            log.error("Error retrieving admin overview metrics", e);
+            Map<String, Object> metrics = new HashMap<>();
+            metrics.put("error", "Failed to retrieve metrics: " + e.getMessage());
+            return metrics;
+        }
+    }
+
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public void scheduledRefresh() {
+        Snapshot shared = readShared();
+        if (shared != null && System.currentTimeMillis() - shared.generatedAt() < REFRESH_MILLIS) {
+            adopt(shared);
+            return;
+        }
+        if (refreshing.get() != null || Boolean.TRUE.equals(redisTemplate.hasKey(LOCK))) {
+            return;
+        }
+
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Error refreshing admin overview metrics snapshot: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot snapshot = latest;
+        if (snapshot == null) {
+            snapshot = readShared();
+            if (snapshot != null) {
+                adopt(snapshot);
+            }
+        }
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    private Snapshot refresh() {
+        CompletableFuture<Snapshot> created = new CompletableFuture<>();
+        CompletableFuture<Snapshot> existing = refreshing.compareAndExchange(null, created);
+        if (existing != null) {
+            return existing.join();
+        }
+
+        try {
+            Snapshot snapshot = refreshShared();
+            adopt(snapshot);
+            created.complete(snapshot);
+            return snapshot;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            refreshing.set(null);
+        }
+    }
+
+    private Snapshot refreshShared() {
+        long requestedAt = System.currentTimeMillis();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK, "1", LOCK_TIMEOUT))) {
+            return awaitShared(requestedAt);
+        }
+
+        try {
+            Snapshot snapshot = new Snapshot(compute(), System.currentTimeMillis());
+            try {
+                redisTemplate.opsForValue().set(SNAPSHOT_KEY, mapper.writeValueAsString(snapshot), SNAPSHOT_TTL);
+            } catch (JsonProcessingException e) {
+                log.warn("Failed to store admin overview metrics snapshot: {}", e.getMessage());
+            }
+            return snapshot;
+        } finally {
+            redisTemplate.delete(LOCK);
+        }
+    }
+
+    private Snapshot awaitShared(long requestedAt) {
+        long deadline = requestedAt + LOCK_TIMEOUT.toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            Snapshot shared = readShared();
+            if (shared != null && shared.generatedAt() >= requestedAt) {
+                return shared;
+            }
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(LOCK))) {
+                break;
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        Snapshot shared = Optional.ofNullable(readShared()).orElse(latest);
+        if (shared == null) {
+            throw new IllegalStateException("Admin overview metrics are being refreshed by another instance");
+        }
+        return shared;
+    }
+
+    private Snapshot readShared() {
+        String value = redisTemplate.opsForValue().get(SNAPSHOT_KEY);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return mapper.readValue(value, new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable admin overview metrics snapshot: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void adopt(Snapshot snapshot) {
+        Snapshot current = latest;
+        if (current == null || current.generatedAt() < snapshot.generatedAt()) {
+            latest = snapshot;
+        }
+    }
+
+    private Map<String, Object> compute() {
+        List<Map<String, Object>> usersByCountry = context.select(
+                        USER_DATA.NATIONALITY,
+                        DSL.count().as("count")
+                )
+                .from(USER_ACCOUNT)
+                .join(PROFILE).on(USER_ACCOUNT.DEFAULT_PROFILE_ID.eq(PROFILE.PROFILE_ID))
+                .join(USER_DATA).on(PROFILE.USER_DATA_ID.eq(USER_DATA.USER_DATA_ID))
+                .where(USER_DATA.NATIONALITY.isNotNull())
+                .groupBy(USER_DATA.NATIONALITY)
+                .orderBy(field("count").desc())
+                .limit(10)
+                .fetchMaps();
+
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("usersByCountry", usersByCountry);
+        return metrics;
+    }
+}
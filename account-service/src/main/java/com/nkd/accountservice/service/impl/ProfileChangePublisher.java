@@ -0,0 +1,30 @@
+package com.nkd.accountservice.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+@RequiredArgsConstructor
+public class ProfileChangePublisher {
+
+    private static final String CHANNEL = "profile-name-changed";
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    // Subscribers reload the profile right away, so they must not be told before the change is visible.
+    public void publish(String profileID) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            redisTemplate.convertAndSend(CHANNEL, profileID);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                redisTemplate.convertAndSend(CHANNEL, profileID);
+            }
+        });
+    }
+}
@@ -26,6 +26,7 @@ public class UserDataServiceImpl implements UserDataService {
 
     private final DSLContext context;
     private final JwtService jwtService;
+    private final ProfileChangePublisher profileChangePublisher;
 
     @Override
     public String getOrganizerProfiles(String email) {
@@ -90,6 +91,7 @@ public class UserDataServiceImpl implements UserDataService {
 
         update.where(PROFILE.PROFILE_ID.eq(UInteger.valueOf(profileId)))
                 .execute();
+        profileChangePublisher.publish(profileId);
 
         boolean isDefaultProfile = context.fetchExists(USER_ACCOUNT.join(PROFILE).on(PROFILE.ACCOUNT_ID.eq(USER_ACCOUNT.ACCOUNT_ID))
                 .where(USER_ACCOUNT.ACCOUNT_EMAIL.eq(email)
@@ -154,6 +156,7 @@ public class UserDataServiceImpl implements UserDataService {
                     .execute();
         }
 
+        profileChangePublisher.publish(profileID);
         String newToken = jwtService.generateLoginToken(email);
 
         return new Response(HttpStatus.OK.name(), "Profile deleted", newToken);
@@ -8,4 +8,5 @@ public class ResponseMessageCode {
     public static final String MISMATCH_LOGIN_METHOD = "ACLG_003";
     public static final String LOGIN_SUCCESSFUL = "ACLG_004";
     public static final String USERNAME_OR_PASSWORD_INCORRECT = "ACLG_005";
+    public static final String LOGIN_BUSY = "ACLG_007";
 }
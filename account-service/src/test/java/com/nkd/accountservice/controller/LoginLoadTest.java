@@ -0,0 +1,112 @@
+package com.nkd.accountservice.controller;
+
+import com.nkd.accountservice.utils.ResponseMessageCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Login storm against a running account-service: LOGIN_LOAD_URL is the /login endpoint, LOGIN_LOAD_EMAIL and
+// LOGIN_LOAD_PASSWORD a verified account. Prints logins per second, how many were turned away as busy, and the
+// latency of LOGIN_LOAD_PROBE_URL (another endpoint, if given) while the storm runs.
+@EnabledIfEnvironmentVariable(named = "LOGIN_LOAD_URL", matches = ".+")
+class LoginLoadTest {
+
+    private final URI loginURI = URI.create(System.getenv("LOGIN_LOAD_URL"));
+    private final String probeURL = System.getenv("LOGIN_LOAD_PROBE_URL");
+    private final int clients = Integer.parseInt(Optional.ofNullable(System.getenv("LOGIN_LOAD_CLIENTS")).orElse("64"));
+    private final Duration duration = Duration.ofSeconds(Long.parseLong(
+            Optional.ofNullable(System.getenv("LOGIN_LOAD_SECONDS")).orElse("30")));
+    private final String body = "{\"email\": \"" + System.getenv("LOGIN_LOAD_EMAIL") + "\", \"password\": \""
+            + System.getenv("LOGIN_LOAD_PASSWORD") + "\"}";
+
+    @Test
+    void loginStorm() throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        LongAdder succeeded = new LongAdder();
+        LongAdder busy = new LongAdder();
+        LongAdder failed = new LongAdder();
+        Queue<Long> loginNanos = new ConcurrentLinkedQueue<>();
+        Queue<Long> probeNanos = new ConcurrentLinkedQueue<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(executor.submit(() -> {
+                while (running.get()) {
+                    long started = System.nanoTime();
+                    try {
+                        String response = client.send(loginRequest(), HttpResponse.BodyHandlers.ofString()).body();
+                        if (response.contains(ResponseMessageCode.LOGIN_SUCCESSFUL)) {
+                            succeeded.increment();
+                            loginNanos.add(System.nanoTime() - started);
+                        } else if (response.contains(ResponseMessageCode.LOGIN_BUSY)) {
+                            busy.increment();
+                        } else {
+                            failed.increment();
+                        }
+                    } catch (Exception e) {
+                        failed.increment();
+                    }
+                }
+                return null;
+            }));
+        }
+        if (probeURL != null && !probeURL.isBlank()) {
+            futures.add(executor.submit(() -> {
+                HttpRequest probe = HttpRequest.newBuilder(URI.create(probeURL)).timeout(Duration.ofSeconds(10)).GET().build();
+                while (running.get()) {
+                    long started = System.nanoTime();
+                    client.send(probe, HttpResponse.BodyHandlers.discarding());
+                    probeNanos.add(System.nanoTime() - started);
+                    Thread.sleep(100);
+                }
+                return null;
+            }));
+        }
+
+        Thread.sleep(duration.toMillis());
+        running.set(false);
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        double seconds = duration.toMillis() / 1000.0;
+        System.out.printf("%d clients for %.0f s: %,.1f logins/s, %d succeeded, %d busy (503), %d failed%n",
+                clients, seconds, succeeded.sum() / seconds, succeeded.sum(), busy.sum(), failed.sum());
+        System.out.println("login latency: " + percentiles(loginNanos));
+        if (!probeNanos.isEmpty()) {
+            System.out.println("probe latency during the storm: " + percentiles(probeNanos));
+        }
+        assertTrue(succeeded.sum() > 0, "no login succeeded");
+    }
+
+    private HttpRequest loginRequest() {
+        return HttpRequest.newBuilder(loginURI)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String percentiles(Collection<Long> nanos) {
+        if (nanos.isEmpty()) {
+            return "no samples";
+        }
+        long[] sorted = nanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        return String.format("p50 %.1f ms, p95 %.1f ms, p99 %.1f ms", sorted[sorted.length / 2] / 1e6,
+                sorted[sorted.length * 95 / 100] / 1e6, sorted[sorted.length * 99 / 100] / 1e6);
+    }
+}
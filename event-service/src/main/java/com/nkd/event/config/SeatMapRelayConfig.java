@@ -0,0 +1,20 @@
+package com.nkd.event.config;
+
+import com.nkd.event.service.SeatMapBroadcaster;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+@ConditionalOnProperty(name = "seat-map.broker", havingValue = "redis")
+public class SeatMapRelayConfig {
+
+    public SeatMapRelayConfig(RedisMessageListenerContainer listenerContainer, SeatMapBroadcaster broadcaster) {
+        listenerContainer.addMessageListener((message, pattern) ->
+                        broadcaster.onRelayedDelta(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(SeatMapBroadcaster.RELAY_CHANNEL));
+    }
+}
@@ -2,10 +2,12 @@ package com.nkd.event.config;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -22,4 +24,19 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws").setAllowedOrigins("http://localhost:5173");
         registry.addEndpoint("/ws").setAllowedOrigins("http://localhost:5173").withSockJS();
     }
+
+    @Override
+    public void configureWebSocketTransport(@NonNull WebSocketTransportRegistration registry) {
+        registry.setSendBufferSizeLimit(256 * 1024);
+        registry.setSendTimeLimit(10_000);
+        registry.setMessageSizeLimit(64 * 1024);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(@NonNull ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(4)
+                .maxPoolSize(16)
+                .queueCapacity(10_000);
+    }
 }
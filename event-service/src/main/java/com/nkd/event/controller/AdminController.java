@@ -27,8 +27,8 @@ public class AdminController {
     }
 
     @GetMapping("/metrics")
-    public Map<String, Object> getMetrics() {
-        return adminService.getOverviewMetrics();
+    public Map<String, Object> getMetrics(@RequestParam(value = "refresh", defaultValue = "false") boolean refresh) {
+        return adminService.getOverviewMetrics(refresh);
     }
 
     @GetMapping("/reports")
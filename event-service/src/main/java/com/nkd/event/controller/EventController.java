@@ -5,7 +5,9 @@ import com.nkd.event.service.EventService;
 import com.nkd.event.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -230,9 +232,20 @@ public class EventController {
         return eventService.loadEventAttendees(eventID);
     }
 
+    @GetMapping("/event/attendees/export")
+    public ResponseEntity<StreamingResponseBody> exportEventAttendees(@RequestParam("eid") String eventID,
+                                                                      @RequestParam(value = "format", defaultValue = "csv") String format) {
+        return eventService.exportEventAttendees(eventID, format);
+    }
+
     @PostMapping("/attendees/email")
     public Response sendAttendeesEmail(@RequestBody AttendeeEmailDTO emailDTO) {
         return eventService.sendAttendeesEmail(emailDTO);
     }
 
+    @GetMapping("/attendees/email/status")
+    public Response getAttendeesEmailStatus(@RequestParam("job") String jobID) {
+        return eventService.getAttendeesEmailStatus(jobID);
+    }
+
 }
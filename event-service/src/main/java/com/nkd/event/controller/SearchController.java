@@ -4,7 +4,9 @@ import com.nkd.event.dto.Response;
 import com.nkd.event.dto.UserInteraction;
 import com.nkd.event.service.SearchService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -56,11 +58,22 @@ public class SearchController {
     }
 
     @GetMapping("/search/orders")
-    public List<Map<String, Object>> loadOrders(@RequestParam(value = "q", defaultValue = "") String query,
-                                                @RequestParam(value = "range", defaultValue = "3") Integer range,
-                                                @RequestParam(value = "pid", required = false) Integer organizerID,
-                                                @RequestParam(value = "eid", required = false) String eventID) {
-        return searchService.loadOrders(query, range, organizerID, eventID);
+    public Map<String, Object> loadOrders(@RequestParam(value = "q", defaultValue = "") String query,
+                                          @RequestParam(value = "range", defaultValue = "3") Integer range,
+                                          @RequestParam(value = "pid", required = false) Integer organizerID,
+                                          @RequestParam(value = "eid", required = false) String eventID,
+                                          @RequestParam(value = "cursor", required = false) String cursor,
+                                          @RequestParam(value = "size", defaultValue = "50") Integer size) {
+        return searchService.loadOrders(query, range, organizerID, eventID, cursor, size);
+    }
+
+    @GetMapping("/search/orders/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(value = "q", defaultValue = "") String query,
+                                                              @RequestParam(value = "range", defaultValue = "3") Integer range,
+                                                              @RequestParam(value = "pid", required = false) Integer organizerID,
+                                                              @RequestParam(value = "eid", required = false) String eventID,
+                                                              @RequestParam(value = "format", defaultValue = "csv") String format) {
+        return searchService.exportOrders(query, range, organizerID, eventID, format);
     }
 
     @PostMapping("/attendee/interaction")
@@ -5,6 +5,7 @@ import com.nkd.event.service.TicketService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -50,6 +51,12 @@ public class TicketController {
         return ticketService.getOrderTicket(orderID);
     }
 
+    @GetMapping("/order/tickets/download")
+    public ResponseEntity<StreamingResponseBody> downloadOrderTickets(@RequestParam("order-id") Integer orderID,
+                                                                      @RequestAttribute(value = "userID", required = false) Integer userID) {
+        return ticketService.downloadOrderTickets(orderID, userID);
+    }
+
     @PostMapping("/ticket/download")
     public ResponseEntity<?> downloadTicket(@RequestBody PrintTicketDTO printTicketDTO) {
         return ticketService.downloadTicket(printTicketDTO);
@@ -1,11 +1,8 @@
 package com.nkd.event.controller;
 
+import com.nkd.event.service.SeatMapBroadcaster;
 import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
@@ -14,10 +11,20 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class WebSocketController {
 
-    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final SeatMapBroadcaster seatMapBroadcaster;
 
     @PostMapping("/seat-map/state/update")
-    public void updateMapState(@RequestParam("mid") String mapID, @RequestBody List<String> seatIDs) {
-        simpMessagingTemplate.convertAndSend("/seat-map/" + mapID, seatIDs);
+    public void updateMapState(@RequestParam("mid") Integer mapID, @RequestBody List<String> seatIDs) {
+        seatMapBroadcaster.seatsTaken(mapID, seatIDs);
+    }
+
+    @GetMapping("/seat-map/snapshot")
+    public Map<String, Object> getMapSnapshot(@RequestParam("mid") Integer mapID) {
+        return seatMapBroadcaster.snapshot(mapID);
+    }
+
+    @GetMapping("/seat-map/replay")
+    public Map<String, Object> replayMapState(@RequestParam("mid") Integer mapID, @RequestParam("since") Long sequence) {
+        return seatMapBroadcaster.replay(mapID, sequence);
     }
 }
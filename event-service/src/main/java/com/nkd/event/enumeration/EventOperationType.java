@@ -3,4 +3,6 @@ package com.nkd.event.enumeration;
 public enum EventOperationType {
     VIEW,
     CANCEL,
+    UPDATE,
+    SALE,
 }
@@ -5,7 +5,8 @@ import lombok.Getter;
 @Getter
 public enum PaymentStatus {
     USER_CANCELLED("User canceled payment"),
-    INVALID_BALANCE("Invalid balance for payment");
+    INVALID_BALANCE("Invalid balance for payment"),
+    SEATS_UNAVAILABLE("Seats were taken before the payment completed");
 
     private final String description;
 
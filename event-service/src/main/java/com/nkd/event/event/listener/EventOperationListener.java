@@ -1,8 +1,8 @@
 package com.nkd.event.event.listener;
 
-import com.nkd.event.enumeration.EventOperationType;
 import com.nkd.event.event.EventOperation;
 import com.nkd.event.service.EmailService;
+import com.nkd.event.service.EventViewRecorder;
 import com.nkd.event.service.TicketService;
 import lombok.RequiredArgsConstructor;
 import org.jooq.DSLContext;
@@ -10,8 +10,6 @@ import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
 import java.util.UUID;
 
 import static com.nkd.event.Tables.*;
@@ -23,19 +21,19 @@ public class EventOperationListener {
     private final DSLContext context;
     private final EmailService emailService;
     private final TicketService ticketService;
+    private final EventViewRecorder eventViewRecorder;
+
+    @EventListener(condition = "#operation.type == T(com.nkd.event.enumeration.EventOperationType).VIEW")
+    public void onEventView(EventOperation operation) {
+        var data = operation.getData();
+        eventViewRecorder.record(UUID.fromString(String.valueOf(data.get("eventID"))),
+                (Integer) data.get("profileID"), (Integer) data.get("timezone"));
+    }
 
     @Async("taskExecutor")
-    @EventListener
+    @EventListener(condition = "#operation.type == T(com.nkd.event.enumeration.EventOperationType).CANCEL")
     public void onEventOperation(EventOperation operation) {
         switch (operation.getType()){
-            case EventOperationType.VIEW -> {
-                var data = operation.getData();
-                Integer timezone = (Integer) data.get("timezone");
-                context.insertInto(EVENTVIEWS).set(EVENTVIEWS.EVENT_ID, UUID.fromString(String.valueOf(data.get("eventID"))))
-                        .set(EVENTVIEWS.VIEW_DATE, OffsetDateTime.now(ZoneOffset.ofHours(timezone)))
-                        .set(EVENTVIEWS.PROFILE_ID, (Integer) data.get("profileID"))
-                        .execute();
-            }
             case CANCEL -> {
                 var data = operation.getData();
                 String eventName = context.select(EVENTS.NAME).from(EVENTS)
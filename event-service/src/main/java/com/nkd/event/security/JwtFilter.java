@@ -33,14 +33,17 @@ public class JwtFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String email = null, token = null;
+        String email = null;
+        JwtService.VerifiedToken verified = null;
 
         if(authHeader != null && authHeader.startsWith("Bearer ")){
-            token = authHeader.substring(7);
+            String token = authHeader.substring(7);
             try{
-                email = jwtService.extractEmail(token);
+                verified = jwtService.verify(token);
+                email = verified.email();
             } catch (ExpiredJwtException e){
                 log.error(e.getMessage());
+                email = e.getClaims().getSubject();
                 String authenticatedCookie = CommonUtils.getCookieValue(request, "AUTHENTICATED");
 
                 if(authenticatedCookie != null && authenticatedCookie.equals("true")){
@@ -63,8 +66,8 @@ public class JwtFilter extends OncePerRequestFilter {
         }
 
         if(email != null && SecurityContextHolder.getContext().getAuthentication() == null){
-            CustomUserDetails userDetails = jwtService.buildCustomUserDetails(token);
-            if(jwtService.validateToken(token)){
+            if(verified.expiresAt() > System.currentTimeMillis()){
+                CustomUserDetails userDetails = verified.toUserDetails();
                 UsernamePasswordAuthenticationToken authenticationToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -72,6 +75,7 @@ public class JwtFilter extends OncePerRequestFilter {
             }
         }
         request.setAttribute("email", email);
+        request.setAttribute("userID", verified != null && verified.expiresAt() > System.currentTimeMillis() ? verified.userID() : null);
         filterChain.doFilter(request, response);
     }
 }
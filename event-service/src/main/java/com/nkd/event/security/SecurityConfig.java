@@ -55,7 +55,7 @@ public class SecurityConfig {
                                 "/error/**", "/actuator/**", "/ws/**",
                                 "/search", "/search/suggestions", "/search/trends",
                                 "/get/specific", "/get/related", "/get/profile", "/get/suggested",
-                                "/events/**", "/event/trends", "/seat-map/state/update",
+                                "/events/**", "/event/trends", "/seat-map/state/update", "/seat-map/snapshot", "/seat-map/replay",
                                 "/seat-map/data", "/event/report"
                         ).permitAll()
 
@@ -63,18 +63,18 @@ public class SecurityConfig {
                                 "/create/**", "/update/**", "/delete/**",
                                 "/tickets/add", "/tickets/update", "/tickets/remove",
                                 "/tickets/tier/**", "/tier-tickets",
-                                "/event/dashboard", "/event/attendees", "/attendees/email",
+                                "/event/dashboard", "/event/attendees", "/event/attendees/export", "/attendees/email", "/attendees/email/status",
                                 "/organizer/report", "/event/report"
                         ).hasRole("HOST")
 
                         .requestMatchers(
                                 "/payment/**", "/coupon/**",
-                                "/search/orders", "/orders/profile/**",
+                                "/search/orders", "/search/orders/export", "/orders/profile/**",
                                 "/order/cancel"
                         ).hasAnyRole("ATTENDEE", "HOST")
 
                         .requestMatchers(
-                                "/order/tickets", "/ticket/download",
+                                "/order/tickets", "/order/tickets/download", "/ticket/download",
                                 "/event/favorite/**", "/attendee/interaction"
                         ).hasRole("ATTENDEE")
 
@@ -7,10 +7,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jooq.DSLContext;
 import org.jooq.Record;
-import org.jooq.Record2;
 import org.jooq.Record3;
 import org.jooq.impl.DSL;
-import org.jooq.impl.SQLDataType;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.context.Context;
@@ -28,7 +26,6 @@ import java.util.stream.Collectors;
 import static com.nkd.event.Tables.ORDERITEMS;
 import static com.nkd.event.tables.Eventreports.EVENTREPORTS;
 import static com.nkd.event.tables.Events.EVENTS;
-import static com.nkd.event.tables.Eventtypes.EVENTTYPES;
 import static com.nkd.event.tables.Orders.ORDERS;
 import static com.nkd.event.tables.Tickets.TICKETS;
 import static com.nkd.event.tables.Tickettypes.TICKETTYPES;
@@ -41,8 +38,10 @@ public class AdminService {
 
     private final DSLContext context;
     private final AccountClient accountClient;
+    private final ProfileNameResolver profileNameResolver;
     private final EmailService emailService;
     private final SpringTemplateEngine templateEngine;
+    private final OverviewMetricsSnapshot overviewMetricsSnapshot;
 
     public Map<String, Object> getEventStats(String startDate, String endDate) {
         Map<String, Object> stats = new HashMap<>();
@@ -148,24 +147,7 @@ public class AdminService {
 
             Map<Integer, String> organizerNames = new HashMap<>();
             if (!organizerIds.isEmpty()) {
-                String organizerIdsStr = organizerIds.stream()
-                        .map(String::valueOf)
-                        .collect(Collectors.joining(","));
-
-                if (!organizerIdsStr.isEmpty()) {
-                    try {
-                        Map<Integer, String> result = accountClient.getListProfileName(organizerIdsStr);
-                        if (result != null) {
-                            result.forEach((k, v) -> {
-                                if (k != null) {
-                                    organizerNames.put(k, v != null ? v : "Unknown");
-                                }
-                            });
-                        }
-                    } catch (Exception e) {
-                        log.warn("Failed to retrieve organizer names: {}", e.getMessage());
-                    }
-                }
+                profileNameResolver.resolve(organizerIds).forEach((k, v) -> organizerNames.put(k, v != null ? v : "Unknown"));
             }
 
             if (!eventIds.isEmpty()) {
@@ -254,240 +236,8 @@ public class AdminService {
         return response;
     }
 
-    public Map<String, Object> getOverviewMetrics() {
-        Map<String, Object> metrics = new HashMap<>();
-
-        try {
-            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
-            OffsetDateTime thirtyDaysAgo = now.minusDays(30);
-            OffsetDateTime sixtyDaysAgo = now.minusDays(60);
-
-            List<Map<String, Object>> ticketSoldDaily = context.select(
-                            DSL.function("date", SQLDataType.DATE, TICKETS.CREATED_AT).as("date"),
-                            DSL.count().as("count")
-                    )
-                    .from(TICKETS)
-                    .join(ORDERITEMS).on(TICKETS.ORDER_ITEM_ID.eq(ORDERITEMS.ORDER_ITEM_ID))
-                    .join(ORDERS).on(ORDERITEMS.ORDER_ID.eq(ORDERS.ORDER_ID))
-                    .where(TICKETS.CREATED_AT.greaterOrEqual(thirtyDaysAgo))
-                    .and(TICKETS.STATUS.in("reserved", "transferred", "active"))
-                    .and(ORDERS.STATUS.eq("paid"))
-                    .groupBy(DSL.function("date", SQLDataType.DATE, TICKETS.CREATED_AT))
-                    .orderBy(field("date"))
-                    .fetchMaps();
-
-            List<Integer> dailyTicketCounts = new ArrayList<>(Collections.nCopies(30, 0));
-            long totalTicketsSold = 0;
-
-            for (Map<String, Object> dayData : ticketSoldDaily) {
-                LocalDate date = ((java.sql.Date) dayData.get("date")).toLocalDate();
-                int daysAgo = (int) java.time.temporal.ChronoUnit.DAYS.between(date, now.toLocalDate());
-                if (daysAgo >= 0 && daysAgo < 30) {
-                    int count = ((Number) dayData.get("count")).intValue();
-                    dailyTicketCounts.set(29 - daysAgo, count);
-                    totalTicketsSold += count;
-                }
-            }
-
-            Record2<Integer, Integer> eventCounts = context.select(
-                            DSL.count().as("total"),
-                            DSL.count(
-                                    DSL.when(
-                                            EVENTS.END_TIME.greaterThan(now)
-                                                    .and(EVENTS.STATUS.notIn("cancelled", "deleted"))
-                                                    .and(
-                                                            DSL.exists(
-                                                                    DSL.selectOne()
-                                                                            .from(TICKETTYPES)
-                                                                            .where(TICKETTYPES.EVENT_ID.eq(EVENTS.EVENT_ID))
-                                                                            .and(TICKETTYPES.SALE_START_TIME.lessThan(now))
-                                                                            .and(TICKETTYPES.SALE_END_TIME.greaterThan(now))
-                                                            )
-                                                    ),
-                                            1)
-                            ).as("active")
-                    )
-                    .from(EVENTS)
-                    .fetchOne();
-
-            assert eventCounts != null;
-            int totalEvents = eventCounts.value1();
-
-            Integer eventsLastMonth = context.selectCount()
-                    .from(EVENTS)
-                    .where(EVENTS.CREATED_AT.between(thirtyDaysAgo, now))
-                    .fetchOneInto(Integer.class);
-
-            Integer eventsPrevMonth = context.selectCount()
-                    .from(EVENTS)
-                    .where(EVENTS.CREATED_AT.between(sixtyDaysAgo, thirtyDaysAgo))
-                    .fetchOneInto(Integer.class);
-
-            double eventTrendPercentage = 0;
-            String eventTrendDirection = "stable";
-            if (eventsPrevMonth != null && eventsPrevMonth > 0 && eventsLastMonth != null) {
-                eventTrendPercentage = ((double) eventsLastMonth - eventsPrevMonth) / eventsPrevMonth * 100;
-                eventTrendDirection = eventTrendPercentage >= 0 ? "up" : "down";
-                eventTrendPercentage = Math.abs(eventTrendPercentage);
-            }
-
-            int firstHalfTickets = 0;
-            int secondHalfTickets = 0;
-            for (int i = 0; i < 15; i++) {
-                firstHalfTickets += dailyTicketCounts.get(i);
-            }
-            for (int i = 15; i < 30; i++) {
-                secondHalfTickets += dailyTicketCounts.get(i);
-            }
-            double ticketTrendPercentage = 0;
-            String ticketTrendDirection = "stable";
-            if (firstHalfTickets > 0) {
-                ticketTrendPercentage = ((double) secondHalfTickets - firstHalfTickets) / firstHalfTickets * 100;
-                ticketTrendDirection = ticketTrendPercentage >= 0 ? "up" : "down";
-                ticketTrendPercentage = Math.abs(ticketTrendPercentage);
-            }
-
-            var eventTypes = context.select(
-                            EVENTTYPES.EVENT_TYPE_ID,
-                            EVENTTYPES.NAME.as("label")
-                    )
-                    .from(EVENTTYPES)
-                    .orderBy(EVENTTYPES.NAME)
-                    .fetchMaps();
-
-            OffsetDateTime sixMonthsAgo = now.minusMonths(6);
-            OffsetDateTime twelveMonthsAgo = now.minusMonths(12);
-
-            BigDecimal currentSixMonthRevenue = context.select(DSL.sum(TICKETTYPES.PRICE))
-                    .from(TICKETS)
-                    .join(EVENTS).on(TICKETS.EVENT_ID.eq(EVENTS.EVENT_ID))
-                    .join(TICKETTYPES).on(TICKETS.TICKET_TYPE_ID.eq(TICKETTYPES.TICKET_TYPE_ID))
-                    .join(ORDERITEMS).on(TICKETS.ORDER_ITEM_ID.eq(ORDERITEMS.ORDER_ITEM_ID))
-                    .join(ORDERS).on(ORDERITEMS.ORDER_ID.eq(ORDERS.ORDER_ID))
-                    .where(TICKETS.CREATED_AT.between(sixMonthsAgo, now))
-                    .and(TICKETS.STATUS.in("reserved", "transferred", "active"))
-                    .and(ORDERS.STATUS.eq("paid"))
-                    .fetchOneInto(BigDecimal.class);
-
-            BigDecimal previousSixMonthRevenue = context.select(DSL.sum(TICKETTYPES.PRICE))
-                    .from(TICKETS)
-                    .join(EVENTS).on(TICKETS.EVENT_ID.eq(EVENTS.EVENT_ID))
-                    .join(TICKETTYPES).on(TICKETS.TICKET_TYPE_ID.eq(TICKETTYPES.TICKET_TYPE_ID))
-                    .join(ORDERITEMS).on(TICKETS.ORDER_ITEM_ID.eq(ORDERITEMS.ORDER_ITEM_ID))
-                    .join(ORDERS).on(ORDERITEMS.ORDER_ID.eq(ORDERS.ORDER_ID))
-                    .where(TICKETS.CREATED_AT.between(twelveMonthsAgo, sixMonthsAgo))
-                    .and(TICKETS.STATUS.in("reserved", "transferred", "active"))
-                    .and(ORDERS.STATUS.eq("paid"))
-                    .fetchOneInto(BigDecimal.class);
-
-            currentSixMonthRevenue = (currentSixMonthRevenue != null) ? currentSixMonthRevenue : BigDecimal.ZERO;
-            previousSixMonthRevenue = (previousSixMonthRevenue != null) ? previousSixMonthRevenue : BigDecimal.ZERO;
-
-            double revenueTrendPercentage = 0;
-            String revenueTrendDirection = "stable";
-
-            if (previousSixMonthRevenue.compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal change = currentSixMonthRevenue.subtract(previousSixMonthRevenue);
-                revenueTrendPercentage = change.divide(previousSixMonthRevenue, 4, RoundingMode.HALF_UP)
-                        .multiply(new BigDecimal(100))
-                        .doubleValue();
-                revenueTrendDirection = revenueTrendPercentage >= 0 ? "up" : "down";
-                revenueTrendPercentage = Math.abs(revenueTrendPercentage);
-            }
-
-            List<Map<String, Object>> formattedEventTypes = new ArrayList<>();
-            for (Map<String, Object> eventType : eventTypes) {
-                Integer eventTypeId = ((Number) eventType.get("event_type_id")).intValue();
-                String eventTypeName = (String) eventType.get("label");
-
-                List<BigDecimal> monthlyRevenue = new ArrayList<>();
-                for (int i = 5; i >= 0; i--) {
-                    OffsetDateTime monthStart = now.minusMonths(i + 1).withDayOfMonth(1).truncatedTo(java.time.temporal.ChronoUnit.DAYS);
-                    OffsetDateTime monthEnd;
-
-                    if (i == 0) {
-                        monthEnd = now;
-                    } else {
-                        int lastDayOfMonth = now.minusMonths(i).getMonth().length(now.minusMonths(i).toLocalDate().isLeapYear());
-                        monthEnd = now.minusMonths(i).withDayOfMonth(lastDayOfMonth).withHour(23).withMinute(59).withSecond(59);
-                    }
-
-                    BigDecimal revenue = context.select(DSL.sum(TICKETTYPES.PRICE))
-                            .from(TICKETS)
-                            .join(EVENTS).on(TICKETS.EVENT_ID.eq(EVENTS.EVENT_ID))
-                            .join(TICKETTYPES).on(TICKETS.TICKET_TYPE_ID.eq(TICKETTYPES.TICKET_TYPE_ID))
-                            .join(ORDERITEMS).on(TICKETS.ORDER_ITEM_ID.eq(ORDERITEMS.ORDER_ITEM_ID))
-                            .join(ORDERS).on(ORDERITEMS.ORDER_ID.eq(ORDERS.ORDER_ID))
-                            .where(TICKETS.CREATED_AT.between(monthStart, monthEnd))
-                            .and(EVENTS.EVENT_TYPE_ID.eq(eventTypeId))
-                            .and(TICKETS.STATUS.in("reserved", "transferred", "active"))
-                            .and(ORDERS.STATUS.eq("paid"))
-                            .fetchOneInto(BigDecimal.class);
-
-                    monthlyRevenue.add(revenue != null ? revenue : BigDecimal.ZERO);
-                }
-                Map<String, Object> eventTypeData = new HashMap<>();
-                eventTypeData.put("id", eventTypeName.toLowerCase().replace(" ", "_"));
-                eventTypeData.put("label", eventTypeName);
-                eventTypeData.put("data", monthlyRevenue);
-                formattedEventTypes.add(eventTypeData);
-            }
-
-            Map<String, Object> ticketsSoldData = new HashMap<>();
-            ticketsSoldData.put("title", "Tickets Sold");
-            ticketsSoldData.put("value", formatLargeNumber(totalTicketsSold));
-            ticketsSoldData.put("interval", 30);
-            ticketsSoldData.put("trend", ticketTrendDirection);
-            ticketsSoldData.put("trendPercentage", Math.round(ticketTrendPercentage * 10) / 10.0); // Round to 1 decimal place
-            ticketsSoldData.put("data", dailyTicketCounts);
-
-            List<Map<String, Object>> eventStartDaily = context.select(
-                            DSL.function("date", SQLDataType.DATE, EVENTS.START_TIME).as("date"),
-                            DSL.count().as("count")
-                    )
-                    .from(EVENTS)
-                    .where(EVENTS.START_TIME.greaterOrEqual(thirtyDaysAgo.plusDays(1)))
-                    .groupBy(DSL.function("date", SQLDataType.DATE, EVENTS.START_TIME))
-                    .orderBy(field("date"))
-                    .fetchMaps();
-
-            List<Integer> dailyEventCounts = new ArrayList<>(Collections.nCopies(30, 0));
-
-            for (Map<String, Object> dayData : eventStartDaily) {
-                LocalDate date = ((java.sql.Date) dayData.get("date")).toLocalDate();
-                int daysAgo = (int) java.time.temporal.ChronoUnit.DAYS.between(date, now.toLocalDate());
-                if (daysAgo >= 0 && daysAgo < 30) {
-                    int count = ((Number) dayData.get("count")).intValue();
-                    dailyEventCounts.set(29 - daysAgo, count);
-                }
-            }
-
-            Map<String, Object> eventsData = new HashMap<>();
-            eventsData.put("title", "Total Events");
-            eventsData.put("dailyEvents", dailyEventCounts);
-            eventsData.put("value", formatLargeNumber(totalEvents));
-            int totalDailyEvents = dailyEventCounts.stream().mapToInt(Integer::intValue).sum();
-            eventsData.put("interval", totalDailyEvents);
-            eventsData.put("trend", eventTrendDirection);
-            eventsData.put("trendPercentage", Math.round(eventTrendPercentage * 10) / 10.0); //
-
-            Map<String, Object> revenueTrendData = new HashMap<>();
-            revenueTrendData.put("currentRevenue", currentSixMonthRevenue);
-            revenueTrendData.put("previousRevenue", previousSixMonthRevenue);
-            revenueTrendData.put("trend", revenueTrendDirection);
-            revenueTrendData.put("trendPercentage", Math.round(revenueTrendPercentage * 10) / 10.0);
-
-            metrics.put("ticketsSold", ticketsSoldData);
-            metrics.put("totalEvents", eventsData);
-            metrics.put("topEventTypes", formattedEventTypes);
-            metrics.put("revenueTrend", revenueTrendData);
-
-        } catch (Exception e) {
-            log.error("Error retrieving overview metrics", e);
-            metrics.put("error", "Failed to retrieve metrics: " + e.getMessage());
-        }
-
-        return metrics;
+    public Map<String, Object> getOverviewMetrics(boolean refresh) {
+        return overviewMetricsSnapshot.get(refresh);
     }
 
     public Map<String, Object> getEventReports(Integer page, Integer size) {
@@ -553,15 +303,7 @@ public class AdminService {
 
             Map<Integer, String> profileNames = new HashMap<>();
             if (!allProfileIds.isEmpty()) {
-                String profileIdsStr = allProfileIds.stream()
-                        .map(String::valueOf)
-                        .collect(Collectors.joining(","));
-
-                try {
-                    profileNames = accountClient.getListProfileName(profileIdsStr);
-                } catch (Exception e) {
-                    log.warn("Failed to retrieve profile names: {}", e.getMessage());
-                }
+                profileNames = profileNameResolver.resolve(allProfileIds);
             }
 
             for (Map<String, Object> report : reports) {
@@ -609,16 +351,6 @@ public class AdminService {
         return result;
     }
 
-    private String formatLargeNumber(long number) {
-        if (number >= 1000000) {
-            return String.format("%.1fM", number / 1000000.0);
-        } else if (number >= 1000) {
-            return String.format("%.1fk", number / 1000.0);
-        } else {
-            return String.valueOf(number);
-        }
-    }
-
     public Response updateEventReport(EventReportDTO eventReportDTO) {
         try {
             context.update(EVENTREPORTS)
@@ -646,8 +378,7 @@ public class AdminService {
 
                 Integer organizerId = (Integer) eventData.get("organizer_id");
                 String organizerEmail = accountClient.getProfileEmail(organizerId);
-                Map<Integer, String> profileNames = accountClient.getListProfileName(organizerId.toString());
-                String organizerName = profileNames.getOrDefault(organizerId, "Event Organizer");
+                String organizerName = Optional.ofNullable(profileNameResolver.resolve(organizerId)).orElse("Event Organizer");
 
                 eventData.put("organizer_name", organizerName);
 
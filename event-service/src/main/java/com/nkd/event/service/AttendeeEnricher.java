@@ -0,0 +1,93 @@
+package com.nkd.event.service;
+
+import com.nkd.event.client.AccountClient;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttendeeEnricher {
+
+    public static final int BATCH_SIZE = 500;
+    public static final int MAX_CONCURRENT_BATCHES = 4;
+
+    private final AccountClient accountClient;
+    private final Semaphore permits = new Semaphore(MAX_CONCURRENT_BATCHES);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public List<Map<String, Object>> enrich(List<Map<String, Object>> attendees) {
+        return enrichAsync(attendees).join();
+    }
+
+    public CompletableFuture<List<Map<String, Object>>> enrichAsync(List<Map<String, Object>> attendees) {
+        List<Integer> profileIDs = attendees.stream()
+                .map(attendee -> (Integer) attendee.get("profile_id"))
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        List<CompletableFuture<List<Map<String, Object>>>> batches = new ArrayList<>();
+        for (int from = 0; from < profileIDs.size(); from += BATCH_SIZE) {
+            List<Integer> batch = profileIDs.subList(from, Math.min(from + BATCH_SIZE, profileIDs.size()));
+            batches.add(CompletableFuture.supplyAsync(() -> fetch(batch), executor));
+        }
+
+        return CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).thenApply(done -> {
+            Map<Integer, Map<String, Object>> infoByProfile = new HashMap<>();
+            for (CompletableFuture<List<Map<String, Object>>> batch : batches) {
+                for (Map<String, Object> info : batch.join()) {
+                    Integer profileID = (Integer) info.get("profile_id");
+                    if (profileID != null) {
+                        infoByProfile.put(profileID, info);
+                    }
+                }
+            }
+
+            List<Map<String, Object>> enriched = new ArrayList<>(attendees.size());
+            for (Map<String, Object> attendee : attendees) {
+                Map<String, Object> info = infoByProfile.get((Integer) attendee.get("profile_id"));
+                if (info != null) {
+                    attendee.put("profileName", info.get("profile_name"));
+                    attendee.put("fullName", info.get("full_name"));
+                    attendee.put("phoneNumber", info.get("phone_number"));
+                    attendee.put("email", info.get("account_email"));
+                    attendee.put("nationality", info.get("nationality"));
+                    attendee.put("dob", info.get("date_of_birth"));
+                    attendee.put("gender", info.get("gender"));
+                    attendee.put("interests", info.get("interests"));
+                    enriched.add(attendee);
+                }
+            }
+            return enriched;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private List<Map<String, Object>> fetch(List<Integer> profileIDs) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to fetch attendee info", e);
+        }
+
+        try {
+            return Optional.ofNullable(accountClient.getEventAttendeeInfo(new ArrayList<>(profileIDs))).orElse(List.of());
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.nkd.event.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.*;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+public class BulkMailDispatcher {
+
+    private static final String JOB_PREFIX = "bulk-mail-job-";
+    private static final Duration JOB_TTL = Duration.ofDays(7);
+    private static final long IDLE_CLOSE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long RETRY_BACKOFF_MILLIS = 1000;
+
+    private final JavaMailSenderImpl mailSender;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final String fromEmail;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long intervalNanos;
+    private final AtomicLong nextSlot = new AtomicLong();
+    private final BlockingQueue<Delivery> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter retried;
+
+    public BulkMailDispatcher(JavaMailSenderImpl mailSender, RedisTemplate<String, String> redisTemplate, MeterRegistry meterRegistry,
+                              @Value("${spring.mail.username}") String fromEmail,
+                              @Value("${mail.bulk.connections:3}") int connections,
+                              @Value("${mail.bulk.batch-size:50}") int batchSize,
+                              @Value("${mail.bulk.rate-per-second:20}") double ratePerSecond,
+                              @Value("${mail.bulk.max-attempts:3}") int maxAttempts) {
+        this.mailSender = mailSender;
+        this.redisTemplate = redisTemplate;
+        this.fromEmail = fromEmail;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.intervalNanos = ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond) : 0;
+
+        this.sent = Counter.builder("bulk.mail.messages").tag("result", "sent").register(meterRegistry);
+        this.failed = Counter.builder("bulk.mail.messages").tag("result", "failed").register(meterRegistry);
+        this.retried = Counter.builder("bulk.mail.retries").register(meterRegistry);
+        Gauge.builder("bulk.mail.queue", queue, Collection::size).register(meterRegistry);
+
+        for (int i = 0; i < Math.max(1, connections); i++) {
+            Thread worker = new Thread(this::work, "bulk-mail-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    public String submit(Collection<String> recipients, String subject, String content) throws MessagingException {
+        MimeMessage template = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(template, true);
+        helper.setFrom(fromEmail);
+        helper.setSubject(subject);
+        helper.setText(content, true);
+        template.saveChanges();
+
+        List<String> distinct = recipients.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(recipient -> !recipient.isEmpty())
+                .distinct()
+                .toList();
+
+        String jobID = UUID.randomUUID().toString();
+        String key = JOB_PREFIX + jobID;
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForHash().putAll(key, Map.of(
+                "total", String.valueOf(distinct.size()),
+                "sent", "0",
+                "failed", "0",
+                "status", distinct.isEmpty() ? "completed" : "running",
+                "started_at", String.valueOf(now),
+                "updated_at", String.valueOf(now)));
+        redisTemplate.expire(key, JOB_TTL);
+
+        Job job = new Job(jobID, template, distinct.size());
+        distinct.forEach(recipient -> queue.add(new Delivery(job, recipient)));
+        log.info("Queued bulk mail job {} for {} recipients", jobID, distinct.size());
+        return jobID;
+    }
+
+    public Map<String, Object> progress(String jobID) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(JOB_PREFIX + jobID);
+        if (fields.isEmpty()) {
+            return null;
+        }
+
+        long total = Long.parseLong((String) fields.get("total"));
+        long delivered = Long.parseLong((String) fields.get("sent"));
+        long undeliverable = Long.parseLong((String) fields.get("failed"));
+        long startedAt = Long.parseLong((String) fields.get("started_at"));
+        long updatedAt = Long.parseLong((String) fields.get("updated_at"));
+        double elapsedSeconds = Math.max(1, updatedAt - startedAt) / 1000.0;
+
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("jobID", jobID);
+        progress.put("status", fields.get("status"));
+        progress.put("total", total);
+        progress.put("sent", delivered);
+        progress.put("failed", undeliverable);
+        progress.put("remaining", Math.max(0, total - delivered - undeliverable));
+        progress.put("perSecond", Math.round((delivered + undeliverable) / elapsedSeconds * 10) / 10.0);
+        return progress;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        if (!queue.isEmpty()) {
+            log.warn("Discarding {} undelivered bulk mails on shutdown", queue.size());
+        }
+    }
+
+    private void work() {
+        Transport transport = null;
+        long lastUsed = 0;
+        List<Delivery> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                Delivery first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    if (transport != null && System.currentTimeMillis() - lastUsed > IDLE_CLOSE_MILLIS) {
+                        transport = close(transport);
+                    }
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                for (Delivery delivery : batch) {
+                    try {
+                        transport = deliver(transport, delivery);
+                    } catch (RuntimeException e) {
+                        log.error("Error sending bulk mail job {} to {}", delivery.job().id(), delivery.recipient(), e);
+                        transport = close(transport);
+                        record(delivery.job(), false);
+                    }
+                }
+                lastUsed = System.currentTimeMillis();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        close(transport);
+    }
+
+    private Transport deliver(Transport transport, Delivery delivery) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            throttle();
+            try {
+                if (transport == null || !transport.isConnected()) {
+                    transport = connect();
+                }
+                MimeMessage message = new MimeMessage(delivery.job().template());
+                message.setRecipient(Message.RecipientType.TO, new InternetAddress(delivery.recipient(), true));
+                message.saveChanges();
+                transport.sendMessage(message, message.getAllRecipients());
+                record(delivery.job(), true);
+                return transport;
+            } catch (MessagingException e) {
+                boolean permanent = isPermanent(e);
+                if (!permanent) {
+                    transport = close(transport);
+                }
+                if (permanent || attempt >= maxAttempts) {
+                    log.error("Error sending bulk mail job {} to {}: {}", delivery.job().id(), delivery.recipient(), e.getMessage());
+                    record(delivery.job(), false);
+                    return transport;
+                }
+                retried.increment();
+                Thread.sleep(RETRY_BACKOFF_MILLIS * attempt);
+            }
+        }
+    }
+
+    // Rejections carry the SMTP reply in the exception chain; 4xx replies (greylisting, mailbox busy,
+    // rate limits) are worth another attempt, anything else from the server is final.
+    private static boolean isPermanent(MessagingException e) {
+        if (e instanceof AddressException) {
+            return true;
+        }
+        if (!(e instanceof SendFailedException)) {
+            return false;
+        }
+        for (Exception cause = e; cause instanceof MessagingException failure; cause = failure.getNextException()) {
+            int code = failure instanceof SMTPAddressFailedException rejected ? rejected.getReturnCode()
+                    : failure instanceof SMTPSendFailedException rejected ? rejected.getReturnCode() : 0;
+            if (code >= 400 && code < 500) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void throttle() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long slot = nextSlot.getAndUpdate(next -> Math.max(next, now) + intervalNanos);
+        long wait = Math.max(slot, now) - now;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        return transport;
+    }
+
+    private static Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error closing SMTP transport: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private void record(Job job, boolean success) {
+        (success ? sent : failed).increment();
+        boolean finished = job.remaining().decrementAndGet() == 0;
+        String key = JOB_PREFIX + job.id();
+        try {
+            redisTemplate.opsForHash().increment(key, success ? "sent" : "failed", 1);
+            redisTemplate.opsForHash().put(key, "updated_at", String.valueOf(System.currentTimeMillis()));
+            if (finished) {
+                redisTemplate.opsForHash().put(key, "status", "completed");
+            }
+        } catch (RuntimeException e) {
+            log.error("Error recording progress of bulk mail job {}: {}", job.id(), e.getMessage());
+        }
+        if (finished) {
+            log.info("Finished bulk mail job {}", job.id());
+        }
+    }
+
+    private record Job(String id, MimeMessage template, AtomicLong remaining) {
+
+        private Job(String id, MimeMessage template, long total) {
+            this(id, template, new AtomicLong(total));
+        }
+    }
+
+    private record Delivery(Job job, String recipient) {}
+}
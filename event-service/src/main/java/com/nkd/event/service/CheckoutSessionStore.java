@@ -0,0 +1,115 @@
+package com.nkd.event.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nkd.event.dto.PaymentDTO;
+import com.nkd.event.utils.BoundedCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class CheckoutSessionStore {
+
+    private static final String KEY_PREFIX = "checkout-session-";
+    private static final long NEAR_CACHE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    public record CheckoutSession(boolean reserve, PaymentDTO payment) {}
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final Duration ttl;
+    private final BoundedCache<Integer, String> nearCache;
+
+    private final Timer putTimer;
+    private final Timer getTimer;
+    private final DistributionSummary sessionBytes;
+    private final Counter nearHits;
+    private final Counter nearMisses;
+
+    public CheckoutSessionStore(RedisTemplate<String, String> redisTemplate, ObjectMapper mapper, MeterRegistry meterRegistry,
+                                @Value("${checkout.session.near-cache-kb:2048}") long nearCacheKb) {
+        this.redisTemplate = redisTemplate;
+        this.writer = mapper.writerFor(CheckoutSession.class);
+        this.reader = mapper.readerFor(CheckoutSession.class);
+        // Must outlive the Stripe session, or a late but successful payment finds no session to fulfil.
+        this.ttl = TicketReservationService.HOLD_TTL;
+        this.nearCache = new BoundedCache<>(nearCacheKb * 1024, NEAR_CACHE_TTL_MILLIS, String::length);
+
+        this.putTimer = Timer.builder("checkout.session.store").tag("op", "put").register(meterRegistry);
+        this.getTimer = Timer.builder("checkout.session.store").tag("op", "get").register(meterRegistry);
+        this.sessionBytes = DistributionSummary.builder("checkout.session.size")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.nearHits = Counter.builder("checkout.session.near-cache").tag("result", "hit").register(meterRegistry);
+        this.nearMisses = Counter.builder("checkout.session.near-cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    public void put(Integer orderID, boolean reserve, PaymentDTO payment) {
+        putTimer.record(() -> {
+            String value;
+            try {
+                value = writer.writeValueAsString(new CheckoutSession(reserve, payment));
+            } catch (IOException e) {
+                throw new IllegalStateException("Error serializing checkout session for order " + orderID, e);
+            }
+            sessionBytes.record(value.length());
+            redisTemplate.opsForValue().set(KEY_PREFIX + orderID, value, ttl);
+            nearCache.put(orderID, value);
+        });
+    }
+
+    public Optional<CheckoutSession> get(Integer orderID) {
+        if (orderID == null) {
+            return Optional.empty();
+        }
+
+        return getTimer.record(() -> {
+            String value = nearCache.get(orderID);
+            if (value != null) {
+                nearHits.increment();
+            } else {
+                nearMisses.increment();
+                value = redisTemplate.opsForValue().get(KEY_PREFIX + orderID);
+                if (value == null) {
+                    return Optional.empty();
+                }
+                nearCache.put(orderID, value);
+            }
+
+            try {
+                return Optional.of(reader.readValue(value));
+            } catch (IOException e) {
+                log.error("Error reading checkout session for order {}: {}", orderID, e.getMessage());
+                return Optional.empty();
+            }
+        });
+    }
+
+    public void remove(Integer orderID) {
+        if (orderID == null) {
+            return;
+        }
+        nearCache.invalidate(orderID);
+        redisTemplate.delete(KEY_PREFIX + orderID);
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void evictExpired() {
+        nearCache.evictExpired();
+    }
+}
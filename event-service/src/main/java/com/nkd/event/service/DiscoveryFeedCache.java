@@ -0,0 +1,188 @@
+package com.nkd.event.service;
+
+import com.nkd.event.event.EventOperation;
+import com.nkd.event.utils.GeoHash;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+import static com.nkd.event.Tables.EVENTS;
+
+@Slf4j
+@Component
+public class DiscoveryFeedCache {
+
+    private static final long FRESH_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long STALE_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final int MAX_ENTRIES = 20_000;
+
+    public enum Rail {
+        ONLINE(0, 0),
+        TIME(4, 30000),
+        TYPE(4, 30000),
+        COST(4, 30000),
+        POPULAR(5, 5000);
+
+        private final int precision;
+        private final int radiusMeters;
+
+        Rail(int precision, int radiusMeters) {
+            this.precision = precision;
+            this.radiusMeters = radiusMeters;
+        }
+    }
+
+    private final DSLContext context;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Timer loadTimer;
+
+    public DiscoveryFeedCache(DSLContext context, MeterRegistry meterRegistry) {
+        this.context = context;
+        this.hits = Counter.builder("discovery.feed.requests").tag("result", "hit").register(meterRegistry);
+        this.staleHits = Counter.builder("discovery.feed.requests").tag("result", "stale").register(meterRegistry);
+        this.misses = Counter.builder("discovery.feed.requests").tag("result", "miss").register(meterRegistry);
+        this.loadTimer = Timer.builder("discovery.feed.load")
+                .description("Time taken to load a discovery rail from the database")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("discovery.feed.size", entries, Map::size).register(meterRegistry);
+    }
+
+    public List<Map<String, Object>> get(Rail rail, String param, String lat, String lon,
+                                         BiFunction<String, String, List<Map<String, Object>>> loader) {
+        Tile tile = tile(rail, lat, lon);
+        if (tile == null) {
+            return loader.apply(lat, lon);
+        }
+
+        String key = rail.name() + "|" + Objects.toString(param, "") + "|" + tile.hash() + "|" + LocalDate.now(ZoneOffset.UTC);
+        Entry entry = entries.get(key);
+        long now = System.currentTimeMillis();
+
+        if (entry != null && now - entry.loadedAt() < FRESH_MILLIS) {
+            hits.increment();
+            return entry.events();
+        }
+        if (entry != null && now - entry.loadedAt() < STALE_MILLIS) {
+            staleHits.increment();
+            if (!loading.containsKey(key)) {
+                Thread.ofVirtual().start(() -> {
+                    try {
+                        load(key, tile, lat, lon, loader);
+                    } catch (RuntimeException e) {
+                        log.warn("Error refreshing discovery rail {}: {}", key, e.getMessage());
+                    }
+                });
+            }
+            return entry.events();
+        }
+
+        misses.increment();
+        return load(key, tile, lat, lon, loader).events();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true,
+            condition = "#operation.type == T(com.nkd.event.enumeration.EventOperationType).UPDATE")
+    public void onEventChanged(EventOperation operation) {
+        UUID eventID = UUID.fromString(String.valueOf(operation.getData().get("eventID")));
+        var coordinates = context.select(DSL.field("st_y(coordinates::geometry)", Double.class),
+                        DSL.field("st_x(coordinates::geometry)", Double.class))
+                .from(EVENTS)
+                .where(EVENTS.EVENT_ID.eq(eventID))
+                .fetchOne();
+        Double lat = coordinates == null ? null : coordinates.value1();
+        Double lon = coordinates == null ? null : coordinates.value2();
+
+        generation.incrementAndGet();
+        entries.values().removeIf(entry -> entry.tile().radiusMeters() == 0
+                || entry.contains(eventID)
+                || (lat != null && lon != null && entry.tile().covers(lat, lon)));
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void evictExpired() {
+        long threshold = System.currentTimeMillis() - STALE_MILLIS;
+        entries.values().removeIf(entry -> entry.loadedAt() < threshold);
+    }
+
+    private Entry load(String key, Tile tile, String lat, String lon,
+                       BiFunction<String, String, List<Map<String, Object>>> loader) {
+        CompletableFuture<Entry> created = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = loading.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing.join();
+        }
+
+        try {
+            long startGeneration = generation.get();
+            List<Map<String, Object>> events = loadTimer.record(() -> tile.radiusMeters() == 0
+                    ? loader.apply(lat, lon)
+                    : loader.apply(String.valueOf(tile.lat()), String.valueOf(tile.lon())));
+            Entry entry = new Entry(tile, List.copyOf(events), System.currentTimeMillis());
+
+            if (generation.get() == startGeneration && (entries.size() < MAX_ENTRIES || entries.containsKey(key))) {
+                entries.put(key, entry);
+            }
+            created.complete(entry);
+            return entry;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, created);
+        }
+    }
+
+    private static Tile tile(Rail rail, String lat, String lon) {
+        if (rail.precision == 0) {
+            return new Tile("global", 0, 0, 0);
+        }
+
+        try {
+            String hash = GeoHash.encode(Double.parseDouble(lat), Double.parseDouble(lon), rail.precision);
+            double[] center = GeoHash.center(hash);
+            return new Tile(hash, center[0], center[1], rail.radiusMeters);
+        } catch (NumberFormatException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    private record Tile(String hash, double lat, double lon, int radiusMeters) {
+
+        private boolean covers(double eventLat, double eventLon) {
+            return GeoHash.distanceMeters(lat, lon, eventLat, eventLon) <= radiusMeters;
+        }
+    }
+
+    private record Entry(Tile tile, List<Map<String, Object>> events, long loadedAt) {
+
+        private boolean contains(UUID eventID) {
+            return events.stream().anyMatch(event -> eventID.equals(event.get("event_id")));
+        }
+    }
+}
@@ -8,16 +8,21 @@ import com.nkd.event.dto.*;
 import com.nkd.event.enumeration.EventOperationType;
 import com.nkd.event.event.EventOperation;
 import com.nkd.event.utils.EventUtils;
+import com.nkd.event.utils.ExportWriter;
 import com.nkd.event.utils.ResponseCode;
+import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jooq.*;
+import org.jooq.Record;
 import org.jooq.impl.DSL;
 import org.jooq.impl.SQLDataType;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -37,11 +42,24 @@ import static org.jooq.impl.DSL.*;
 @RequiredArgsConstructor
 public class EventService {
 
+    private static final List<String> ATTENDEE_EXPORT_COLUMNS = List.of("profile_id", "fullName", "profileName", "email",
+            "phoneNumber", "nationality", "dob", "gender", "interests", "ticket_type_id", "ticket_name", "tier_name",
+            "ticket_count", "registration_date");
+
     private final DSLContext context;
     private final AccountClient accountClient;
     private final SuggestionClient suggestionClient;
     private final TicketService ticketService;
-    private final EmailService emailService;
+    private final SeatHoldManager seatHoldManager;
+    private final SeatInventoryLoader seatInventoryLoader;
+    private final DiscoveryFeedCache discoveryFeedCache;
+    private final PriceSummaryService priceSummaryService;
+    private final SalesLedgerService salesLedgerService;
+    private final ReportRollupService reportRollupService;
+    private final ProfileNameResolver profileNameResolver;
+    private final AttendeeEnricher attendeeEnricher;
+    private final BulkMailDispatcher bulkMailDispatcher;
+    private final ObjectMapper mapper;
     private final ApplicationEventPublisher publisher;
 
     public Response createEvent(EventDTO eventDTO, String eid, String step) {
@@ -145,30 +163,27 @@ public class EventService {
                 }
             }
         }
+        publishEventUpdate(eid);
         return new Response(HttpStatus.OK.name(), "OK", null);
     }
 
+    private void publishEventUpdate(String eventID) {
+        publisher.publishEvent(EventOperation.builder()
+                .data(Map.of("eventID", eventID))
+                .type(EventOperationType.UPDATE)
+                .build());
+    }
+
     private void createTierTicket(String eventID, List<Tier> tierData){
         if(tierData.isEmpty()){
             return;
         }
 
-        tierData.forEach(tier -> {
-            if(tier.getAssignedSeats() == null || tier.getAssignedSeats().isEmpty()){
-                return;
-            }
-            Integer ticketTypeID = context.select(TICKETTYPES.TICKET_TYPE_ID).from(TICKETTYPES)
-                            .where(TICKETTYPES.SEAT_TIER_ID.eq(Integer.parseInt(tier.getDbTierID())))
-                                    .fetchOneInto(Integer.class);
-            tier.getAssignedSeats().forEach(seat -> context.insertInto(TICKETS)
-                    .set(TICKETS.EVENT_ID, UUID.fromString(eventID))
-                    .set(TICKETS.TICKET_TYPE_ID, ticketTypeID)
-                    .set(TICKETS.STATUS, "available")
-                    .set(TICKETS.SEAT_IDENTIFIER, seat)
-                    .execute());
-        });
+        seatInventoryLoader.createSeats(UUID.fromString(eventID), tierData);
+        seatHoldManager.evict(eventID);
     }
 
+    @Transactional
     public Response saveSeatMap(String eventID, SeatMapDTO data) {
         String coords = context.select(EVENTS.COORDINATES).from(EVENTS)
                 .where(EVENTS.EVENT_ID.eq(UUID.fromString(eventID)))
@@ -185,17 +200,17 @@ public class EventService {
                 .returningResult(SEATMAP.MAP_ID)
                 .fetchOneInto(Integer.class);
 
-        List<Integer> tierIDs = data.getTiers().stream()
-                .map(tier -> context.insertInto(SEATTIERS)
-                        .set(SEATTIERS.MAP_ID, seatMapID)
-                        .set(SEATTIERS.NAME, tier.getName())
-                        .set(SEATTIERS.PERKS, tier.getPerks())
-                        .set(SEATTIERS.TIER_COLOR, tier.getColor())
-                        .set(SEATTIERS.CREATED_AT, OffsetDateTime.now())
-                        .set(SEATTIERS.ASSIGNEDSEATS, tier.getTotalAssignedSeats())
-                        .returningResult(SEATTIERS.SEAT_TIER_ID)
-                        .fetchOneInto(Integer.class))
-                .toList();
+        List<Integer> tierIDs = List.of();
+        if(data.getTiers() != null && !data.getTiers().isEmpty()){
+            OffsetDateTime createdAt = OffsetDateTime.now();
+            var insertTiers = context.insertInto(SEATTIERS, SEATTIERS.MAP_ID, SEATTIERS.NAME, SEATTIERS.PERKS,
+                    SEATTIERS.TIER_COLOR, SEATTIERS.CREATED_AT, SEATTIERS.ASSIGNEDSEATS);
+            for(Tier tier : data.getTiers()){
+                insertTiers = insertTiers.values(seatMapID, tier.getName(), tier.getPerks(), tier.getColor(), createdAt,
+                        tier.getTotalAssignedSeats());
+            }
+            tierIDs = insertedTierIDs(insertTiers);
+        }
 
         context.update(EVENTS)
                 .set(EVENTS.CAPACITY, data.getCapacity())
@@ -237,11 +252,7 @@ public class EventService {
                 .map(event -> (UUID) event.get("event_id"))
                 .toList();
 
-        Map<UUID, Record3<UUID, String, BigDecimal>> grossData = context.select(ORDERS.EVENT_ID, PAYMENTS.CURRENCY, sum(PAYMENTS.AMOUNT).as("gross"))
-                .from(ORDERS).join(PAYMENTS).on(ORDERS.PAYMENT_ID.eq(PAYMENTS.PAYMENT_ID))
-                .where(ORDERS.STATUS.eq("paid").and(ORDERS.EVENT_ID.in(eventIds)))
-                .groupBy(ORDERS.EVENT_ID, PAYMENTS.CURRENCY)
-                .fetchMap(ORDERS.EVENT_ID);
+        Map<UUID, SalesLedgerService.EventSales> salesByEvent = salesLedgerService.getSales(eventIds);
 
         Condition ticketCondition = TICKETTYPES.STATUS.eq("visible")
                 .or(TICKETTYPES.STATUS.eq("hid-on-sales").and(TICKETTYPES.SALE_START_TIME.lt(OffsetDateTime.now()))
@@ -308,10 +319,12 @@ public class EventService {
                 event.put("images", images);
             }
 
-            Record3<UUID, String, BigDecimal> record = grossData.get(eventId);
-            if (record != null) {
-                event.put("gross", record.get("gross", BigDecimal.class));
-                event.put("currency", record.get(PAYMENTS.CURRENCY));
+            Optional<Map.Entry<String, BigDecimal>> gross = salesByEvent.get(eventId).gross().entrySet().stream()
+                    .filter(entry -> entry.getValue().signum() > 0)
+                    .max(Map.Entry.comparingByValue());
+            if (gross.isPresent()) {
+                event.put("gross", gross.get().getValue());
+                event.put("currency", gross.get().getKey());
             } else {
                 event.put("gross", BigDecimal.ZERO);
                 event.put("currency", "USD");
@@ -394,6 +407,7 @@ public class EventService {
                 .execute();
 
         if (rowsDeleted > 0) {
+            publishEventUpdate(eventID);
             return new Response(HttpStatus.OK.name(), ResponseCode.DELETE_SUCCESS, null);
         } else {
             return new Response(HttpStatus.NOT_FOUND.name(), "Event not found", null);
@@ -429,37 +443,18 @@ public class EventService {
     }
 
     public List<Map<String, Object>> getEventTickets(List<Map<String, Object>> eventRecord) {
+        var summaries = priceSummaryService.summarize(eventRecord.stream()
+                .map(event -> (UUID) event.get("event_id"))
+                .toList());
+
         eventRecord.forEach(event -> {
-            var tickets = context.select(TICKETTYPES.PRICE, TICKETTYPES.TICKET_TYPE, TICKETTYPES.CURRENCY)
-                    .from(TICKETTYPES)
-                    .where(TICKETTYPES.EVENT_ID.eq((UUID) event.get("event_id"))
-                            .and(TICKETTYPES.SALE_END_TIME.gt(OffsetDateTime.now()))
-                            .and(TICKETTYPES.STATUS.eq("visible")
-                                    .or(TICKETTYPES.STATUS.eq("hid-on-sales").and(TICKETTYPES.SALE_START_TIME.lt(OffsetDateTime.now()))
-                                            .and(TICKETTYPES.SALE_END_TIME.gt(OffsetDateTime.now())))
-                                    .or(TICKETTYPES.STATUS.eq("custom")
-                                            .and(TICKETTYPES.VIS_START_TIME.lt(OffsetDateTime.now()))
-                                            .and(TICKETTYPES.VIS_END_TIME.gt(OffsetDateTime.now())))))
-                    .fetch();
-            if(tickets.isEmpty()){
+            var summary = summaries.get((UUID) event.get("event_id"));
+            if (summary == null || summary.price() == null) {
                 event.put("price", null);
                 return;
             }
-            String leastPrice = tickets.stream()
-                    .map(ticket -> new BigDecimal(ticket.get(TICKETTYPES.PRICE).toString()))
-                    .collect(Collectors.collectingAndThen(Collectors.toList(), prices -> {
-                        boolean allFree = prices.stream().allMatch(price -> price.compareTo(BigDecimal.ZERO) == 0);
-                        boolean hasFree = prices.stream().anyMatch(price -> price.compareTo(BigDecimal.ZERO) == 0);
-                        if (allFree) {
-                            return "Free";
-                        } else if (hasFree) {
-                            return "0.0";
-                        } else {
-                            return prices.stream().min(BigDecimal::compareTo).map(BigDecimal::toString).orElse("Free");
-                        }
-                    }));
-            event.put("price", leastPrice);
-            event.put("currency", tickets.getFirst().get("currency"));
+            event.put("price", summary.price());
+            event.put("currency", summary.currency());
         });
 
         return eventRecord;
@@ -498,6 +493,10 @@ public class EventService {
     }
 
     public List<Map<String, Object>> getLocalizePopularEvents(String lat, String lon) {
+        return discoveryFeedCache.get(DiscoveryFeedCache.Rail.POPULAR, null, lat, lon, this::loadLocalizePopularEvents);
+    }
+
+    private List<Map<String, Object>> loadLocalizePopularEvents(String lat, String lon) {
         String userLocationPoint = "POINT(" + lon + " " + lat + ")";
 
         var eventRecord = context.select(EVENTS.EVENT_ID, EVENTS.NAME, EVENTS.IMAGES, EVENTS.START_TIME, EVENTS.PROFILE_ID,
@@ -673,6 +672,10 @@ public class EventService {
     }
 
     public List<Map<String, Object>> getOnlineEvents(String lat, String lon) {
+        return discoveryFeedCache.get(DiscoveryFeedCache.Rail.ONLINE, null, lat, lon, this::loadOnlineEvents);
+    }
+
+    private List<Map<String, Object>> loadOnlineEvents(String lat, String lon) {
         var eventRecord = getEventRecord(
                 trueCondition().and(trueCondition()), lat, lon, EVENTS, true, null);
 
@@ -680,6 +683,11 @@ public class EventService {
     }
 
     public List<Map<String, Object>> getSuggestedEventByTime(String lat, String lon, String timeType) {
+        return discoveryFeedCache.get(DiscoveryFeedCache.Rail.TIME, timeType, lat, lon,
+                (tileLat, tileLon) -> loadSuggestedEventByTime(tileLat, tileLon, timeType));
+    }
+
+    private List<Map<String, Object>> loadSuggestedEventByTime(String lat, String lon, String timeType) {
         Condition condition = EventUtils.constructTimeCondition(timeType);
 
         var eventRecord = getEventRecord(condition, lat, lon, EVENTS, false, null);
@@ -688,6 +696,11 @@ public class EventService {
     }
 
     public List<Map<String, Object>> getSuggestedEventByType(String lat, String lon, String eventType) {
+        return discoveryFeedCache.get(DiscoveryFeedCache.Rail.TYPE, eventType, lat, lon,
+                (tileLat, tileLon) -> loadSuggestedEventByType(tileLat, tileLon, eventType));
+    }
+
+    private List<Map<String, Object>> loadSuggestedEventByType(String lat, String lon, String eventType) {
         var eventRecord = getEventRecord(EVENTTYPES.NAME.equalIgnoreCase(eventType), lat, lon
                 , EVENTS.join(SUBCATEGORIES).on(EVENTS.SUB_CATEGORY_ID.eq(SUBCATEGORIES.SUB_CATEGORY_ID))
                         .join(CATEGORIES).on(SUBCATEGORIES.CATEGORY_ID.eq(CATEGORIES.CATEGORY_ID))
@@ -696,6 +709,11 @@ public class EventService {
     }
 
     public List<Map<String, Object>> getSuggestedEventsByCost(String lat, String lon, Double cost) {
+        return discoveryFeedCache.get(DiscoveryFeedCache.Rail.COST, String.valueOf(cost), lat, lon,
+                (tileLat, tileLon) -> loadSuggestedEventsByCost(tileLat, tileLon, cost));
+    }
+
+    private List<Map<String, Object>> loadSuggestedEventsByCost(String lat, String lon, Double cost) {
         Condition condition = trueCondition();
 
         condition = condition.and(TICKETTYPES.STATUS.eq("visible")
@@ -719,15 +737,15 @@ public class EventService {
     }
 
     public List<Map<String, Object>> getListOrganizerEvent(List<Map<String, Object>> eventRecord) {
-        String profileIdList = eventRecord.stream()
-                .map(event -> event.get("profile_id").toString())
-                .collect(Collectors.joining(","));
+        List<Integer> profileIDs = eventRecord.stream()
+                .map(event -> (Integer) event.get("profile_id"))
+                .toList();
 
-        if(profileIdList.isEmpty()){
+        if(profileIDs.isEmpty()){
             return List.of();
         }
 
-        var listProfileName = accountClient.getListProfileName(profileIdList);
+        var listProfileName = profileNameResolver.resolve(profileIDs);
         eventRecord.forEach(event -> {
             Optional<Integer> profileId = Optional.ofNullable(((Integer) event.get("profile_id")));
             profileId.ifPresent(profileID -> event.put("profileName", listProfileName.get(profileID)));
@@ -758,6 +776,7 @@ public class EventService {
                     .fetchOneInto(Integer.class);
             occurenceIDs.add(id);
         });
+        publishEventUpdate(eventID);
         return new Response(HttpStatus.OK.name(), "OK", occurenceIDs);
     }
 
@@ -874,48 +893,49 @@ public class EventService {
         OffsetDateTime startTime = OffsetDateTime.parse(startDate);
         OffsetDateTime endTime = OffsetDateTime.parse(endDate);
 
-        var grossRevenueData = context.select(
-                        ORDERS.CREATED_AT.cast(SQLDataType.DATE).as("date"),
-                        sum(PAYMENTS.AMOUNT).as("revenue"))
-                .from(ORDERS)
-                .join(PAYMENTS).on(ORDERS.PAYMENT_ID.eq(PAYMENTS.PAYMENT_ID))
-                .where(ORDERS.EVENT_ID.in(userEvent)
-                        .and(ORDERS.CREATED_AT.between(startTime, endTime)))
-                .groupBy(ORDERS.CREATED_AT.cast(SQLDataType.DATE))
-                .fetchMaps();
+        Map<UUID, Map<LocalDate, ReportRollupService.DailyRollup>> rollups = reportRollupService.getRollups(userEvent, startTime, endTime);
+        Map<LocalDate, Long> buyers = reportRollupService.getBuyers(userEvent, startTime, endTime);
+        Map<LocalDate, ReportRollupService.DailyRollup> byDay = new TreeMap<>();
+        Map<UUID, long[]> byEvent = new HashMap<>();
+        rollups.forEach((eventID, days) -> days.forEach((day, rollup) -> {
+            byDay.merge(day, rollup, (left, right) -> new ReportRollupService.DailyRollup(left.revenue().add(right.revenue()),
+                    left.tickets() + right.tickets(), left.views() + right.views(), left.likes() + right.likes()));
+            long[] totals = byEvent.computeIfAbsent(eventID, id -> new long[2]);
+            totals[0] += rollup.views();
+            totals[1] += rollup.likes();
+        }));
+
+        List<Map<String, Object>> grossRevenueData = new ArrayList<>();
+        List<Map<String, Object>> ticketsAndBuyersData = new ArrayList<>();
+        byDay.forEach((day, rollup) -> {
+            if (rollup.revenue().signum() != 0) {
+                grossRevenueData.add(Map.of("date", day, "revenue", rollup.revenue()));
+            }
+            long dayBuyers = buyers.getOrDefault(day, 0L);
+            if (rollup.tickets() > 0 || dayBuyers > 0) {
+                ticketsAndBuyersData.add(Map.of("date", day, "tickets", rollup.tickets(), "buyers", dayBuyers));
+            }
+        });
         report.put("grossRevenueData", grossRevenueData);
-
-        var ticketsAndBuyersData = context.select(
-                        ORDERS.CREATED_AT.cast(SQLDataType.DATE).as("date"),
-                        sum(ORDERITEMS.QUANTITY).as("tickets"),
-                        countDistinct(ORDERS.PROFILE_ID).as("buyers"))
-                .from(ORDERS)
-                .join(ORDERITEMS).on(ORDERS.ORDER_ID.eq(ORDERITEMS.ORDER_ID))
-                .where(ORDERS.EVENT_ID.in(userEvent)
-                        .and(ORDERS.CREATED_AT.between(startTime, endTime)))
-                .groupBy(ORDERS.CREATED_AT.cast(SQLDataType.DATE))
-                .fetchMaps();
-
         report.put("ticketsAndBuyersData", ticketsAndBuyersData);
 
-        List<Map<String, Object>> viewsByEvent = context.select(EVENTVIEWS.EVENT_ID, EVENTS.NAME,
-                        count(EVENTVIEWS.VIEW_ID).as("views"))
-                .from(EVENTVIEWS).join(EVENTS).on(EVENTVIEWS.EVENT_ID.eq(EVENTS.EVENT_ID))
-                .where(EVENTVIEWS.EVENT_ID.in(userEvent)
-                        .and(EVENTVIEWS.VIEW_DATE.between(startTime, endTime)))
-                .groupBy(EVENTVIEWS.EVENT_ID, EVENTS.NAME)
-                .fetchMaps();
+        Map<UUID, String> eventNames = byEvent.isEmpty() ? Map.of() : context.select(EVENTS.EVENT_ID, EVENTS.NAME)
+                .from(EVENTS)
+                .where(EVENTS.EVENT_ID.in(byEvent.keySet()))
+                .fetchMap(EVENTS.EVENT_ID, EVENTS.NAME);
+
+        List<Map<String, Object>> viewsByEvent = new ArrayList<>();
+        List<Map<String, Object>> likedByEvent = new ArrayList<>();
+        byEvent.forEach((eventID, totals) -> {
+            if (totals[0] > 0) {
+                viewsByEvent.add(Map.of("event_id", eventID, "name", Objects.toString(eventNames.get(eventID), ""), "views", totals[0]));
+            }
+            if (totals[1] > 0) {
+                likedByEvent.add(Map.of("event_id", eventID, "name", Objects.toString(eventNames.get(eventID), ""), "likes", totals[1]));
+            }
+        });
 
         report.put("viewsByEvent", viewsByEvent);
-
-        List<Map<String, Object>> likedByEvent = context.select(LIKEDEVENTS.EVENT_ID, EVENTS.NAME,
-                        count(LIKEDEVENTS.LIKED_AT).as("likes"))
-                .from(LIKEDEVENTS).join(EVENTS).on(LIKEDEVENTS.EVENT_ID.eq(EVENTS.EVENT_ID))
-                .where(LIKEDEVENTS.EVENT_ID.in(userEvent)
-                        .and(LIKEDEVENTS.LIKED_AT.between(startTime, endTime)))
-                .groupBy(LIKEDEVENTS.EVENT_ID, EVENTS.NAME)
-                .fetchMaps();
-
         report.put("likedByEvent", likedByEvent);
 
         return new Response(HttpStatus.OK.name(), "OK", report);
@@ -937,6 +957,7 @@ public class EventService {
     public Map<String, Object> loadEventInfo(String eventID) {
         Map<String, Object> data = new HashMap<>();
 
+        SalesLedgerService.EventSales sales = salesLedgerService.getSales(UUID.fromString(eventID));
         var ticketSales = context.select(
                         TICKETTYPES.TICKET_TYPE_ID,
                         TICKETTYPES.TICKET_TYPE,
@@ -946,28 +967,20 @@ public class EventService {
                         TICKETTYPES.PRICE,
                         TICKETTYPES.CURRENCY,
                         TICKETTYPES.SALE_START_TIME,
-                        TICKETTYPES.SALE_END_TIME,
-                        sum(
-                                case_()
-                                        .when(ORDERS.STATUS.eq("paid"), ORDERITEMS.QUANTITY)
-                                        .otherwise(0)
-                        ).as("sold_quantity"),
-                        sum(
-                                case_()
-                                        .when(ORDERS.STATUS.eq("paid"), ORDERITEMS.QUANTITY.mul(TICKETTYPES.PRICE))
-                                        .otherwise(0)
-                        ).as("total"))
+                        TICKETTYPES.SALE_END_TIME)
                 .from(TICKETTYPES)
                 .leftJoin(SEATTIERS).on(TICKETTYPES.SEAT_TIER_ID.eq(SEATTIERS.SEAT_TIER_ID))
-                .leftJoin(TICKETS).on(TICKETS.TICKET_TYPE_ID.eq(TICKETTYPES.TICKET_TYPE_ID))
-                .leftJoin(ORDERITEMS).on(TICKETS.ORDER_ITEM_ID.eq(ORDERITEMS.ORDER_ITEM_ID))
-                .leftJoin(ORDERS).on(ORDERITEMS.ORDER_ID.eq(ORDERS.ORDER_ID))
                 .where(TICKETTYPES.EVENT_ID.eq(UUID.fromString(eventID)))
-                .groupBy(TICKETTYPES.TICKET_TYPE_ID, SEATTIERS.NAME, SEATTIERS.TIER_COLOR, SEATTIERS.PERKS,
-                        TICKETTYPES.TICKET_TYPE, TICKETTYPES.NAME, TICKETTYPES.QUANTITY, TICKETTYPES.PRICE,
-                        TICKETTYPES.CURRENCY, TICKETTYPES.SALE_START_TIME, TICKETTYPES.SALE_END_TIME)
                 .fetchMaps();
 
+        ticketSales.forEach(ticket -> {
+            SalesLedgerService.TicketSales ticketSale = sales.ticket((Integer) ticket.get("ticket_type_id"));
+            ticket.put("sold_quantity", ticketSale.sold());
+            ticket.put("total", ticketSale.revenue());
+            ticket.put("refunded_quantity", ticketSale.refunded());
+            ticket.put("refunded_total", ticketSale.refundedRevenue());
+        });
+
         var totalViews = context.select(count(EVENTVIEWS.VIEW_ID))
                 .from(EVENTVIEWS)
                 .where(EVENTVIEWS.EVENT_ID.eq(UUID.fromString(eventID)))
@@ -1025,6 +1038,7 @@ public class EventService {
         return new Response(HttpStatus.OK.name(), "OK", data);
     }
 
+    @Transactional
     public Response updateSeatMap(String mapID, SeatMapDTO data) {
         context.update(SEATMAP)
                 .set(SEATMAP.NAME, data.getName())
@@ -1035,33 +1049,51 @@ public class EventService {
                 .where(SEATMAP.MAP_ID.eq(Integer.parseInt(mapID)))
                 .execute();
 
-        List<Integer> tierIDs = data.getTiers().stream()
-                .map(tierData -> {
-                    if (tierData.getTierID() == null) {
-                        return context.insertInto(SEATTIERS)
-                                .set(SEATTIERS.MAP_ID, Integer.parseInt(mapID))
-                                .set(SEATTIERS.NAME, tierData.getName())
-                                .set(SEATTIERS.TIER_COLOR, tierData.getColor())
-                                .set(SEATTIERS.ASSIGNEDSEATS, tierData.getTotalAssignedSeats())
-                                .set(SEATTIERS.PERKS, tierData.getPerks())
-                                .returningResult(SEATTIERS.SEAT_TIER_ID)
-                                .fetchOneInto(Integer.class);
-                    } else {
-                        context.update(SEATTIERS)
-                                .set(SEATTIERS.NAME, tierData.getName())
-                                .set(SEATTIERS.TIER_COLOR, tierData.getColor())
-                                .set(SEATTIERS.ASSIGNEDSEATS, tierData.getTotalAssignedSeats())
-                                .set(SEATTIERS.PERKS, tierData.getPerks())
-                                .where(SEATTIERS.SEAT_TIER_ID.eq(Integer.parseInt(tierData.getTierID())))
-                                .execute();
-                        return Integer.parseInt(tierData.getTierID());
-                    }
-                })
-                .collect(Collectors.toList());
+        List<Tier> tiers = Optional.ofNullable(data.getTiers()).orElse(List.of());
+        List<Integer> tierIDs = new ArrayList<>(Collections.nCopies(tiers.size(), null));
+        List<Integer> added = new ArrayList<>();
+        List<Query> updates = new ArrayList<>();
+        var insertTiers = context.insertInto(SEATTIERS, SEATTIERS.MAP_ID, SEATTIERS.NAME, SEATTIERS.TIER_COLOR,
+                SEATTIERS.ASSIGNEDSEATS, SEATTIERS.PERKS);
+        for (int i = 0; i < tiers.size(); i++) {
+            Tier tierData = tiers.get(i);
+            if (tierData.getTierID() == null) {
+                insertTiers = insertTiers.values(Integer.parseInt(mapID), tierData.getName(), tierData.getColor(),
+                        tierData.getTotalAssignedSeats(), tierData.getPerks());
+                added.add(i);
+            } else {
+                updates.add(context.update(SEATTIERS)
+                        .set(SEATTIERS.NAME, tierData.getName())
+                        .set(SEATTIERS.TIER_COLOR, tierData.getColor())
+                        .set(SEATTIERS.ASSIGNEDSEATS, tierData.getTotalAssignedSeats())
+                        .set(SEATTIERS.PERKS, tierData.getPerks())
+                        .where(SEATTIERS.SEAT_TIER_ID.eq(Integer.parseInt(tierData.getTierID()))));
+                tierIDs.set(i, Integer.parseInt(tierData.getTierID()));
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            context.batch(updates).execute();
+        }
+        if (!added.isEmpty()) {
+            List<Integer> insertedIDs = insertedTierIDs(insertTiers);
+            for (int i = 0; i < added.size(); i++) {
+                tierIDs.set(added.get(i), insertedIDs.get(i));
+            }
+        }
 
         return new Response(HttpStatus.OK.name(), "OK", tierIDs);
     }
 
+    // Identity values of one multi-row INSERT are assigned in VALUES order, so sorting the returned IDs lines
+    // them up with the tiers as they were sent.
+    private static List<Integer> insertedTierIDs(InsertReturningStep<?> insertTiers) {
+        return insertTiers.returningResult(SEATTIERS.SEAT_TIER_ID)
+                .fetch()
+                .sortAsc(SEATTIERS.SEAT_TIER_ID)
+                .getValues(SEATTIERS.SEAT_TIER_ID);
+    }
+
     public Response deleteTier(Integer seatMapID, Integer tierID) {
         context.deleteFrom(SEATTIERS)
                 .where(SEATTIERS.MAP_ID.eq(seatMapID).and(SEATTIERS.SEAT_TIER_ID.eq(tierID)))
@@ -1071,7 +1103,45 @@ public class EventService {
     }
 
     public List<Map<String, Object>> loadEventAttendees(String eventID) {
-        var attendees = context.select(
+        List<Map<String, Object>> attendees = attendeeQuery(context, UUID.fromString(eventID)).fetchMaps();
+        if (attendees.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return attendeeEnricher.enrich(attendees);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportEventAttendees(String eventID, String format) {
+        UUID id = UUID.fromString(eventID);
+        ExportWriter.Format exportFormat = ExportWriter.Format.of(format);
+
+        return ExportWriter.attachment("attendees-" + eventID, exportFormat, out -> context.transaction(configuration -> {
+            ExportWriter writer = new ExportWriter(out, exportFormat, ATTENDEE_EXPORT_COLUMNS, mapper);
+            Deque<CompletableFuture<List<Map<String, Object>>>> inFlight = new ArrayDeque<>();
+
+            try (Cursor<? extends Record> rows = attendeeQuery(configuration.dsl(), id)
+                    .fetchSize(AttendeeEnricher.BATCH_SIZE)
+                    .fetchLazy()) {
+                while (rows.hasNext()) {
+                    inFlight.add(attendeeEnricher.enrichAsync(rows.fetchNext(AttendeeEnricher.BATCH_SIZE).intoMaps()));
+                    if (inFlight.size() >= AttendeeEnricher.MAX_CONCURRENT_BATCHES) {
+                        for (Map<String, Object> attendee : inFlight.poll().join()) {
+                            writer.write(attendee);
+                        }
+                    }
+                }
+            }
+
+            while (!inFlight.isEmpty()) {
+                for (Map<String, Object> attendee : inFlight.poll().join()) {
+                    writer.write(attendee);
+                }
+            }
+            writer.flush();
+        }));
+    }
+
+    private ResultQuery<? extends Record> attendeeQuery(DSLContext dsl, UUID eventID) {
+        return dsl.select(
                         ATTENDEES.PROFILE_ID,
                         TICKETTYPES.TICKET_TYPE_ID,
                         TICKETTYPES.NAME.as("ticket_name"),
@@ -1085,67 +1155,31 @@ public class EventService {
                 .leftJoin(SEATTIERS).on(TICKETTYPES.SEAT_TIER_ID.eq(SEATTIERS.SEAT_TIER_ID))
                 .join(ORDERITEMS).on(TICKETS.ORDER_ITEM_ID.eq(ORDERITEMS.ORDER_ITEM_ID))
                 .join(ORDERS).on(ORDERITEMS.ORDER_ID.eq(ORDERS.ORDER_ID))
-                .where(ATTENDEES.EVENT_ID.eq(UUID.fromString(eventID))
+                .where(ATTENDEES.EVENT_ID.eq(eventID)
                         .and(ORDERS.STATUS.eq("paid")))
                 .groupBy(ATTENDEES.PROFILE_ID, TICKETTYPES.TICKET_TYPE_ID, TICKETTYPES.NAME, SEATTIERS.NAME, SEATTIERS.TIER_COLOR, SEATTIERS.PERKS)
-                .fetchMaps();
-
-        if (attendees.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        Set<Integer> profileIDs = new HashSet<>();
-        for (Map<String, Object> attendee : attendees) {
-            profileIDs.add((Integer) attendee.get("profile_id"));
-        }
-
-        List<Map<String, Object>> attendeeInfoList = accountClient.getEventAttendeeInfo(
-                new ArrayList<>(profileIDs)
-        );
+                .orderBy(ATTENDEES.PROFILE_ID, TICKETTYPES.TICKET_TYPE_ID);
+    }
 
-        Map<Integer, Map<String, Object>> attendeeInfoMap = new HashMap<>();
-        for (Map<String, Object> info : attendeeInfoList) {
-            Integer profileId = (Integer) info.get("profile_id");
-            if (profileId != null) {
-                attendeeInfoMap.put(profileId, info);
-            }
+    public Response sendAttendeesEmail(AttendeeEmailDTO emailDTO) {
+        if (emailDTO.getRecipients() == null || emailDTO.getRecipients().isEmpty()) {
+            return new Response(HttpStatus.BAD_REQUEST.name(), "No recipients", null);
         }
 
-        List<Map<String, Object>> result = new ArrayList<>(attendees.size());
-        for (Map<String, Object> attendee : attendees) {
-            Integer profileID = (Integer) attendee.get("profile_id");
-            Map<String, Object> attendeeInfo = attendeeInfoMap.get(profileID);
-
-            if (attendeeInfo != null) {
-                Map<String, Object> combined = new HashMap<>(attendee);
-                combined.put("profileName", attendeeInfo.get("profile_name"));
-                combined.put("fullName", attendeeInfo.get("full_name"));
-                combined.put("phoneNumber", attendeeInfo.get("phone_number"));
-                combined.put("email", attendeeInfo.get("account_email"));
-                combined.put("nationality", attendeeInfo.get("nationality"));
-                combined.put("dob", attendeeInfo.get("date_of_birth"));
-                combined.put("gender", attendeeInfo.get("gender"));
-                combined.put("interests", attendeeInfo.get("interests"));
-                result.add(combined);
-            }
+        try {
+            String jobID = bulkMailDispatcher.submit(emailDTO.getRecipients(), emailDTO.getSubject(), emailDTO.getContent());
+            return new Response(HttpStatus.OK.name(), "Email queued", Map.of("jobID", jobID));
+        } catch (MessagingException e) {
+            log.error("Error preparing attendee email: {}", e.getMessage());
+            return new Response(HttpStatus.INTERNAL_SERVER_ERROR.name(), "Error preparing email", null);
         }
-
-        return result;
     }
 
-    public Response sendAttendeesEmail(AttendeeEmailDTO emailDTO) {
-        List<CompletableFuture<Void>> futures = emailDTO.getRecipients().stream()
-                .map(recipient -> CompletableFuture.runAsync(() -> {
-                    try {
-                        emailService.sendEmail(recipient, emailDTO.getContent(), emailDTO.getSubject());
-                    } catch (Exception e) {
-                        log.error("Error sending to {}: {}", recipient, e.getMessage());
-                    }
-                }))
-                .toList();
-
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-
-        return new Response(HttpStatus.OK.name(), "Email sent successfully", null);
+    public Response getAttendeesEmailStatus(String jobID) {
+        Map<String, Object> progress = bulkMailDispatcher.progress(jobID);
+        if (progress == null) {
+            return new Response(HttpStatus.NOT_FOUND.name(), "Email job not found", null);
+        }
+        return new Response(HttpStatus.OK.name(), "Email job status", progress);
     }
 }
@@ -0,0 +1,243 @@
+package com.nkd.event.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nkd.event.event.EventOperation;
+import com.nkd.event.utils.GeoHash;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.JSONB;
+import org.jooq.Record;
+import org.jooq.impl.DSL;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static com.nkd.event.Tables.*;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventSuggestionIndex {
+
+    private static final int LIMIT = 10;
+    private static final double NEARBY_METERS = 1000;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Field<Double> LATITUDE = DSL.field("st_y(coordinates::geometry)", Double.class).as("lat");
+    private static final Field<Double> LONGITUDE = DSL.field("st_x(coordinates::geometry)", Double.class).as("lon");
+
+    private final DSLContext context;
+    private final ObjectMapper mapper;
+
+    private volatile Index index = new Index();
+    private volatile boolean ready;
+    private volatile Set<UUID> changedDuringRebuild;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<Map<String, Object>> suggest(String query, Integer type, Double lat, Double lon) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        Index current = index;
+        String selective = terms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        String normalizedQuery = normalize(query).trim();
+        OffsetDateTime now = OffsetDateTime.now();
+        boolean nearby = Integer.valueOf(2).equals(type) && lat != null && lon != null;
+
+        Comparator<IndexedEvent> ranking = Comparator
+                .comparing((IndexedEvent event) -> !event.normalizedName().startsWith(normalizedQuery))
+                .thenComparing(IndexedEvent::startTime);
+        PriorityQueue<IndexedEvent> top = new PriorityQueue<>(LIMIT + 1, ranking.reversed());
+        Set<UUID> seen = new HashSet<>();
+
+        for (Set<UUID> posting : current.postings.subMap(selective, true, selective + Character.MAX_VALUE, true).values()) {
+            for (UUID eventID : posting) {
+                if (!seen.add(eventID)) {
+                    continue;
+                }
+
+                IndexedEvent event = current.events.get(eventID);
+                if (event == null || !event.startTime().isAfter(now) || !event.matchesAll(terms)) {
+                    continue;
+                }
+                if (Integer.valueOf(1).equals(type) && !event.online()) {
+                    continue;
+                }
+                if (nearby && (event.lat() == null || event.lon() == null
+                        || GeoHash.distanceMeters(lat, lon, event.lat(), event.lon()) > NEARBY_METERS)) {
+                    continue;
+                }
+
+                top.offer(event);
+                if (top.size() > LIMIT) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<IndexedEvent> results = new ArrayList<>(top);
+        results.sort(ranking);
+        return results.stream().map(IndexedEvent::toMap).toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelay = 10, initialDelay = 10, timeUnit = TimeUnit.MINUTES)
+    public void rebuild() {
+        Set<UUID> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        try {
+            Index rebuilt = new Index();
+            loadEvents(EVENTS.STATUS.eq("published").and(EVENTS.START_TIME.gt(OffsetDateTime.now())))
+                    .forEach(rebuilt::put);
+            index = rebuilt;
+            ready = true;
+            log.info("Built event suggestion index with {} events and {} terms", rebuilt.events.size(), rebuilt.postings.size());
+        } catch (RuntimeException e) {
+            log.error("Error building event suggestion index: {}", e.getMessage());
+        } finally {
+            changedDuringRebuild = null;
+        }
+        changed.forEach(this::refresh);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true,
+            condition = "#operation.type == T(com.nkd.event.enumeration.EventOperationType).UPDATE")
+    public void onEventChanged(EventOperation operation) {
+        refresh(UUID.fromString(String.valueOf(operation.getData().get("eventID"))));
+    }
+
+    public void refresh(UUID eventID) {
+        Set<UUID> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(eventID);
+        }
+
+        Index current = index;
+        current.remove(eventID);
+        loadEvents(EVENTS.EVENT_ID.eq(eventID)
+                .and(EVENTS.STATUS.eq("published"))
+                .and(EVENTS.START_TIME.gt(OffsetDateTime.now())))
+                .forEach(current::put);
+    }
+
+    private List<IndexedEvent> loadEvents(Condition condition) {
+        return context.select(EVENTS.EVENT_ID, EVENTS.NAME, EVENTS.SHORT_DESCRIPTION, EVENTS.TAGS, EVENTS.LOCATION,
+                        EVENTS.START_TIME, CATEGORIES.NAME.as("category"), LATITUDE, LONGITUDE)
+                .from(EVENTS)
+                .join(SUBCATEGORIES).on(EVENTS.SUB_CATEGORY_ID.eq(SUBCATEGORIES.SUB_CATEGORY_ID))
+                .join(CATEGORIES).on(SUBCATEGORIES.CATEGORY_ID.eq(CATEGORIES.CATEGORY_ID))
+                .where(condition)
+                .fetch()
+                .map(this::toIndexedEvent);
+    }
+
+    private IndexedEvent toIndexedEvent(Record record) {
+        String name = record.get(EVENTS.NAME);
+        String tags = record.get(EVENTS.TAGS);
+        String category = record.get("category", String.class);
+        JSONB location = record.get(EVENTS.LOCATION);
+
+        boolean online = false;
+        StringBuilder searchable = new StringBuilder();
+        searchable.append(name).append(' ').append(tags).append(' ').append(category);
+        if (location != null) {
+            try {
+                JsonNode node = mapper.readTree(location.data());
+                online = "online".equalsIgnoreCase(node.path("locationType").asText());
+                searchable.append(' ').append(node.path("name").asText()).append(' ').append(node.path("location").asText());
+            } catch (Exception e) {
+                log.warn("Unreadable location for event {}: {}", record.get(EVENTS.EVENT_ID), e.getMessage());
+            }
+        }
+
+        return new IndexedEvent(record.get(EVENTS.EVENT_ID), name, record.get(EVENTS.SHORT_DESCRIPTION), tags, location,
+                category, record.get(EVENTS.START_TIME), record.get("lat", Double.class), record.get("lon", Double.class),
+                online, normalize(Objects.toString(name, "")), Set.copyOf(tokenize(searchable.toString())));
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATORS.split(normalize(text)))
+                .filter(token -> !token.isEmpty() && !token.equals("null"))
+                .distinct()
+                .toList();
+    }
+
+    private static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").replace('đ', 'd').replace('Đ', 'D').toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Index {
+
+        private final Map<UUID, IndexedEvent> events = new ConcurrentHashMap<>();
+        private final ConcurrentNavigableMap<String, Set<UUID>> postings = new ConcurrentSkipListMap<>();
+
+        private void put(IndexedEvent event) {
+            events.put(event.eventID(), event);
+            event.tokens().forEach(token -> postings.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(event.eventID()));
+        }
+
+        private void remove(UUID eventID) {
+            IndexedEvent previous = events.remove(eventID);
+            if (previous == null) {
+                return;
+            }
+            // Emptied posting sets stay in place: dropping one could discard an id a concurrent put()
+            // just added to it. The scheduled rebuild starts from a fresh index and sheds them.
+            previous.tokens().forEach(token -> {
+                Set<UUID> ids = postings.get(token);
+                if (ids != null) {
+                    ids.remove(eventID);
+                }
+            });
+        }
+    }
+
+    private record IndexedEvent(UUID eventID, String name, String shortDescription, String tags, JSONB location,
+                                String category, OffsetDateTime startTime, Double lat, Double lon, boolean online,
+                                String normalizedName, Set<String> tokens) {
+
+        private boolean matchesAll(List<String> terms) {
+            return terms.stream().allMatch(term -> tokens.stream().anyMatch(token -> token.startsWith(term)));
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("event_id", eventID);
+            event.put("name", name);
+            event.put("short_description", shortDescription);
+            event.put("tags", tags);
+            event.put("location", location);
+            event.put("category", category);
+            return event;
+        }
+    }
+}
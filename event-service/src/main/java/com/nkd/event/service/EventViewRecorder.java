@@ -0,0 +1,56 @@
+package com.nkd.event.service;
+
+import com.nkd.event.utils.WriteBehindBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.jooq.DSLContext;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.nkd.event.Tables.EVENTVIEWS;
+
+@Component
+public class EventViewRecorder {
+
+    private static final int CAPACITY = 1 << 16;
+    private static final int BATCH_SIZE = 1000;
+
+    private final DSLContext context;
+    private final WriteBehindBuffer<EventView> buffer;
+
+    public EventViewRecorder(DSLContext context, MeterRegistry meterRegistry) {
+        this.context = context;
+        this.buffer = new WriteBehindBuffer<>("event-views", CAPACITY, BATCH_SIZE, this::write, meterRegistry);
+    }
+
+    public void record(UUID eventID, Integer profileID, Integer timezone) {
+        ZoneOffset offset = timezone == null ? ZoneOffset.UTC : ZoneOffset.ofHours(timezone);
+        buffer.offer(new EventView(eventID, profileID, OffsetDateTime.now(offset)));
+    }
+
+    @Scheduled(fixedDelay = 500, timeUnit = TimeUnit.MILLISECONDS)
+    public void flush() {
+        buffer.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        buffer.flush();
+    }
+
+    private void write(List<EventView> views) {
+        var insert = context.insertInto(EVENTVIEWS, EVENTVIEWS.EVENT_ID, EVENTVIEWS.VIEW_DATE, EVENTVIEWS.PROFILE_ID);
+        for (EventView view : views) {
+            insert = insert.values(view.eventID(), view.viewDate(), view.profileID());
+        }
+        insert.execute();
+    }
+
+    private record EventView(UUID eventID, Integer profileID, OffsetDateTime viewDate) {}
+}
@@ -2,66 +2,106 @@ package com.nkd.event.service;
 
 import com.nkd.event.security.CustomUserDetails;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import java.util.Date;
-import java.util.function.Function;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 public class JwtService {
 
+    private static final int MAX_CACHED_TOKENS = 50_000;
+
     @Value("${jwt.secret}")
     private String secretKey;
     private final RedisTemplate<String, String> redisTemplate;
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private JwtParser parser;
 
-    public String getInternalKey(){
-        return redisTemplate.opsForValue().get("internal_jwt");
-    }
+    public record VerifiedToken(String email, String privileges, Integer userID, long expiresAt) {
 
-    public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        public CustomUserDetails toUserDetails() {
+            return CustomUserDetails.builder()
+                    .username(email)
+                    .rolePrivileges(privileges)
+                    .build();
+        }
     }
 
-    public CustomUserDetails buildCustomUserDetails(String token) {
-        Claims claims = extractAllClaims(token);
-
-        String privileges = claims.get("privileges") +
-                ",ROLE_" + claims.get("role");
-
-        return CustomUserDetails.builder()
-                .username(extractClaim(token, Claims::getSubject))
-                .rolePrivileges(privileges)
+    @PostConstruct
+    public void init() {
+        parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(secretKey.getBytes()))
                 .build();
     }
 
-    public boolean validateToken(String token) {
-        return !extractExpiration(token).before(new Date());
+    public String getInternalKey(){
+        return redisTemplate.opsForValue().get("internal_jwt");
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public VerifiedToken verify(String token) {
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return cached;
+            }
+            verifiedTokens.remove(key);
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(),
+                claims.get("privileges") + ",ROLE_" + claims.get("role"),
+                parseID(claims.get("userID")),
+                claims.getExpiration() == null ? now : claims.getExpiration().getTime());
+
+        if (verified.expiresAt() > now) {
+            if (verifiedTokens.size() >= MAX_CACHED_TOKENS) {
+                evictExpired();
+            }
+            if (verifiedTokens.size() < MAX_CACHED_TOKENS) {
+                verifiedTokens.put(key, verified);
+            }
+        }
+        return verified;
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        verifiedTokens.values().removeIf(verified -> verified.expiresAt() <= now);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token).getPayload();
+    private static Integer parseID(Object claim) {
+        try {
+            return claim == null ? null : Integer.valueOf(claim.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
-    private SecretKey getKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,387 @@
+package com.nkd.event.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record2;
+import org.jooq.Record3;
+import org.jooq.Result;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static com.nkd.event.Tables.*;
+import static org.jooq.impl.DSL.field;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OverviewMetricsSnapshot {
+
+    private static final String SNAPSHOT_KEY = "admin-overview-metrics";
+    private static final String LOCK = "admin-overview-metrics-lock";
+    private static final long REFRESH_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final Duration SNAPSHOT_TTL = Duration.ofHours(1);
+    private static final Duration LOCK_TIMEOUT = Duration.ofMinutes(2);
+    private static final long POLL_MILLIS = 500;
+
+    private final DSLContext context;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper mapper;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicReference<CompletableFuture<Snapshot>> refreshing = new AtomicReference<>();
+    private volatile Snapshot latest;
+
+    private record Snapshot(Map<String, Object> metrics, long generatedAt) {}
+
+    public Map<String, Object> get(boolean refresh) {
+        try {
+            Snapshot snapshot = refresh ? refresh() : current();
+            Map<String, Object> metrics = new HashMap<>(snapshot.metrics());
+            metrics.put("generatedAt", Instant.ofEpochMilli(snapshot.generatedAt()).toString());
+            metrics.put("ageSeconds", TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - snapshot.generatedAt()));
+            return metrics;
+        } catch (Exception e) {
+            log.error("Error retrieving overview metrics", e);
+            Map<String, Object> metrics = new HashMap<>();
+            metrics.put("error", "Failed to retrieve metrics: " + e.getMessage());
+            return metrics;
+        }
+    }
+
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public void scheduledRefresh() {
+        Snapshot shared = readShared();
+        if (shared != null && System.currentTimeMillis() - shared.generatedAt() < REFRESH_MILLIS) {
+            adopt(shared);
+            return;
+        }
+        if (refreshing.get() != null || Boolean.TRUE.equals(redisTemplate.hasKey(LOCK))) {
+            return;
+        }
+
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Error refreshing overview metrics snapshot: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private Snapshot current() {
+        Snapshot snapshot = latest;
+        if (snapshot == null) {
+            snapshot = readShared();
+            if (snapshot != null) {
+                adopt(snapshot);
+            }
+        }
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    private Snapshot refresh() {
+        CompletableFuture<Snapshot> created = new CompletableFuture<>();
+        CompletableFuture<Snapshot> existing = refreshing.compareAndExchange(null, created);
+        if (existing != null) {
+            return existing.join();
+        }
+
+        try {
+            Snapshot snapshot = refreshShared();
+            adopt(snapshot);
+            created.complete(snapshot);
+            return snapshot;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            refreshing.set(null);
+        }
+    }
+
+    private Snapshot refreshShared() {
+        long requestedAt = System.currentTimeMillis();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK, "1", LOCK_TIMEOUT))) {
+            return awaitShared(requestedAt);
+        }
+
+        try {
+            Snapshot snapshot = new Snapshot(compute(), System.currentTimeMillis());
+            try {
+                redisTemplate.opsForValue().set(SNAPSHOT_KEY, mapper.writeValueAsString(snapshot), SNAPSHOT_TTL);
+            } catch (JsonProcessingException e) {
+                log.warn("Failed to store overview metrics snapshot: {}", e.getMessage());
+            }
+            return snapshot;
+        } finally {
+            redisTemplate.delete(LOCK);
+        }
+    }
+
+    private Snapshot awaitShared(long requestedAt) {
+        long deadline = requestedAt + LOCK_TIMEOUT.toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            Snapshot shared = readShared();
+            if (shared != null && shared.generatedAt() >= requestedAt) {
+                return shared;
+            }
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(LOCK))) {
+                break;
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        Snapshot shared = Optional.ofNullable(readShared()).orElse(latest);
+        if (shared == null) {
+            throw new IllegalStateException("Overview metrics are being refreshed by another instance");
+        }
+        return shared;
+    }
+
+    private Snapshot readShared() {
+        String value = redisTemplate.opsForValue().get(SNAPSHOT_KEY);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return mapper.readValue(value, new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable overview metrics snapshot: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void adopt(Snapshot snapshot) {
+        Snapshot current = latest;
+        if (current == null || current.generatedAt() < snapshot.generatedAt()) {
+            latest = snapshot;
+        }
+    }
+
+    private Map<String, Object> compute() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime thirtyDaysAgo = now.minusDays(30);
+        OffsetDateTime sixtyDaysAgo = now.minusDays(60);
+        OffsetDateTime sixMonthsAgo = now.minusMonths(6);
+        OffsetDateTime twelveMonthsAgo = now.minusMonths(12);
+        LocalDate firstMonth = now.toLocalDate().minusMonths(6).withDayOfMonth(1);
+
+        CompletableFuture<List<Map<String, Object>>> ticketSoldDaily = async(() -> context.select(
+                        DSL.function("date", SQLDataType.DATE, TICKETS.CREATED_AT).as("date"),
+                        DSL.count().as("count")
+                )
+                .from(TICKETS)
+                .join(ORDERITEMS).on(TICKETS.ORDER_ITEM_ID.eq(ORDERITEMS.ORDER_ITEM_ID))
+                .join(ORDERS).on(ORDERITEMS.ORDER_ID.eq(ORDERS.ORDER_ID))
+                .where(TICKETS.CREATED_AT.greaterOrEqual(thirtyDaysAgo))
+                .and(paidTickets())
+                .groupBy(DSL.function("date", SQLDataType.DATE, TICKETS.CREATED_AT))
+                .orderBy(field("date"))
+                .fetchMaps());
+
+        Field<Integer> eventsLastMonth = DSL.count().filterWhere(EVENTS.CREATED_AT.between(thirtyDaysAgo, now));
+        Field<Integer> eventsPrevMonth = DSL.count().filterWhere(EVENTS.CREATED_AT.between(sixtyDaysAgo, thirtyDaysAgo));
+        CompletableFuture<Record3<Integer, Integer, Integer>> eventCounts = async(() -> context.select(
+                        DSL.count(), eventsLastMonth, eventsPrevMonth)
+                .from(EVENTS)
+                .fetchOne());
+
+        CompletableFuture<List<Map<String, Object>>> eventStartDaily = async(() -> context.select(
+                        DSL.function("date", SQLDataType.DATE, EVENTS.START_TIME).as("date"),
+                        DSL.count().as("count")
+                )
+                .from(EVENTS)
+                .where(EVENTS.START_TIME.greaterOrEqual(thirtyDaysAgo.plusDays(1)))
+                .groupBy(DSL.function("date", SQLDataType.DATE, EVENTS.START_TIME))
+                .orderBy(field("date"))
+                .fetchMaps());
+
+        CompletableFuture<List<Map<String, Object>>> eventTypes = async(() -> context.select(
+                        EVENTTYPES.EVENT_TYPE_ID,
+                        EVENTTYPES.NAME.as("label")
+                )
+                .from(EVENTTYPES)
+                .orderBy(EVENTTYPES.NAME)
+                .fetchMaps());
+
+        Field<BigDecimal> currentRevenue = DSL.sum(TICKETTYPES.PRICE).filterWhere(TICKETS.CREATED_AT.between(sixMonthsAgo, now));
+        Field<BigDecimal> previousRevenue = DSL.sum(TICKETTYPES.PRICE).filterWhere(TICKETS.CREATED_AT.between(twelveMonthsAgo, sixMonthsAgo));
+        CompletableFuture<Record2<BigDecimal, BigDecimal>> revenue = async(() -> context.select(currentRevenue, previousRevenue)
+                .from(TICKETS)
+                .join(TICKETTYPES).on(TICKETS.TICKET_TYPE_ID.eq(TICKETTYPES.TICKET_TYPE_ID))
+                .join(ORDERITEMS).on(TICKETS.ORDER_ITEM_ID.eq(ORDERITEMS.ORDER_ITEM_ID))
+                .join(ORDERS).on(ORDERITEMS.ORDER_ID.eq(ORDERS.ORDER_ID))
+                .where(TICKETS.CREATED_AT.between(twelveMonthsAgo, now))
+                .and(paidTickets())
+                .fetchOne());
+
+        Field<LocalDate> month = DSL.field("date_trunc('month', {0} at time zone 'UTC')::date", SQLDataType.LOCALDATE, TICKETS.CREATED_AT);
+        CompletableFuture<Result<Record3<Integer, LocalDate, BigDecimal>>> revenueByTypeAndMonth = async(() -> context.select(
+                        EVENTS.EVENT_TYPE_ID, month, DSL.sum(TICKETTYPES.PRICE))
+                .from(TICKETS)
+                .join(EVENTS).on(TICKETS.EVENT_ID.eq(EVENTS.EVENT_ID))
+                .join(TICKETTYPES).on(TICKETS.TICKET_TYPE_ID.eq(TICKETTYPES.TICKET_TYPE_ID))
+                .join(ORDERITEMS).on(TICKETS.ORDER_ITEM_ID.eq(ORDERITEMS.ORDER_ITEM_ID))
+                .join(ORDERS).on(ORDERITEMS.ORDER_ID.eq(ORDERS.ORDER_ID))
+                .where(TICKETS.CREATED_AT.between(firstMonth.atStartOfDay(ZoneOffset.UTC).toOffsetDateTime(), now))
+                .and(paidTickets())
+                .groupBy(EVENTS.EVENT_TYPE_ID, month)
+                .fetch());
+
+        List<Integer> dailyTicketCounts = dailyCounts(ticketSoldDaily.join(), now);
+        long totalTicketsSold = dailyTicketCounts.stream().mapToLong(Integer::longValue).sum();
+
+        Record3<Integer, Integer, Integer> counts = Objects.requireNonNull(eventCounts.join());
+        int totalEvents = counts.value1();
+        Trend eventTrend = Trend.of(counts.value2(), counts.value3());
+
+        int firstHalfTickets = dailyTicketCounts.subList(0, 15).stream().mapToInt(Integer::intValue).sum();
+        int secondHalfTickets = dailyTicketCounts.subList(15, 30).stream().mapToInt(Integer::intValue).sum();
+        Trend ticketTrend = Trend.of(secondHalfTickets, firstHalfTickets);
+
+        Record2<BigDecimal, BigDecimal> revenueTotals = revenue.join();
+        BigDecimal currentSixMonthRevenue = Optional.ofNullable(revenueTotals).map(Record2::value1).orElse(BigDecimal.ZERO);
+        BigDecimal previousSixMonthRevenue = Optional.ofNullable(revenueTotals).map(Record2::value2).orElse(BigDecimal.ZERO);
+
+        double revenueTrendPercentage = 0;
+        String revenueTrendDirection = "stable";
+        if (previousSixMonthRevenue.compareTo(BigDecimal.ZERO) > 0) {
+            BigDecimal change = currentSixMonthRevenue.subtract(previousSixMonthRevenue);
+            revenueTrendPercentage = change.divide(previousSixMonthRevenue, 4, RoundingMode.HALF_UP)
+                    .multiply(new BigDecimal(100))
+                    .doubleValue();
+            revenueTrendDirection = revenueTrendPercentage >= 0 ? "up" : "down";
+            revenueTrendPercentage = Math.abs(revenueTrendPercentage);
+        }
+
+        Map<Integer, BigDecimal[]> monthlyByType = new HashMap<>();
+        for (Record3<Integer, LocalDate, BigDecimal> record : revenueByTypeAndMonth.join()) {
+            int index = (int) ChronoUnit.MONTHS.between(firstMonth, record.value2());
+            if (index >= 0 && index <= 6 && record.value3() != null) {
+                BigDecimal[] months = monthlyByType.computeIfAbsent(record.value1(), id -> zeros());
+                months[index] = months[index].add(record.value3());
+            }
+        }
+
+        List<Map<String, Object>> formattedEventTypes = new ArrayList<>();
+        for (Map<String, Object> eventType : eventTypes.join()) {
+            Integer eventTypeId = ((Number) eventType.get("event_type_id")).intValue();
+            String eventTypeName = (String) eventType.get("label");
+            BigDecimal[] months = monthlyByType.getOrDefault(eventTypeId, zeros());
+
+            List<BigDecimal> monthlyRevenue = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                monthlyRevenue.add(months[i].add(months[i + 1]));
+            }
+            Map<String, Object> eventTypeData = new HashMap<>();
+            eventTypeData.put("id", eventTypeName.toLowerCase().replace(" ", "_"));
+            eventTypeData.put("label", eventTypeName);
+            eventTypeData.put("data", monthlyRevenue);
+            formattedEventTypes.add(eventTypeData);
+        }
+
+        Map<String, Object> ticketsSoldData = new HashMap<>();
+        ticketsSoldData.put("title", "Tickets Sold");
+        ticketsSoldData.put("value", formatLargeNumber(totalTicketsSold));
+        ticketsSoldData.put("interval", 30);
+        ticketsSoldData.put("trend", ticketTrend.direction());
+        ticketsSoldData.put("trendPercentage", Math.round(ticketTrend.percentage() * 10) / 10.0);
+        ticketsSoldData.put("data", dailyTicketCounts);
+
+        List<Integer> dailyEventCounts = dailyCounts(eventStartDaily.join(), now);
+
+        Map<String, Object> eventsData = new HashMap<>();
+        eventsData.put("title", "Total Events");
+        eventsData.put("dailyEvents", dailyEventCounts);
+        eventsData.put("value", formatLargeNumber(totalEvents));
+        eventsData.put("interval", dailyEventCounts.stream().mapToInt(Integer::intValue).sum());
+        eventsData.put("trend", eventTrend.direction());
+        eventsData.put("trendPercentage", Math.round(eventTrend.percentage() * 10) / 10.0);
+
+        Map<String, Object> revenueTrendData = new HashMap<>();
+        revenueTrendData.put("currentRevenue", currentSixMonthRevenue);
+        revenueTrendData.put("previousRevenue", previousSixMonthRevenue);
+        revenueTrendData.put("trend", revenueTrendDirection);
+        revenueTrendData.put("trendPercentage", Math.round(revenueTrendPercentage * 10) / 10.0);
+
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("ticketsSold", ticketsSoldData);
+        metrics.put("totalEvents", eventsData);
+        metrics.put("topEventTypes", formattedEventTypes);
+        metrics.put("revenueTrend", revenueTrendData);
+        return metrics;
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, executor);
+    }
+
+    private static Condition paidTickets() {
+        return TICKETS.STATUS.in("reserved", "transferred", "active").and(ORDERS.STATUS.eq("paid"));
+    }
+
+    private static List<Integer> dailyCounts(List<Map<String, Object>> rows, OffsetDateTime now) {
+        List<Integer> dailyCounts = new ArrayList<>(Collections.nCopies(30, 0));
+        for (Map<String, Object> dayData : rows) {
+            LocalDate date = ((java.sql.Date) dayData.get("date")).toLocalDate();
+            int daysAgo = (int) ChronoUnit.DAYS.between(date, now.toLocalDate());
+            if (daysAgo >= 0 && daysAgo < 30) {
+                dailyCounts.set(29 - daysAgo, ((Number) dayData.get("count")).intValue());
+            }
+        }
+        return dailyCounts;
+    }
+
+    private static BigDecimal[] zeros() {
+        BigDecimal[] months = new BigDecimal[7];
+        Arrays.fill(months, BigDecimal.ZERO);
+        return months;
+    }
+
+    private static String formatLargeNumber(long number) {
+        if (number >= 1000000) {
+            return String.format("%.1fM", number / 1000000.0);
+        } else if (number >= 1000) {
+            return String.format("%.1fk", number / 1000.0);
+        } else {
+            return String.valueOf(number);
+        }
+    }
+
+    private record Trend(String direction, double percentage) {
+
+        private static Trend of(Integer current, Integer previous) {
+            if (previous == null || previous <= 0 || current == null) {
+                return new Trend("stable", 0);
+            }
+            double percentage = ((double) current - previous) / previous * 100;
+            return new Trend(percentage >= 0 ? "up" : "down", Math.abs(percentage));
+        }
+    }
+}
@@ -9,7 +9,9 @@ import com.nkd.event.enumeration.PaymentStatus;
 import com.nkd.event.event.EventOperation;
 import com.nkd.event.utils.CommonUtils;
 import com.stripe.Stripe;
+import com.stripe.model.Refund;
 import com.stripe.model.checkout.Session;
+import com.stripe.param.RefundCreateParams;
 import com.stripe.param.checkout.SessionCreateParams;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,14 +20,15 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.HttpStatus;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 
 import static com.nkd.event.Tables.*;
 
@@ -41,11 +44,13 @@ public class PaymentService {
 
     private final DSLContext context;
     private final RedisTemplate<String, Object> redisTemplate;
-    private final SimpMessagingTemplate messagingTemplate;
-    private final Map<String, List<TicketDTO>> cache = new HashMap<>();
+    private final SeatMapBroadcaster seatMapBroadcaster;
 
     private final TicketService ticketService;
+    private final TicketReservationService reservationService;
+    private final SeatHoldManager seatHoldManager;
     private final ApplicationEventPublisher publisher;
+    private final CheckoutSessionStore checkoutSessions;
 
     @Transactional
     public StripeResponse handleStripeCheckout(Boolean isReserve, PaymentDTO paymentDTO) {
@@ -60,14 +65,8 @@ public class PaymentService {
            }
        }
        else{
-           Optional<String> unavailableTicket = paymentDTO.getTierTicketIDs().stream()
-                   .filter(ticketID -> !context.fetchExists(
-                           context.selectFrom(TICKETS)
-                                   .where(TICKETS.SEAT_IDENTIFIER.eq(ticketID))
-                                   .and(TICKETS.EVENT_ID.eq(UUID.fromString(paymentDTO.getEventID())))
-                                   .and(TICKETS.STATUS.eq("available"))
-                   ))
-                   .findFirst();
+           Optional<String> unavailableTicket = seatHoldManager.hold(paymentDTO.getEventID(), paymentDTO.getTierTicketIDs(),
+                   paymentDTO.getProfileID());
 
            if (unavailableTicket.isPresent()) {
                return StripeResponse.builder()
@@ -85,15 +84,18 @@ public class PaymentService {
                 .returningResult(ORDERS.ORDER_ID)
                 .fetchOneInto(Integer.class);
 
-        redisTemplate.opsForValue().set("stripe-order-" + orderID, Map.of("eventID", paymentDTO.getEventID(), "reserve", isReserve,
-                "tierTicketIDs", Optional.ofNullable(paymentDTO.getTierTicketIDs()).orElse(List.of()),
-                "userID", paymentDTO.getUserID(), "profileID", paymentDTO.getProfileID(),
-                "amount", paymentDTO.getAmount(), "currency", paymentDTO.getCurrency(), "email", paymentDTO.getEmail(),
-                "username", paymentDTO.getUsername()), 10, TimeUnit.MINUTES);
-        cache.put("stripe-order-" + orderID, paymentDTO.getTickets());
+        checkoutSessions.put(orderID, isReserve, paymentDTO);
 
         SessionCreateParams params = createStripeParams(paymentDTO, orderID, isReserve);
         var response = createStripeResponse(params);
+        if(response.getStatus().equals("failed")){
+            if(isReserve){
+                seatHoldManager.release(paymentDTO.getEventID(), paymentDTO.getTierTicketIDs(), paymentDTO.getProfileID());
+            }
+            else{
+                reservationService.release(paymentDTO.getProfileID());
+            }
+        }
 
         context.insertInto(PAYMENTS)
                 .set(PAYMENTS.PAYMENT_ID, UUID.randomUUID())
@@ -110,7 +112,9 @@ public class PaymentService {
 
     @Transactional
     public StripeResponse handleSuccessfulStripePayment(Integer orderID, Integer profileID, Boolean isReserve) {
-        Object value = redisTemplate.opsForValue().get("stripe-order-" + orderID);
+        Optional<CheckoutSessionStore.CheckoutSession> session = checkoutSessions.get(orderID);
+        // The redirect's reserve flag is client-controlled; the session recorded at checkout is authoritative.
+        boolean reserve = session.map(CheckoutSessionStore.CheckoutSession::reserve).orElse(Boolean.TRUE.equals(isReserve));
         StripeResponse response = new StripeResponse();
 
         if(orderID == null) {
@@ -138,54 +142,62 @@ public class PaymentService {
                     .sessionID(paymentID.get().toString()).amount(0L).build();
         }
 
+        if(reserve && session.isPresent()){
+            PaymentDTO checkout = session.get().payment();
+            try {
+                ticketService.claimSeats(checkout.getEventID(), Optional.ofNullable(checkout.getTierTicketIDs()).orElse(List.of()),
+                        checkout.getUserID(), checkout.getProfileID(), checkout.getTickets());
+            } catch (IllegalStateException e) {
+                log.error("Seats of order {} were taken before its payment completed", orderID);
+                return refundUnavailableSeats(orderID, paymentID.get());
+            }
+        }
+
         context.update(ORDERS)
                 .set(ORDERS.STATUS, "paid")
                 .set(ORDERS.PAYMENT_ID, paymentID.get())
                 .where(ORDERS.ORDER_ID.eq(orderID))
                 .execute();
 
-        if(value instanceof Map){
+        if(session.isPresent()){
             try {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> outerMap = (Map<String, Object>) value;
-                response.setAmount(Long.parseLong(outerMap.get("amount").toString()));
+                PaymentDTO checkout = session.get().payment();
+                response.setAmount(checkout.getAmount());
 
-                @SuppressWarnings("unchecked")
-                List<String> ticketTierIDs = (List<String>) outerMap.get("tierTicketIDs");
-                List<TicketDTO> tickets = cache.get("stripe-order-" + orderID);
-                ticketService.generateTickets(orderID, tickets, outerMap.get("eventID").toString(), ((Integer) outerMap.get("userID")),
-                        ((Integer) outerMap.get("profileID")), isReserve, ticketTierIDs);
+                List<String> ticketTierIDs = Optional.ofNullable(checkout.getTierTicketIDs()).orElse(List.of());
+                List<TicketDTO> tickets = checkout.getTickets();
+                afterCommit(() -> ticketService.generateTickets(orderID, tickets, checkout.getEventID(), checkout.getUserID(),
+                        checkout.getProfileID(), reserve, ticketTierIDs));
 
-                if(!isReserve){
+                if(!reserve){
                     cleanUpOnSuccessPayment(orderID, profileID);
                 }
                 else{
                     Integer mapID = context.select(SEATMAP.MAP_ID).from(SEATMAP)
-                            .where(SEATMAP.EVENT_ID.eq(UUID.fromString(outerMap.get("eventID").toString())))
+                            .where(SEATMAP.EVENT_ID.eq(UUID.fromString(checkout.getEventID())))
                             .fetchOneInto(Integer.class);
                     if(mapID == null) {
-                        log.error("Seat map not found for event ID: {}", outerMap.get("eventID").toString());
+                        log.error("Seat map not found for event ID: {}", checkout.getEventID());
                     }
-                    String destination = "/seat-map/" + mapID;
-                    messagingTemplate.convertAndSend(destination, ticketTierIDs);
+                    seatMapBroadcaster.seatsTaken(mapID, ticketTierIDs);
                 }
 
                 response.setStatus("success");
                 response.setMessage("Payment successful");
-                response.setCurrency(outerMap.get("currency").toString());
+                response.setCurrency(checkout.getCurrency());
 
                 PaymentDTO payment = PaymentDTO.builder()
                         .tickets(tickets)
-                        .eventID(outerMap.get("eventID").toString())
-                        .userID((Integer) outerMap.get("userID"))
+                        .eventID(checkout.getEventID())
+                        .userID(checkout.getUserID())
                         .organizerID(context.select(EVENTS.ORGANIZER_ID).from(EVENTS)
-                                .where(EVENTS.EVENT_ID.eq(UUID.fromString(outerMap.get("eventID").toString())))
+                                .where(EVENTS.EVENT_ID.eq(UUID.fromString(checkout.getEventID())))
                                 .fetchOneInto(Integer.class))
-                        .profileID((Integer) outerMap.get("profileID"))
+                        .profileID(checkout.getProfileID())
                         .amount(response.getAmount())
-                        .currency(outerMap.get("currency").toString())
-                        .email(outerMap.get("email").toString())
-                        .username(outerMap.get("username").toString())
+                        .currency(checkout.getCurrency())
+                        .email(checkout.getEmail())
+                        .username(checkout.getUsername())
                         .build();
 
                 publisher.publishEvent(payment);
@@ -201,6 +213,12 @@ public class PaymentService {
     }
 
     public StripeResponse handleFailedStripePayment(Integer orderID, Integer profileID, PaymentStatus status) {
+        reservationService.release(profileID);
+        checkoutSessions.get(orderID)
+                .filter(CheckoutSessionStore.CheckoutSession::reserve)
+                .map(CheckoutSessionStore.CheckoutSession::payment)
+                .ifPresent(checkout -> seatHoldManager.release(checkout.getEventID(),
+                        Optional.ofNullable(checkout.getTierTicketIDs()).orElse(List.of()), profileID));
         cleanUpOnSuccessPayment(orderID, profileID);
 
         if(orderID == null) {
@@ -286,10 +304,18 @@ public class PaymentService {
                 .where(ORDERITEMS.ORDER_ID.eq(orderID))
                 .fetchInto(Integer.class);
 
-        context.update(TICKETS)
+        List<String> releasedSeats = context.update(TICKETS)
                 .set(TICKETS.STATUS, "available")
                 .where(TICKETS.ORDER_ITEM_ID.in(orderItemIDs))
-                .execute();
+                .returningResult(TICKETS.SEAT_IDENTIFIER)
+                .fetchInto(String.class);
+        List<String> releasedSeatIDs = releasedSeats.stream().filter(Objects::nonNull).toList();
+        if(!releasedSeatIDs.isEmpty()){
+            seatHoldManager.markAvailable(eventID.toString(), releasedSeatIDs);
+            seatMapBroadcaster.seatsReleased(context.select(SEATMAP.MAP_ID).from(SEATMAP)
+                    .where(SEATMAP.EVENT_ID.eq(eventID))
+                    .fetchOneInto(Integer.class), releasedSeatIDs);
+        }
 
         ticketService.cleanUpOnDeleteOrder(orderID, profileID);
 
@@ -302,31 +328,55 @@ public class PaymentService {
         return new Response(HttpStatus.OK.name(), "Order cancelled successfully", null);
     }
 
-    private void handleReserveTicket(List<TicketDTO> tickets, Integer profileID){
-        tickets.forEach(ticket -> {
-            Integer availableQuantity = context.select(TICKETTYPES.AVAILABLE_QUANTITY)
-                    .from(TICKETTYPES)
-                    .where(TICKETTYPES.TICKET_TYPE_ID.eq(ticket.getTicketTypeID()))
-                    .fetchOneInto(Integer.class);
-            String totalKey = "total-" + ticket.getTicketTypeID();
-
-            Integer totalReservedQuantity = (Integer) redisTemplate.opsForValue().get(totalKey);
-            if (totalReservedQuantity == null) {
-                totalReservedQuantity = 0;
-            }
+    private StripeResponse refundUnavailableSeats(Integer orderID, UUID paymentID) {
+        String transactionID = context.select(PAYMENTS.TRANSACTION_ID)
+                .from(PAYMENTS)
+                .where(PAYMENTS.PAYMENT_ID.eq(paymentID))
+                .fetchOneInto(String.class);
 
-            if (availableQuantity == null || availableQuantity - totalReservedQuantity < ticket.getQuantity()) {
-                throw new RuntimeException("Ticket not available for " + ticket.getTicketName() +
-                        ". Please lower the quantity and try again");
-            }
+        String paymentStatus = "refunded";
+        try {
+            Stripe.apiKey = secretKey;
+            Session session = Session.retrieve(transactionID);
+            Refund.create(RefundCreateParams.builder().setPaymentIntent(session.getPaymentIntent()).build());
+        } catch (Exception e) {
+            paymentStatus = "refund_failed";
+            log.error("Error refunding order {}: {}", orderID, e.getMessage());
+        }
+
+        context.update(PAYMENTS)
+                .set(PAYMENTS.PAYMENT_STATUS, paymentStatus)
+                .where(PAYMENTS.PAYMENT_ID.eq(paymentID))
+                .execute();
+        context.update(ORDERS)
+                .set(ORDERS.STATUS, "cancelled")
+                .set(ORDERS.CANCEL_REASON, PaymentStatus.SEATS_UNAVAILABLE.getDescription())
+                .where(ORDERS.ORDER_ID.eq(orderID))
+                .execute();
+        checkoutSessions.remove(orderID);
 
-            redisTemplate.opsForValue().increment(totalKey, ticket.getQuantity());
+        return StripeResponse.builder().status("failed").message(PaymentStatus.SEATS_UNAVAILABLE.getDescription())
+                .sessionID(paymentID.toString()).build();
+    }
 
-            String profileKey = "reserved-for-" + profileID;
-            redisTemplate.opsForValue().set(profileKey, ticket.getQuantity());
+    // Ticket generation runs on another thread, so it must only start once the seats and order it links to are committed.
+    private static void afterCommit(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
         });
     }
 
+    private void handleReserveTicket(List<TicketDTO> tickets, Integer profileID){
+        reservationService.reserve(tickets, profileID);
+    }
+
     private StripeResponse createStripeResponse(SessionCreateParams params) {
         Session session;
 
@@ -375,15 +425,13 @@ public class PaymentService {
                 .setMode(SessionCreateParams.Mode.PAYMENT)
                 .setSuccessUrl(successURL)
                 .setCancelUrl(cancelURL)
+                .setExpiresAt(Instant.now().plus(TicketReservationService.CHECKOUT_TTL).getEpochSecond())
                 .addLineItem(lineItem)
                 .build();
     }
 
     private void cleanUpOnSuccessPayment(Integer orderID, Integer profileID) {
-        redisTemplate.delete("stripe-order-" + orderID);
-        redisTemplate.delete("reserved-for-" + profileID);
-
-        cache.remove("stripe-order-" + orderID);
+        checkoutSessions.remove(orderID);
 
         String coupon = (String) redisTemplate.opsForValue().get("coupon-" + profileID);
 
@@ -421,7 +469,7 @@ public class PaymentService {
                 .fetchOneInto(Integer.class);
 
         try {
-            ticketService.generateTickets(orderID, paymentDTO.getTickets(), paymentDTO.getEventID(), paymentDTO.getUserID(), paymentDTO.getProfileID(), false, null);
+            afterCommit(() -> ticketService.generateTickets(orderID, paymentDTO.getTickets(), paymentDTO.getEventID(), paymentDTO.getUserID(), paymentDTO.getProfileID(), false, null));
         } catch (Exception e) {
             log.error("Error generating tickets: {}", e.getMessage());
             return new Response(HttpStatus.INTERNAL_SERVER_ERROR.name(), e.getMessage(), null);
@@ -432,6 +480,30 @@ public class PaymentService {
 
     @Transactional
     public Response handleGooglePayCheckout(Boolean isReserve, PaymentDTO paymentDTO) {
+        if(!isReserve){
+            try {
+                handleReserveTicket(paymentDTO.getTickets(), paymentDTO.getProfileID());
+            } catch (Exception e) {
+                log.error("Error checking ticket availability: {}", e.getMessage());
+                return new Response(HttpStatus.BAD_REQUEST.name(), e.getMessage(), null);
+            }
+        }
+        else{
+            Optional<String> unavailableTicket = seatHoldManager.hold(paymentDTO.getEventID(), paymentDTO.getTierTicketIDs(),
+                    paymentDTO.getProfileID());
+            if(unavailableTicket.isPresent()){
+                return new Response(HttpStatus.BAD_REQUEST.name(), "Ticket not available for " + unavailableTicket.get(), null);
+            }
+
+            try {
+                ticketService.claimSeats(paymentDTO.getEventID(), paymentDTO.getTierTicketIDs(), paymentDTO.getUserID(),
+                        paymentDTO.getProfileID(), paymentDTO.getTickets());
+            } catch (IllegalStateException e) {
+                seatHoldManager.release(paymentDTO.getEventID(), paymentDTO.getTierTicketIDs(), paymentDTO.getProfileID());
+                return new Response(HttpStatus.BAD_REQUEST.name(), e.getMessage(), null);
+            }
+        }
+
         var orderID = context.insertInto(ORDERS)
                 .set(ORDERS.USER_ID, paymentDTO.getUserID())
                 .set(ORDERS.PROFILE_ID, paymentDTO.getProfileID())
@@ -457,7 +529,7 @@ public class PaymentService {
                 .execute();
 
         try {
-            ticketService.generateTickets(
+            afterCommit(() -> ticketService.generateTickets(
                     orderID,
                     paymentDTO.getTickets(),
                     paymentDTO.getEventID(),
@@ -465,7 +537,7 @@ public class PaymentService {
                     paymentDTO.getProfileID(),
                     isReserve,
                     paymentDTO.getTierTicketIDs()
-            );
+            ));
 
             if (isReserve) {
                 Integer mapID = context.select(SEATMAP.MAP_ID)
@@ -473,10 +545,7 @@ public class PaymentService {
                         .where(SEATMAP.EVENT_ID.eq(UUID.fromString(paymentDTO.getEventID())))
                         .fetchOneInto(Integer.class);
 
-                if (mapID != null) {
-                    String destination = "/seat-map/" + mapID;
-                    messagingTemplate.convertAndSend(destination, paymentDTO.getTierTicketIDs());
-                }
+                seatMapBroadcaster.seatsTaken(mapID, paymentDTO.getTierTicketIDs());
             } else {
                 String coupon = (String) redisTemplate.opsForValue().get("coupon-" + paymentDTO.getProfileID());
                 if (coupon != null) {
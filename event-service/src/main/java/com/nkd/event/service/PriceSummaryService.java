@@ -0,0 +1,136 @@
+package com.nkd.event.service;
+
+import lombok.RequiredArgsConstructor;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.JSONB;
+import org.jooq.impl.DSL;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.nkd.event.Tables.TICKETTYPES;
+
+@Service
+@RequiredArgsConstructor
+public class PriceSummaryService {
+
+    private static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final DSLContext context;
+    private final Map<UUID, PriceSummary> cache = new ConcurrentHashMap<>();
+
+    public record PriceSummary(String price, JSONB currency, long expiresAt) {}
+
+    public Map<UUID, PriceSummary> summarize(Collection<UUID> eventIDs) {
+        long now = System.currentTimeMillis();
+        Map<UUID, PriceSummary> summaries = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+
+        for (UUID eventID : new LinkedHashSet<>(eventIDs)) {
+            PriceSummary summary = cache.get(eventID);
+            if (summary != null && summary.expiresAt() > now) {
+                summaries.put(eventID, summary);
+            } else {
+                missing.add(eventID);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<UUID, PriceSummary> loaded = load(missing);
+            cache.putAll(loaded);
+            summaries.putAll(loaded);
+        }
+        return summaries;
+    }
+
+    public void invalidate(UUID eventID) {
+        if (eventID == null) {
+            return;
+        }
+        cache.remove(eventID);
+
+        // A read racing the open transaction can cache the old prices again, so evict once more after commit.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.remove(eventID);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(summary -> summary.expiresAt() <= now);
+    }
+
+    private Map<UUID, PriceSummary> load(List<UUID> eventIDs) {
+        OffsetDateTime now = OffsetDateTime.now();
+        Condition visible = TICKETTYPES.SALE_END_TIME.gt(now)
+                .and(TICKETTYPES.STATUS.eq("visible")
+                        .or(TICKETTYPES.STATUS.eq("hid-on-sales").and(TICKETTYPES.SALE_START_TIME.lt(now))
+                                .and(TICKETTYPES.SALE_END_TIME.gt(now)))
+                        .or(TICKETTYPES.STATUS.eq("custom")
+                                .and(TICKETTYPES.VIS_START_TIME.lt(now))
+                                .and(TICKETTYPES.VIS_END_TIME.gt(now))));
+        Condition free = TICKETTYPES.PRICE.eq(BigDecimal.ZERO);
+
+        Field<Integer> ticketCount = DSL.count().filterWhere(visible);
+        Field<BigDecimal> minPrice = DSL.min(TICKETTYPES.PRICE).filterWhere(visible);
+        Field<Boolean> allFree = DSL.boolAnd(free).filterWhere(visible);
+        Field<Boolean> hasFree = DSL.boolOr(free).filterWhere(visible);
+        Field<JSONB[]> currencies = DSL.arrayAgg(TICKETTYPES.CURRENCY).filterWhere(visible);
+        List<Field<OffsetDateTime>> boundaries = Stream.of(TICKETTYPES.SALE_START_TIME, TICKETTYPES.SALE_END_TIME,
+                        TICKETTYPES.VIS_START_TIME, TICKETTYPES.VIS_END_TIME)
+                .map(column -> DSL.min(DSL.when(column.gt(now), column)))
+                .toList();
+
+        long expiresAt = System.currentTimeMillis() + MAX_AGE_MILLIS;
+        Map<UUID, PriceSummary> summaries = new HashMap<>();
+        eventIDs.forEach(eventID -> summaries.put(eventID, new PriceSummary(null, null, expiresAt)));
+
+        context.select(TICKETTYPES.EVENT_ID, ticketCount, minPrice, allFree, hasFree, currencies,
+                        boundaries.get(0), boundaries.get(1), boundaries.get(2), boundaries.get(3))
+                .from(TICKETTYPES)
+                .where(TICKETTYPES.EVENT_ID.in(eventIDs))
+                .groupBy(TICKETTYPES.EVENT_ID)
+                .fetch()
+                .forEach(record -> {
+                    long validUntil = boundaries.stream()
+                            .map(record::get)
+                            .filter(Objects::nonNull)
+                            .mapToLong(boundary -> boundary.toInstant().toEpochMilli())
+                            .reduce(expiresAt, Math::min);
+
+                    if (record.get(ticketCount) == 0) {
+                        summaries.put(record.get(TICKETTYPES.EVENT_ID), new PriceSummary(null, null, validUntil));
+                        return;
+                    }
+
+                    String price;
+                    if (Boolean.TRUE.equals(record.get(allFree))) {
+                        price = "Free";
+                    } else if (Boolean.TRUE.equals(record.get(hasFree))) {
+                        price = "0.0";
+                    } else {
+                        price = record.get(minPrice).toString();
+                    }
+                    JSONB[] currency = record.get(currencies);
+                    summaries.put(record.get(TICKETTYPES.EVENT_ID), new PriceSummary(price,
+                            currency != null && currency.length > 0 ? currency[0] : null, validUntil));
+                });
+        return summaries;
+    }
+}
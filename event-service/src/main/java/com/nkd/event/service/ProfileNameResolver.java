@@ -0,0 +1,143 @@
+package com.nkd.event.service;
+
+import com.nkd.event.client.AccountClient;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class ProfileNameResolver {
+
+    public static final String INVALIDATION_CHANNEL = "profile-name-changed";
+
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final int MAX_ENTRIES = 50_000;
+    private static final long BATCH_WINDOW_MILLIS = 5;
+    private static final int MAX_BATCH_SIZE = 200;
+    private static final long LOOKUP_TIMEOUT_MILLIS = 3000;
+
+    private final AccountClient accountClient;
+    private final Map<Integer, CachedName> cache = new ConcurrentHashMap<>();
+    private final Map<Integer, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean batchScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService batchScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("profile-name-batch").factory());
+
+    public ProfileNameResolver(AccountClient accountClient, RedisMessageListenerContainer listenerContainer) {
+        this.accountClient = accountClient;
+        listenerContainer.addMessageListener((message, pattern) -> invalidate(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public Map<Integer, String> resolve(Collection<Integer> profileIDs) {
+        long now = System.currentTimeMillis();
+        Map<Integer, String> names = new HashMap<>();
+        Map<Integer, CompletableFuture<String>> lookups = new HashMap<>();
+
+        for (Integer profileID : new HashSet<>(profileIDs)) {
+            if (profileID == null) {
+                continue;
+            }
+            CachedName cached = cache.get(profileID);
+            if (cached != null && cached.expiresAt() > now) {
+                names.put(profileID, cached.name());
+            } else {
+                lookups.put(profileID, enqueue(profileID));
+            }
+        }
+
+        lookups.forEach((profileID, lookup) -> {
+            try {
+                names.put(profileID, lookup.get(LOOKUP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("Failed to resolve profile name for {}: {}", profileID, e.getMessage());
+            }
+        });
+        return names;
+    }
+
+    public String resolve(Integer profileID) {
+        return resolve(List.of(profileID)).get(profileID);
+    }
+
+    public void invalidate(String profileID) {
+        try {
+            cache.remove(Integer.valueOf(profileID.trim()));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring invalid profile name invalidation: {}", profileID);
+        }
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(cached -> cached.expiresAt() <= now);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchScheduler.shutdown();
+    }
+
+    private CompletableFuture<String> enqueue(Integer profileID) {
+        CompletableFuture<String> lookup = pending.computeIfAbsent(profileID, id -> new CompletableFuture<>());
+        if (batchScheduled.compareAndSet(false, true)) {
+            batchScheduler.schedule(this::flushBatch, BATCH_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return lookup;
+    }
+
+    private void flushBatch() {
+        batchScheduled.set(false);
+
+        Map<Integer, CompletableFuture<String>> batch = new HashMap<>();
+        for (Integer profileID : List.copyOf(pending.keySet())) {
+            CompletableFuture<String> lookup = pending.remove(profileID);
+            if (lookup != null) {
+                batch.put(profileID, lookup);
+            }
+        }
+
+        List<Integer> profileIDs = new ArrayList<>(batch.keySet());
+        for (int from = 0; from < profileIDs.size(); from += MAX_BATCH_SIZE) {
+            List<Integer> chunk = profileIDs.subList(from, Math.min(from + MAX_BATCH_SIZE, profileIDs.size()));
+            Thread.ofVirtual().start(() -> fetch(chunk, batch));
+        }
+    }
+
+    private void fetch(List<Integer> profileIDs, Map<Integer, CompletableFuture<String>> batch) {
+        try {
+            Map<Integer, String> names = Optional.ofNullable(accountClient.getListProfileName(profileIDs.stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(",")))).orElse(Map.of());
+
+            long expiresAt = System.currentTimeMillis() + TTL_MILLIS;
+            if (cache.size() + profileIDs.size() > MAX_ENTRIES) {
+                evictExpired();
+            }
+            for (Integer profileID : profileIDs) {
+                String name = names.get(profileID);
+                if (cache.size() < MAX_ENTRIES) {
+                    cache.put(profileID, new CachedName(name, expiresAt));
+                }
+                batch.get(profileID).complete(name);
+            }
+        } catch (Exception e) {
+            profileIDs.forEach(profileID -> batch.get(profileID).completeExceptionally(e));
+        }
+    }
+
+    private record CachedName(String name, long expiresAt) {}
+}
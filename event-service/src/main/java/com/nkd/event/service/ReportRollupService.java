@@ -0,0 +1,350 @@
+package com.nkd.event.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.InsertValuesStep6;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.nkd.event.Tables.*;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportRollupService {
+
+    private static final Table<?> REPORT_ROLLUPS = DSL.table(DSL.name("report_rollups"));
+    private static final Table<?> REPORT_ROLLUP_BUYERS = DSL.table(DSL.name("report_rollup_buyers"));
+    private static final Field<UUID> EVENT_ID = DSL.field(DSL.name("event_id"), SQLDataType.UUID.nullable(false));
+    private static final Field<LocalDate> DAY = DSL.field(DSL.name("day"), SQLDataType.LOCALDATE.nullable(false));
+    private static final Field<BigDecimal> REVENUE = DSL.field(DSL.name("revenue"), SQLDataType.NUMERIC.nullable(false));
+    private static final Field<Long> TICKETS_SOLD = DSL.field(DSL.name("tickets"), SQLDataType.BIGINT.nullable(false));
+    private static final Field<Long> VIEWS = DSL.field(DSL.name("views"), SQLDataType.BIGINT.nullable(false));
+    private static final Field<Long> LIKES = DSL.field(DSL.name("likes"), SQLDataType.BIGINT.nullable(false));
+    private static final Field<Integer> BUYER_PROFILE_ID = DSL.field(DSL.name("profile_id"), SQLDataType.INTEGER.nullable(false));
+
+    private static final String ROLLED_FROM = "report-rollup-from";
+    private static final String ROLLED_TO = "report-rollup-to";
+    private static final String EARLIEST_DAY = "report-rollup-earliest";
+    private static final String LOCK = "report-rollup-lock";
+    private static final int BACKFILL_DAYS = 30;
+    private static final int MAX_CATCH_UP_DAYS = 60;
+    private static final int BATCH_SIZE = 1000;
+
+    private final DSLContext context;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public record DailyRollup(BigDecimal revenue, long tickets, long views, long likes) {
+
+        private DailyRollup plus(DailyRollup other) {
+            return new DailyRollup(revenue.add(other.revenue), tickets + other.tickets, views + other.views, likes + other.likes);
+        }
+    }
+
+    private record RolledRange(LocalDate from, LocalDate to) {
+
+        private OffsetDateTime start() {
+            return from.atStartOfDay(ZoneOffset.UTC).toOffsetDateTime();
+        }
+
+        private OffsetDateTime end() {
+            return to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toOffsetDateTime();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        context.createTableIfNotExists(REPORT_ROLLUPS)
+                .columns(EVENT_ID, DAY, REVENUE, TICKETS_SOLD, VIEWS, LIKES)
+                .primaryKey(EVENT_ID, DAY)
+                .execute();
+        context.createTableIfNotExists(REPORT_ROLLUP_BUYERS)
+                .columns(EVENT_ID, DAY, BUYER_PROFILE_ID)
+                .primaryKey(EVENT_ID, DAY, BUYER_PROFILE_ID)
+                .execute();
+    }
+
+    public Map<UUID, Map<LocalDate, DailyRollup>> getRollups(List<UUID> eventIDs, OffsetDateTime startTime, OffsetDateTime endTime) {
+        Map<UUID, Map<LocalDate, DailyRollup>> rollups = new HashMap<>();
+        RolledRange rolled = rolledRange(startTime, endTime);
+        if (rolled == null) {
+            merge(rollups, compute(eventIDs, startTime, endTime, true));
+            return rollups;
+        }
+
+        if (startTime.isBefore(rolled.start())) {
+            merge(rollups, compute(eventIDs, startTime, rolled.start(), false));
+        }
+        merge(rollups, read(eventIDs, rolled.from(), rolled.to()));
+        if (!endTime.isBefore(rolled.end())) {
+            merge(rollups, compute(eventIDs, rolled.end(), endTime, true));
+        }
+        return rollups;
+    }
+
+    // Distinct buyers per day across all the given events, so a buyer of two of them on one day counts once.
+    public Map<LocalDate, Long> getBuyers(List<UUID> eventIDs, OffsetDateTime startTime, OffsetDateTime endTime) {
+        RolledRange rolled = rolledRange(startTime, endTime);
+        if (rolled == null) {
+            return computeBuyers(eventIDs, startTime, endTime, true);
+        }
+
+        Map<LocalDate, Long> buyers = new HashMap<>();
+        if (startTime.isBefore(rolled.start())) {
+            buyers.putAll(computeBuyers(eventIDs, startTime, rolled.start(), false));
+        }
+        context.select(DAY, DSL.countDistinct(BUYER_PROFILE_ID))
+                .from(REPORT_ROLLUP_BUYERS)
+                .where(EVENT_ID.in(eventIDs).and(DAY.between(rolled.from(), rolled.to())))
+                .groupBy(DAY)
+                .fetch()
+                .forEach(record -> buyers.put(record.value1(), record.value2().longValue()));
+        if (!endTime.isBefore(rolled.end())) {
+            buyers.putAll(computeBuyers(eventIDs, rolled.end(), endTime, true));
+        }
+        return buyers;
+    }
+
+    @Scheduled(cron = "0 20 0 * * *", zone = "UTC")
+    public void rollYesterday() {
+        LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        withLock(() -> {
+            LocalDate rolledTo = readDay(ROLLED_TO);
+            LocalDate from = rolledTo == null ? yesterday.minusDays(1) : rolledTo.minusDays(1);
+            boolean clamped = from.isBefore(yesterday.minusDays(MAX_CATCH_UP_DAYS));
+            if (clamped) {
+                log.warn("Report rollups are {} days behind, rolling the last {} days only", yesterday.toEpochDay() - from.toEpochDay(),
+                        MAX_CATCH_UP_DAYS);
+                from = yesterday.minusDays(MAX_CATCH_UP_DAYS);
+            }
+
+            roll(from, yesterday);
+            redisTemplate.opsForValue().set(ROLLED_TO, yesterday.toString());
+            // Skipped days would otherwise read as empty rollups; moving the start forward hands them to backfill().
+            if (clamped || readDay(ROLLED_FROM) == null) {
+                redisTemplate.opsForValue().set(ROLLED_FROM, from.toString());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelay = 1, initialDelay = 2, timeUnit = TimeUnit.MINUTES)
+    public void backfill() {
+        LocalDate rolledFrom = readDay(ROLLED_FROM);
+        if (rolledFrom == null) {
+            rollYesterday();
+            return;
+        }
+
+        LocalDate earliest = earliestDay();
+        if (earliest == null || !rolledFrom.isAfter(earliest)) {
+            return;
+        }
+
+        withLock(() -> {
+            LocalDate current = readDay(ROLLED_FROM);
+            if (current == null || !current.isAfter(earliest)) {
+                return;
+            }
+            LocalDate from = Collections.max(List.of(earliest, current.minusDays(BACKFILL_DAYS)));
+            roll(from, current.minusDays(1));
+            redisTemplate.opsForValue().set(ROLLED_FROM, from.toString());
+            log.info("Backfilled report rollups from {} to {}", from, current.minusDays(1));
+        });
+    }
+
+    private RolledRange rolledRange(OffsetDateTime startTime, OffsetDateTime endTime) {
+        LocalDate rolledFrom = readDay(ROLLED_FROM);
+        LocalDate rolledTo = readDay(ROLLED_TO);
+        if (rolledFrom == null || rolledTo == null) {
+            return null;
+        }
+
+        LocalDate firstFullDay = startTime.atZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+        if (firstFullDay.atStartOfDay(ZoneOffset.UTC).toOffsetDateTime().isBefore(startTime)) {
+            firstFullDay = firstFullDay.plusDays(1);
+        }
+        LocalDate lastFullDay = endTime.atZoneSameInstant(ZoneOffset.UTC).toLocalDate().minusDays(1);
+
+        LocalDate from = Collections.max(List.of(firstFullDay, rolledFrom));
+        LocalDate to = Collections.min(List.of(lastFullDay, rolledTo));
+        return from.isAfter(to) ? null : new RolledRange(from, to);
+    }
+
+    private void roll(LocalDate from, LocalDate to) {
+        OffsetDateTime start = from.atStartOfDay(ZoneOffset.UTC).toOffsetDateTime();
+        OffsetDateTime end = to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toOffsetDateTime();
+        Map<UUID, Map<LocalDate, DailyRollup>> rollups = compute(null, start, end, false);
+        Field<LocalDate> orderDay = utcDay(ORDERS.CREATED_AT);
+
+        context.transaction(configuration -> {
+            DSLContext transaction = DSL.using(configuration);
+            transaction.deleteFrom(REPORT_ROLLUPS).where(DAY.between(from, to)).execute();
+            int count = 0;
+            InsertValuesStep6<?, UUID, LocalDate, BigDecimal, Long, Long, Long> batch = null;
+            for (var event : rollups.entrySet()) {
+                for (var day : event.getValue().entrySet()) {
+                    if (batch == null) {
+                        batch = transaction.insertInto(REPORT_ROLLUPS, EVENT_ID, DAY, REVENUE, TICKETS_SOLD, VIEWS, LIKES);
+                    }
+                    DailyRollup rollup = day.getValue();
+                    batch = batch.values(event.getKey(), day.getKey(), rollup.revenue(), rollup.tickets(), rollup.views(), rollup.likes());
+                    if (++count % BATCH_SIZE == 0) {
+                        batch.execute();
+                        batch = null;
+                    }
+                }
+            }
+            if (batch != null) {
+                batch.execute();
+            }
+
+            transaction.deleteFrom(REPORT_ROLLUP_BUYERS).where(DAY.between(from, to)).execute();
+            transaction.insertInto(REPORT_ROLLUP_BUYERS, EVENT_ID, DAY, BUYER_PROFILE_ID)
+                    .select(DSL.selectDistinct(ORDERS.EVENT_ID, orderDay, ORDERS.PROFILE_ID)
+                            .from(ORDERS)
+                            .join(ORDERITEMS).on(ORDERS.ORDER_ID.eq(ORDERITEMS.ORDER_ID))
+                            .where(range(ORDERS.CREATED_AT, start, end, false).and(ORDERS.PROFILE_ID.isNotNull())))
+                    .execute();
+        });
+    }
+
+    private Map<UUID, Map<LocalDate, DailyRollup>> read(List<UUID> eventIDs, LocalDate from, LocalDate to) {
+        Map<UUID, Map<LocalDate, DailyRollup>> rollups = new HashMap<>();
+        context.select(EVENT_ID, DAY, REVENUE, TICKETS_SOLD, VIEWS, LIKES)
+                .from(REPORT_ROLLUPS)
+                .where(EVENT_ID.in(eventIDs).and(DAY.between(from, to)))
+                .fetch()
+                .forEach(record -> add(rollups, record.value1(), record.value2(),
+                        new DailyRollup(record.value3(), record.value4(), record.value5(), record.value6())));
+        return rollups;
+    }
+
+    private Map<UUID, Map<LocalDate, DailyRollup>> compute(List<UUID> eventIDs, OffsetDateTime from, OffsetDateTime to,
+                                                          boolean inclusiveEnd) {
+        Map<UUID, Map<LocalDate, DailyRollup>> rollups = new HashMap<>();
+        Field<LocalDate> orderDay = utcDay(ORDERS.CREATED_AT);
+        Field<LocalDate> viewDay = utcDay(EVENTVIEWS.VIEW_DATE);
+        Field<LocalDate> likeDay = utcDay(LIKEDEVENTS.LIKED_AT);
+
+        context.select(ORDERS.EVENT_ID, orderDay, DSL.sum(PAYMENTS.AMOUNT))
+                .from(ORDERS)
+                .join(PAYMENTS).on(ORDERS.PAYMENT_ID.eq(PAYMENTS.PAYMENT_ID))
+                .where(range(ORDERS.CREATED_AT, from, to, inclusiveEnd).and(events(ORDERS.EVENT_ID, eventIDs)))
+                .groupBy(ORDERS.EVENT_ID, orderDay)
+                .fetch()
+                .forEach(record -> add(rollups, record.value1(), record.value2(),
+                        new DailyRollup(Objects.requireNonNullElse(record.value3(), BigDecimal.ZERO), 0, 0, 0)));
+
+        context.select(ORDERS.EVENT_ID, orderDay, DSL.sum(ORDERITEMS.QUANTITY))
+                .from(ORDERS)
+                .join(ORDERITEMS).on(ORDERS.ORDER_ID.eq(ORDERITEMS.ORDER_ID))
+                .where(range(ORDERS.CREATED_AT, from, to, inclusiveEnd).and(events(ORDERS.EVENT_ID, eventIDs)))
+                .groupBy(ORDERS.EVENT_ID, orderDay)
+                .fetch()
+                .forEach(record -> add(rollups, record.value1(), record.value2(),
+                        new DailyRollup(BigDecimal.ZERO, record.value3() == null ? 0 : record.value3().longValue(), 0, 0)));
+
+        context.select(EVENTVIEWS.EVENT_ID, viewDay, DSL.count(EVENTVIEWS.VIEW_ID))
+                .from(EVENTVIEWS)
+                .where(range(EVENTVIEWS.VIEW_DATE, from, to, inclusiveEnd).and(events(EVENTVIEWS.EVENT_ID, eventIDs)))
+                .groupBy(EVENTVIEWS.EVENT_ID, viewDay)
+                .fetch()
+                .forEach(record -> add(rollups, record.value1(), record.value2(),
+                        new DailyRollup(BigDecimal.ZERO, 0, record.value3(), 0)));
+
+        context.select(LIKEDEVENTS.EVENT_ID, likeDay, DSL.count(LIKEDEVENTS.LIKED_AT))
+                .from(LIKEDEVENTS)
+                .where(range(LIKEDEVENTS.LIKED_AT, from, to, inclusiveEnd).and(events(LIKEDEVENTS.EVENT_ID, eventIDs)))
+                .groupBy(LIKEDEVENTS.EVENT_ID, likeDay)
+                .fetch()
+                .forEach(record -> add(rollups, record.value1(), record.value2(),
+                        new DailyRollup(BigDecimal.ZERO, 0, 0, record.value3())));
+
+        return rollups;
+    }
+
+    private Map<LocalDate, Long> computeBuyers(List<UUID> eventIDs, OffsetDateTime from, OffsetDateTime to, boolean inclusiveEnd) {
+        Field<LocalDate> orderDay = utcDay(ORDERS.CREATED_AT);
+        Map<LocalDate, Long> buyers = new HashMap<>();
+        context.select(orderDay, DSL.countDistinct(ORDERS.PROFILE_ID))
+                .from(ORDERS)
+                .join(ORDERITEMS).on(ORDERS.ORDER_ID.eq(ORDERITEMS.ORDER_ID))
+                .where(range(ORDERS.CREATED_AT, from, to, inclusiveEnd).and(events(ORDERS.EVENT_ID, eventIDs)))
+                .groupBy(orderDay)
+                .fetch()
+                .forEach(record -> buyers.put(record.value1(), record.value2().longValue()));
+        return buyers;
+    }
+
+    private LocalDate earliestDay() {
+        LocalDate cached = readDay(EARLIEST_DAY);
+        if (cached != null) {
+            return cached;
+        }
+
+        LocalDate earliest = Stream.of(
+                        context.select(DSL.min(ORDERS.CREATED_AT)).from(ORDERS).fetchOne(0, OffsetDateTime.class),
+                        context.select(DSL.min(EVENTVIEWS.VIEW_DATE)).from(EVENTVIEWS).fetchOne(0, OffsetDateTime.class),
+                        context.select(DSL.min(LIKEDEVENTS.LIKED_AT)).from(LIKEDEVENTS).fetchOne(0, OffsetDateTime.class))
+                .filter(Objects::nonNull)
+                .map(time -> time.atZoneSameInstant(ZoneOffset.UTC).toLocalDate())
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+        if (earliest != null) {
+            redisTemplate.opsForValue().set(EARLIEST_DAY, earliest.toString());
+        }
+        return earliest;
+    }
+
+    private void withLock(Runnable task) {
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK, "1", Duration.ofMinutes(10)))) {
+            return;
+        }
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.error("Error rolling up organizer reports: {}", e.getMessage());
+        } finally {
+            redisTemplate.delete(LOCK);
+        }
+    }
+
+    private LocalDate readDay(String key) {
+        String value = redisTemplate.opsForValue().get(key);
+        return value == null ? null : LocalDate.parse(value);
+    }
+
+    private static void merge(Map<UUID, Map<LocalDate, DailyRollup>> target, Map<UUID, Map<LocalDate, DailyRollup>> source) {
+        source.forEach((eventID, days) -> days.forEach((day, rollup) -> add(target, eventID, day, rollup)));
+    }
+
+    private static void add(Map<UUID, Map<LocalDate, DailyRollup>> rollups, UUID eventID, LocalDate day, DailyRollup rollup) {
+        rollups.computeIfAbsent(eventID, id -> new HashMap<>()).merge(day, rollup, DailyRollup::plus);
+    }
+
+    private static Field<LocalDate> utcDay(Field<OffsetDateTime> column) {
+        return DSL.field("({0} at time zone 'UTC')::date", SQLDataType.LOCALDATE, column);
+    }
+
+    private static Condition range(Field<OffsetDateTime> column, OffsetDateTime from, OffsetDateTime to, boolean inclusiveEnd) {
+        return column.ge(from).and(inclusiveEnd ? column.le(to) : column.lt(to));
+    }
+
+    private static Condition events(Field<UUID> column, List<UUID> eventIDs) {
+        return eventIDs == null ? DSL.noCondition() : column.in(eventIDs);
+    }
+}
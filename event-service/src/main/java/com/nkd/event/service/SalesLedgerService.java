@@ -0,0 +1,300 @@
+package com.nkd.event.service;
+
+import com.nkd.event.event.EventOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+import static com.nkd.event.Tables.*;
+
+@Slf4j
+@Service
+public class SalesLedgerService {
+
+    private static final Table<?> SALES_LEDGER = DSL.table(DSL.name("sales_ledger"));
+    private static final Table<?> SALES_LEDGER_GROSS = DSL.table(DSL.name("sales_ledger_gross"));
+    private static final Table<?> SALES_LEDGER_EVENTS = DSL.table(DSL.name("sales_ledger_events"));
+    private static final Field<UUID> EVENT_ID = DSL.field(DSL.name("event_id"), SQLDataType.UUID.nullable(false));
+    private static final Field<Integer> TICKET_TYPE_ID = DSL.field(DSL.name("ticket_type_id"), SQLDataType.INTEGER.nullable(false));
+    private static final Field<Long> SOLD = DSL.field(DSL.name("sold"), SQLDataType.BIGINT.nullable(false).defaultValue(0L));
+    private static final Field<BigDecimal> REVENUE = DSL.field(DSL.name("revenue"), SQLDataType.NUMERIC(14, 2).nullable(false).defaultValue(BigDecimal.ZERO));
+    private static final Field<Long> REFUNDED = DSL.field(DSL.name("refunded"), SQLDataType.BIGINT.nullable(false).defaultValue(0L));
+    private static final Field<BigDecimal> REFUNDED_REVENUE = DSL.field(DSL.name("refunded_revenue"), SQLDataType.NUMERIC(14, 2).nullable(false).defaultValue(BigDecimal.ZERO));
+    private static final Field<String> CURRENCY = DSL.field(DSL.name("currency"), SQLDataType.VARCHAR(16).nullable(false));
+    private static final Field<BigDecimal> GROSS = DSL.field(DSL.name("gross"), SQLDataType.NUMERIC(14, 2).nullable(false).defaultValue(BigDecimal.ZERO));
+    private static final Field<OffsetDateTime> BUILT_AT = DSL.field(DSL.name("built_at"), SQLDataType.TIMESTAMPWITHTIMEZONE.nullable(false));
+    private static final Field<OffsetDateTime> UPDATED_AT = DSL.field(DSL.name("updated_at"), SQLDataType.TIMESTAMPWITHTIMEZONE.nullable(false));
+
+    // Ledgers untouched for this long belong to finished events and are no longer verified nightly.
+    private static final Duration VERIFY_WINDOW = Duration.ofDays(14);
+
+    private final DSLContext context;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Counter drift;
+
+    public SalesLedgerService(DSLContext context, RedisTemplate<String, String> redisTemplate, MeterRegistry meterRegistry) {
+        this.context = context;
+        this.redisTemplate = redisTemplate;
+        this.drift = Counter.builder("sales.ledger.drift")
+                .description("Sales ledgers that differed from the source tables during verification")
+                .register(meterRegistry);
+    }
+
+    public record TicketSales(long sold, BigDecimal revenue, long refunded, BigDecimal refundedRevenue) {
+
+        private static final TicketSales EMPTY = new TicketSales(0, amount(null), 0, amount(null));
+    }
+
+    public record EventSales(Map<Integer, TicketSales> tickets, Map<String, BigDecimal> gross) {
+
+        private static final EventSales EMPTY = new EventSales(Map.of(), Map.of());
+
+        public TicketSales ticket(Integer ticketTypeID) {
+            return tickets.getOrDefault(ticketTypeID, TicketSales.EMPTY);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        context.createTableIfNotExists(SALES_LEDGER_EVENTS)
+                .columns(EVENT_ID, BUILT_AT, UPDATED_AT)
+                .primaryKey(EVENT_ID)
+                .execute();
+        context.createTableIfNotExists(SALES_LEDGER)
+                .columns(EVENT_ID, TICKET_TYPE_ID, SOLD, REVENUE, REFUNDED, REFUNDED_REVENUE)
+                .primaryKey(EVENT_ID, TICKET_TYPE_ID)
+                .execute();
+        context.createTableIfNotExists(SALES_LEDGER_GROSS)
+                .columns(EVENT_ID, CURRENCY, GROSS)
+                .primaryKey(EVENT_ID, CURRENCY)
+                .execute();
+    }
+
+    public EventSales getSales(UUID eventID) {
+        return getSales(List.of(eventID)).getOrDefault(eventID, EventSales.EMPTY);
+    }
+
+    public Map<UUID, EventSales> getSales(Collection<UUID> eventIDs) {
+        if (eventIDs.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<UUID> missing = new LinkedHashSet<>(eventIDs);
+        missing.removeAll(context.select(EVENT_ID).from(SALES_LEDGER_EVENTS).where(EVENT_ID.in(eventIDs)).fetchSet(EVENT_ID));
+        missing.forEach(eventID -> store(eventID, compute(eventID)));
+
+        Map<UUID, Map<Integer, TicketSales>> tickets = new HashMap<>();
+        context.select(EVENT_ID, TICKET_TYPE_ID, SOLD, REVENUE, REFUNDED, REFUNDED_REVENUE)
+                .from(SALES_LEDGER)
+                .where(EVENT_ID.in(eventIDs))
+                .fetch()
+                .forEach(record -> tickets.computeIfAbsent(record.value1(), id -> new HashMap<>()).put(record.value2(),
+                        new TicketSales(record.value3(), amount(record.value4()), record.value5(), amount(record.value6()))));
+
+        Map<UUID, Map<String, BigDecimal>> gross = new HashMap<>();
+        context.select(EVENT_ID, CURRENCY, GROSS)
+                .from(SALES_LEDGER_GROSS)
+                .where(EVENT_ID.in(eventIDs))
+                .fetch()
+                .forEach(record -> gross.computeIfAbsent(record.value1(), id -> new HashMap<>()).put(record.value2(), amount(record.value3())));
+
+        Map<UUID, EventSales> sales = new HashMap<>();
+        for (UUID eventID : new LinkedHashSet<>(eventIDs)) {
+            sales.put(eventID, new EventSales(tickets.getOrDefault(eventID, Map.of()), gross.getOrDefault(eventID, Map.of())));
+        }
+        return sales;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true,
+            condition = "#operation.type == T(com.nkd.event.enumeration.EventOperationType).SALE")
+    public void onSale(EventOperation operation) {
+        applyOrder((Integer) operation.getData().get("orderID"), false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true,
+            condition = "#operation.type == T(com.nkd.event.enumeration.EventOperationType).CANCEL")
+    public void onCancel(EventOperation operation) {
+        applyOrder((Integer) operation.getData().get("orderID"), true);
+    }
+
+    @Scheduled(cron = "0 30 3 * * *", zone = "UTC")
+    public void verify() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue()
+                .setIfAbsent("sales-ledger-verify-" + today, "1", Duration.ofDays(2)))) {
+            return;
+        }
+
+        List<UUID> eventIDs = context.select(EVENT_ID)
+                .from(SALES_LEDGER_EVENTS)
+                .where(UPDATED_AT.gt(OffsetDateTime.now().minus(VERIFY_WINDOW)))
+                .fetch(EVENT_ID);
+        int drifted = 0;
+        for (UUID eventID : eventIDs) {
+            try {
+                EventSales recorded = getSales(eventID);
+                EventSales source = compute(eventID);
+                if (!recorded.equals(source)) {
+                    drifted++;
+                    drift.increment();
+                    log.warn("Sales ledger for event {} drifted from source, ledger {} source {}", eventID, recorded, source);
+                    store(eventID, source);
+                }
+            } catch (RuntimeException e) {
+                log.error("Error verifying sales ledger for event {}: {}", eventID, e.getMessage());
+            }
+        }
+        log.info("Verified {} sales ledgers, {} drifted", eventIDs.size(), drifted);
+    }
+
+    private void applyOrder(Integer orderID, boolean refund) {
+        if (orderID == null) {
+            return;
+        }
+
+        try {
+            var order = context.select(ORDERS.EVENT_ID, PAYMENTS.CURRENCY, PAYMENTS.AMOUNT)
+                    .from(ORDERS).leftJoin(PAYMENTS).on(ORDERS.PAYMENT_ID.eq(PAYMENTS.PAYMENT_ID))
+                    .where(ORDERS.ORDER_ID.eq(orderID))
+                    .fetchOne();
+            if (order == null) {
+                return;
+            }
+            UUID eventID = order.get(ORDERS.EVENT_ID);
+
+            Field<BigDecimal> quantity = DSL.sum(ORDERITEMS.QUANTITY);
+            Field<BigDecimal> revenue = DSL.sum(TICKETTYPES.PRICE.mul(ORDERITEMS.QUANTITY));
+            var lines = context.select(TICKETS.TICKET_TYPE_ID, quantity, revenue)
+                    .from(TICKETS)
+                    .join(ORDERITEMS).on(TICKETS.ORDER_ITEM_ID.eq(ORDERITEMS.ORDER_ITEM_ID))
+                    .join(TICKETTYPES).on(TICKETS.TICKET_TYPE_ID.eq(TICKETTYPES.TICKET_TYPE_ID))
+                    .where(ORDERITEMS.ORDER_ID.eq(orderID))
+                    .groupBy(TICKETS.TICKET_TYPE_ID)
+                    .fetch();
+
+            // Deltas only apply to a ledger that was already built from the source tables;
+            // a missing ledger is built in full on its next read instead.
+            context.transaction(configuration -> {
+                DSLContext tx = configuration.dsl();
+                if (tx.update(SALES_LEDGER_EVENTS).set(UPDATED_AT, OffsetDateTime.now()).where(EVENT_ID.eq(eventID)).execute() == 0) {
+                    return;
+                }
+
+                for (var line : lines) {
+                    long sold = line.get(quantity) == null ? 0 : line.get(quantity).longValue();
+                    BigDecimal amount = amount(line.get(revenue));
+                    Integer ticketTypeID = line.get(TICKETS.TICKET_TYPE_ID);
+                    tx.insertInto(SALES_LEDGER, EVENT_ID, TICKET_TYPE_ID).values(eventID, ticketTypeID)
+                            .onConflictDoNothing()
+                            .execute();
+                    var update = tx.update(SALES_LEDGER)
+                            .set(SOLD, refund ? SOLD.minus(sold) : SOLD.plus(sold))
+                            .set(REVENUE, refund ? REVENUE.minus(amount) : REVENUE.plus(amount));
+                    if (refund) {
+                        update = update.set(REFUNDED, REFUNDED.plus(sold)).set(REFUNDED_REVENUE, REFUNDED_REVENUE.plus(amount));
+                    }
+                    update.where(EVENT_ID.eq(eventID).and(TICKET_TYPE_ID.eq(ticketTypeID))).execute();
+                }
+
+                if (order.get(PAYMENTS.CURRENCY) != null && order.get(PAYMENTS.AMOUNT) != null) {
+                    BigDecimal gross = amount(order.get(PAYMENTS.AMOUNT));
+                    tx.insertInto(SALES_LEDGER_GROSS, EVENT_ID, CURRENCY).values(eventID, order.get(PAYMENTS.CURRENCY))
+                            .onConflictDoNothing()
+                            .execute();
+                    tx.update(SALES_LEDGER_GROSS)
+                            .set(GROSS, refund ? GROSS.minus(gross) : GROSS.plus(gross))
+                            .where(EVENT_ID.eq(eventID).and(CURRENCY.eq(order.get(PAYMENTS.CURRENCY))))
+                            .execute();
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Error applying order {} to sales ledger: {}", orderID, e.getMessage());
+        }
+    }
+
+    private EventSales compute(UUID eventID) {
+        Field<BigDecimal> sold = DSL.sum(DSL.when(ORDERS.STATUS.eq("paid"), ORDERITEMS.QUANTITY).otherwise(0));
+        Field<BigDecimal> revenue = DSL.sum(DSL.when(ORDERS.STATUS.eq("paid"), TICKETTYPES.PRICE.mul(ORDERITEMS.QUANTITY))
+                .otherwise(BigDecimal.ZERO));
+        Field<BigDecimal> refunded = DSL.sum(DSL.when(ORDERS.STATUS.eq("cancelled"), ORDERITEMS.QUANTITY).otherwise(0));
+        Field<BigDecimal> refundedRevenue = DSL.sum(DSL.when(ORDERS.STATUS.eq("cancelled"), TICKETTYPES.PRICE.mul(ORDERITEMS.QUANTITY))
+                .otherwise(BigDecimal.ZERO));
+
+        Map<Integer, TicketSales> tickets = new HashMap<>();
+        context.select(TICKETTYPES.TICKET_TYPE_ID, sold, revenue, refunded, refundedRevenue)
+                .from(TICKETTYPES)
+                .leftJoin(TICKETS).on(TICKETS.TICKET_TYPE_ID.eq(TICKETTYPES.TICKET_TYPE_ID))
+                .leftJoin(ORDERITEMS).on(TICKETS.ORDER_ITEM_ID.eq(ORDERITEMS.ORDER_ITEM_ID))
+                .leftJoin(ORDERS).on(ORDERITEMS.ORDER_ID.eq(ORDERS.ORDER_ID))
+                .where(TICKETTYPES.EVENT_ID.eq(eventID))
+                .groupBy(TICKETTYPES.TICKET_TYPE_ID)
+                .fetch()
+                .forEach(record -> tickets.put(record.value1(), new TicketSales(count(record.value2()), amount(record.value3()),
+                        count(record.value4()), amount(record.value5()))));
+
+        Map<String, BigDecimal> gross = new HashMap<>();
+        context.select(PAYMENTS.CURRENCY, DSL.sum(PAYMENTS.AMOUNT))
+                .from(ORDERS).join(PAYMENTS).on(ORDERS.PAYMENT_ID.eq(PAYMENTS.PAYMENT_ID))
+                .where(ORDERS.STATUS.eq("paid").and(ORDERS.EVENT_ID.eq(eventID)))
+                .groupBy(PAYMENTS.CURRENCY)
+                .fetch()
+                .forEach(record -> gross.put(record.value1(), amount(record.value2())));
+
+        return new EventSales(tickets, gross);
+    }
+
+    private void store(UUID eventID, EventSales sales) {
+        context.transaction(configuration -> {
+            DSLContext tx = configuration.dsl();
+            OffsetDateTime now = OffsetDateTime.now();
+            tx.insertInto(SALES_LEDGER_EVENTS, EVENT_ID, BUILT_AT, UPDATED_AT).values(eventID, now, now)
+                    .onConflict(EVENT_ID).doUpdate().set(BUILT_AT, now).set(UPDATED_AT, now)
+                    .execute();
+
+            tx.deleteFrom(SALES_LEDGER).where(EVENT_ID.eq(eventID)).execute();
+            if (!sales.tickets().isEmpty()) {
+                var insert = tx.insertInto(SALES_LEDGER, EVENT_ID, TICKET_TYPE_ID, SOLD, REVENUE, REFUNDED, REFUNDED_REVENUE);
+                for (var ticket : sales.tickets().entrySet()) {
+                    TicketSales line = ticket.getValue();
+                    insert = insert.values(eventID, ticket.getKey(), line.sold(), line.revenue(), line.refunded(), line.refundedRevenue());
+                }
+                insert.execute();
+            }
+
+            tx.deleteFrom(SALES_LEDGER_GROSS).where(EVENT_ID.eq(eventID)).execute();
+            if (!sales.gross().isEmpty()) {
+                var insert = tx.insertInto(SALES_LEDGER_GROSS, EVENT_ID, CURRENCY, GROSS);
+                for (var gross : sales.gross().entrySet()) {
+                    insert = insert.values(eventID, gross.getKey(), gross.getValue());
+                }
+                insert.execute();
+            }
+        });
+    }
+
+    private static long count(BigDecimal value) {
+        return value == null ? 0 : value.longValue();
+    }
+
+    private static BigDecimal amount(BigDecimal value) {
+        return (value == null ? BigDecimal.ZERO : value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -1,23 +1,30 @@
 package com.nkd.event.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nkd.event.dto.Response;
 import com.nkd.event.dto.UserInteraction;
 import com.nkd.event.utils.EventUtils;
+import com.nkd.event.utils.ExportWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jooq.Condition;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
+import org.jooq.Record;
 import org.jooq.Table;
 import org.jooq.impl.DSL;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.nkd.event.Tables.*;
 import static org.jooq.impl.DSL.jsonbGetAttribute;
@@ -27,19 +34,23 @@ import static org.jooq.impl.DSL.jsonbGetAttribute;
 @Slf4j
 public class SearchService {
 
+    private static final int DEFAULT_ORDER_PAGE_SIZE = 50;
+    private static final int MAX_ORDER_PAGE_SIZE = 200;
+    private static final int EXPORT_FETCH_SIZE = 500;
+    private static final List<String> ORDER_EXPORT_FIELDS = List.of("order_id", "created_at", "status", "currency", "amount",
+            "payment_method", "profile_id", "event_id", "name", "start_time", "location");
+    private static final List<String> TICKET_EXPORT_FIELDS = List.of("ticket_id", "ticket_type_id", "ticket_type_name", "quantity",
+            "seat_tier_name", "price", "ticket_currency");
+
     private final DSLContext context;
     private final EventService eventService;
+    private final UserInteractionRecorder userInteractionRecorder;
+    private final SearchTrendService searchTrendService;
+    private final EventSuggestionIndex eventSuggestionIndex;
+    private final ObjectMapper mapper;
 
     public List<Map<String, Object>> getLocalizeSearchTrends(String lat, String lon) {
-        String userLocationPoint = "POINT(" + lon + " " + lat + ")";
-        return context.select(SEARCHHISTORY.SEARCH_TERM, DSL.count())
-                .from(SEARCHHISTORY)
-                .where("st_dwithin(search_location, st_geographyfromtext(?), ?)",userLocationPoint, 5000)
-                .and(SEARCHHISTORY.SEARCH_TIMESTAMP.gt(OffsetDateTime.now().minusMonths(1)))
-                .groupBy(SEARCHHISTORY.SEARCH_TERM)
-                .orderBy(DSL.count().desc())
-                .limit(10)
-                .fetchMaps();
+        return searchTrendService.getTrends(lat, lon);
     }
 
     public List<Map<String, Object>> getSearchHistory(Integer userID) {
@@ -109,13 +120,13 @@ public class SearchService {
     }
 
     public List<Map<String, Object>> getEventSearchSuggestions(String query, Integer type, String lat, String lon, Integer userID) {
-        String userLocationPoint = "POINT(" + lon + " " + lat + ")";
+        searchTrendService.record(query, lat, lon, userID);
 
-        context.insertInto(SEARCHHISTORY).set(SEARCHHISTORY.SEARCH_TERM, query)
-                .set(SEARCHHISTORY.SEARCH_LOCATION, DSL.field("ST_GeographyFromText(?)", String.class, userLocationPoint))
-                .set(SEARCHHISTORY.SEARCH_TIMESTAMP, OffsetDateTime.now())
-                .set(SEARCHHISTORY.USER_ID, userID)
-                .execute();
+        if (eventSuggestionIndex.isReady()) {
+            return eventSuggestionIndex.suggest(query, type, parseCoordinate(lat), parseCoordinate(lon));
+        }
+
+        String userLocationPoint = "POINT(" + lon + " " + lat + ")";
 
         Condition condition = DSL.condition("search_vector @@ to_tsquery(?)", query)
                 .and(EVENTS.START_TIME.gt(OffsetDateTime.now()))
@@ -146,8 +157,121 @@ public class SearchService {
         return new Response(HttpStatus.OK.name(), "Search history deleted successfully", null);
     }
 
-    public List<Map<String, Object>> loadOrders(String query, Integer range, Integer organizerID, String eventID) {
-        Condition condition = DSL.trueCondition();
+    public Map<String, Object> loadOrders(String query, Integer range, Integer organizerID, String eventID, String cursor, Integer size) {
+        int pageSize = Math.clamp(size == null ? DEFAULT_ORDER_PAGE_SIZE : size, 1, MAX_ORDER_PAGE_SIZE);
+        Condition condition = orderCondition(query, range, organizerID, eventID);
+
+        if (cursor != null && !cursor.isBlank()) {
+            OrderCursor after = OrderCursor.decode(cursor);
+            condition = condition.and(DSL.row(ORDERS.CREATED_AT, ORDERS.ORDER_ID).lt(after.createdAt(), after.orderID()));
+        }
+
+        List<Map<String, Object>> orders = context.select(ORDERS.ORDER_ID, ORDERS.CREATED_AT, ORDERS.STATUS, PAYMENTS.CURRENCY, PAYMENTS.AMOUNT, PAYMENTS.PAYMENT_METHOD,
+                        ORDERS.PROFILE_ID, EVENTS.EVENT_ID, EVENTS.NAME, EVENTS.START_TIME, EVENTS.LOCATION)
+                .from(ORDERS)
+                .leftJoin(PAYMENTS).on(ORDERS.PAYMENT_ID.eq(PAYMENTS.PAYMENT_ID))
+                .join(EVENTS).on(ORDERS.EVENT_ID.eq(EVENTS.EVENT_ID))
+                .where(condition)
+                .orderBy(ORDERS.CREATED_AT.desc(), ORDERS.ORDER_ID.desc())
+                .limit(pageSize + 1)
+                .fetchMaps();
+
+        String nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = new ArrayList<>(orders.subList(0, pageSize));
+            Map<String, Object> last = orders.getLast();
+            nextCursor = new OrderCursor((OffsetDateTime) last.get("created_at"), (Integer) last.get("order_id")).encode();
+        }
+
+        Map<Integer, List<Map<String, Object>>> tickets = new HashMap<>();
+        List<Integer> orderIDs = orders.stream().map(order -> (Integer) order.get("order_id")).toList();
+        if (!orderIDs.isEmpty()) {
+            context.select(ORDERITEMS.ORDER_ID, TICKETS.TICKET_ID, TICKETTYPES.NAME, ORDERITEMS.QUANTITY,
+                            SEATTIERS.NAME.as("seat_tier_name"), SEATTIERS.TIER_COLOR, TICKETTYPES.PRICE, TICKETTYPES.CURRENCY,
+                            TICKETTYPES.TICKET_TYPE_ID)
+                    .from(ORDERITEMS)
+                    .join(TICKETS).on(ORDERITEMS.ORDER_ITEM_ID.eq(TICKETS.ORDER_ITEM_ID))
+                    .join(TICKETTYPES).on(TICKETS.TICKET_TYPE_ID.eq(TICKETTYPES.TICKET_TYPE_ID))
+                    .leftJoin(SEATTIERS).on(TICKETTYPES.SEAT_TIER_ID.eq(SEATTIERS.SEAT_TIER_ID))
+                    .where(ORDERITEMS.ORDER_ID.in(orderIDs))
+                    .fetch()
+                    .forEach(record -> {
+                        Map<String, Object> ticket = record.intoMap();
+                        Integer orderID = (Integer) ticket.remove("order_id");
+                        tickets.computeIfAbsent(orderID, id -> new ArrayList<>()).add(ticket);
+                    });
+        }
+        orders.forEach(order -> order.put("tickets", tickets.getOrDefault((Integer) order.get("order_id"), new ArrayList<>())));
+
+        Map<String, Object> page = new HashMap<>();
+        page.put("orders", orders);
+        page.put("next_cursor", nextCursor);
+        return page;
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportOrders(String query, Integer range, Integer organizerID, String eventID, String format) {
+        Condition condition = orderCondition(query, range, organizerID, eventID);
+        ExportWriter.Format exportFormat = ExportWriter.Format.of(format);
+
+        return ExportWriter.attachment("orders", exportFormat, out -> context.transaction(configuration -> {
+            ExportWriter writer = new ExportWriter(out, exportFormat,
+                    Stream.concat(ORDER_EXPORT_FIELDS.stream(), TICKET_EXPORT_FIELDS.stream()).toList(), mapper);
+
+            try (Cursor<? extends Record> rows = configuration.dsl().select(ORDERS.ORDER_ID, ORDERS.CREATED_AT, ORDERS.STATUS, PAYMENTS.CURRENCY,
+                            PAYMENTS.AMOUNT, PAYMENTS.PAYMENT_METHOD, ORDERS.PROFILE_ID, EVENTS.EVENT_ID, EVENTS.NAME, EVENTS.START_TIME,
+                            EVENTS.LOCATION, TICKETS.TICKET_ID, TICKETTYPES.TICKET_TYPE_ID, TICKETTYPES.NAME.as("ticket_type_name"),
+                            ORDERITEMS.QUANTITY, SEATTIERS.NAME.as("seat_tier_name"), TICKETTYPES.PRICE,
+                            TICKETTYPES.CURRENCY.as("ticket_currency"))
+                    .from(ORDERS)
+                    .leftJoin(PAYMENTS).on(ORDERS.PAYMENT_ID.eq(PAYMENTS.PAYMENT_ID))
+                    .join(EVENTS).on(ORDERS.EVENT_ID.eq(EVENTS.EVENT_ID))
+                    .leftJoin(ORDERITEMS).on(ORDERITEMS.ORDER_ID.eq(ORDERS.ORDER_ID))
+                    .leftJoin(TICKETS).on(ORDERITEMS.ORDER_ITEM_ID.eq(TICKETS.ORDER_ITEM_ID))
+                    .leftJoin(TICKETTYPES).on(TICKETS.TICKET_TYPE_ID.eq(TICKETTYPES.TICKET_TYPE_ID))
+                    .leftJoin(SEATTIERS).on(TICKETTYPES.SEAT_TIER_ID.eq(SEATTIERS.SEAT_TIER_ID))
+                    .where(condition)
+                    .orderBy(ORDERS.CREATED_AT.desc(), ORDERS.ORDER_ID.desc(), TICKETS.TICKET_ID)
+                    .fetchSize(EXPORT_FETCH_SIZE)
+                    .fetchLazy()) {
+
+                Map<String, Object> order = null;
+                List<Map<String, Object>> orderTickets = null;
+                for (Record record : rows) {
+                    Map<String, Object> row = record.intoMap();
+                    if (exportFormat == ExportWriter.Format.CSV) {
+                        writer.write(row);
+                        continue;
+                    }
+
+                    if (order == null || !Objects.equals(order.get("order_id"), row.get("order_id"))) {
+                        if (order != null) {
+                            writer.write(order);
+                        }
+                        order = new LinkedHashMap<>();
+                        for (String column : ORDER_EXPORT_FIELDS) {
+                            order.put(column, row.get(column));
+                        }
+                        orderTickets = new ArrayList<>();
+                        order.put("tickets", orderTickets);
+                    }
+                    if (row.get("ticket_id") != null) {
+                        Map<String, Object> ticket = new LinkedHashMap<>();
+                        for (String column : TICKET_EXPORT_FIELDS) {
+                            ticket.put(column, row.get(column));
+                        }
+                        orderTickets.add(ticket);
+                    }
+                }
+                if (order != null) {
+                    writer.write(order);
+                }
+            }
+            writer.flush();
+        }));
+    }
+
+    private Condition orderCondition(String query, Integer range, Integer organizerID, String eventID) {
+        Condition condition = ORDERS.CREATED_AT.gt(OffsetDateTime.now().minusMonths(range));
 
         if(!query.isEmpty()){
             try {
@@ -165,36 +289,35 @@ public class SearchService {
         if(eventID != null){
             condition = condition.and(EVENTS.EVENT_ID.eq(UUID.fromString(eventID)));
         }
+        return condition;
+    }
 
-        var orders = context.select(ORDERS.ORDER_ID, ORDERS.CREATED_AT, ORDERS.STATUS, PAYMENTS.CURRENCY, PAYMENTS.AMOUNT, PAYMENTS.PAYMENT_METHOD,
-                        ORDERS.PROFILE_ID, EVENTS.EVENT_ID, EVENTS.NAME, EVENTS.START_TIME, EVENTS.LOCATION)
-                .from(ORDERS)
-                .leftJoin(PAYMENTS).on(ORDERS.PAYMENT_ID.eq(PAYMENTS.PAYMENT_ID))
-                .rightJoin(EVENTS).on(ORDERS.EVENT_ID.eq(EVENTS.EVENT_ID))
-                .where(condition.and(ORDERS.CREATED_AT.gt(OffsetDateTime.now().minusMonths(range))))
-                .fetchMaps();
+    public void trackUserInteraction(UserInteraction userInteraction) {
+        userInteractionRecorder.record(userInteraction);
+    }
+
+    private record OrderCursor(OffsetDateTime createdAt, Integer orderID) {
+
+        private String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((createdAt + "|" + orderID).getBytes(StandardCharsets.UTF_8));
+        }
 
-        return orders.stream()
-                .peek(order -> order.put("tickets", context.select(TICKETS.TICKET_ID, TICKETTYPES.NAME, ORDERITEMS.QUANTITY
-                        , SEATTIERS.NAME.as("seat_tier_name"), SEATTIERS.TIER_COLOR, TICKETTYPES.PRICE, TICKETTYPES.CURRENCY,
-                                TICKETTYPES.TICKET_TYPE_ID)
-                        .from(ORDERITEMS)
-                                .join(TICKETS).on(ORDERITEMS.ORDER_ITEM_ID.eq(TICKETS.ORDER_ITEM_ID))
-                                .join(TICKETTYPES).on(TICKETS.TICKET_TYPE_ID.eq(TICKETTYPES.TICKET_TYPE_ID))
-                                .leftJoin(SEATTIERS).on(TICKETTYPES.SEAT_TIER_ID.eq(SEATTIERS.SEAT_TIER_ID))
-                        .where(ORDERITEMS.ORDER_ID.eq((Integer) order.get("order_id")))
-                        .fetchMaps()))
-                .collect(Collectors.toList());
+        private static OrderCursor decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                return new OrderCursor(OffsetDateTime.parse(parts[0]), Integer.valueOf(parts[1]));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid order cursor");
+            }
+        }
     }
 
-    public void trackUserInteraction(UserInteraction userInteraction) {
-        context.insertInto(USERINTERACTIONS)
-                .set(USERINTERACTIONS.PROFILE_ID, userInteraction.getProfileID())
-                .set(USERINTERACTIONS.EVENT_ID, UUID.fromString(userInteraction.getEventID()))
-                .set(USERINTERACTIONS.INTERACTION_TYPE, userInteraction.getType())
-                .set(USERINTERACTIONS.INTERACTION_STRENGTH, userInteraction.getStrength())
-                .set(USERINTERACTIONS.ORGANIZER_ID, userInteraction.getOrganizerID())
-                .set(USERINTERACTIONS.TIMESTAMP, LocalDateTime.now())
-                .execute();
+    private static Double parseCoordinate(String value) {
+        try {
+            return value == null ? null : Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
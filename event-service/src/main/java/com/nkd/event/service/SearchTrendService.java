@@ -0,0 +1,238 @@
+package com.nkd.event.service;
+
+import com.nkd.event.utils.GeoHash;
+import com.nkd.event.utils.WriteBehindBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.nkd.event.Tables.SEARCHHISTORY;
+
+@Slf4j
+@Service
+public class SearchTrendService {
+
+    private static final int CAPACITY = 1 << 15;
+    private static final int BATCH_SIZE = 500;
+    private static final int CELL_PRECISION = 5;
+    private static final int WINDOW_DAYS = 30;
+    private static final int DAY_TERMS = 2000;
+    private static final int TREND_LIMIT = 10;
+
+    private static final String CELLS_KEY = "search-trend-cells";
+    private static final String SEEDED_KEY = "search-trend-seeded";
+    private static final String SEEDING_KEY = "search-trend-seeding";
+    private static final Duration SEEDING_LOCK_TTL = Duration.ofMinutes(10);
+    private static final RedisScript<Long> INCREMENT_SCRIPT = RedisScript.of(
+            new ClassPathResource("scripts/increment_search_trend.lua"), Long.class);
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final DSLContext context;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final WriteBehindBuffer<SearchEntry> buffer;
+
+    public SearchTrendService(DSLContext context, RedisTemplate<String, String> redisTemplate, MeterRegistry meterRegistry) {
+        this.context = context;
+        this.redisTemplate = redisTemplate;
+        this.buffer = new WriteBehindBuffer<>("search-history", CAPACITY, BATCH_SIZE, this::write, meterRegistry);
+    }
+
+    public void record(String term, String lat, String lon, Integer userID) {
+        if (term == null || term.isBlank()) {
+            return;
+        }
+        buffer.offer(new SearchEntry(term, parseCoordinate(lat), parseCoordinate(lon), OffsetDateTime.now(), userID));
+    }
+
+    public List<Map<String, Object>> getTrends(String lat, String lon) {
+        Double latitude = parseCoordinate(lat);
+        Double longitude = parseCoordinate(lon);
+        if (latitude == null || longitude == null) {
+            return List.of();
+        }
+
+        List<String> keys = GeoHash.cellWithNeighbours(latitude, longitude, CELL_PRECISION).stream()
+                .map(SearchTrendService::windowKey)
+                .toList();
+        Set<ZSetOperations.TypedTuple<String>> terms = redisTemplate.opsForZSet()
+                .unionWithScores(keys.getFirst(), keys.subList(1, keys.size()));
+        if (terms == null) {
+            return List.of();
+        }
+
+        return terms.stream()
+                .filter(term -> term.getValue() != null && term.getScore() != null && term.getScore() > 0)
+                .sorted(Comparator.comparingDouble((ZSetOperations.TypedTuple<String> term) -> term.getScore()).reversed())
+                .limit(TREND_LIMIT)
+                .map(term -> Map.<String, Object>of("search_term", term.getValue(), "count", term.getScore().longValue()))
+                .toList();
+    }
+
+    @Scheduled(fixedDelay = 500, timeUnit = TimeUnit.MILLISECONDS)
+    public void flush() {
+        buffer.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        buffer.flush();
+    }
+
+    @Scheduled(cron = "0 10 0 * * *", zone = "UTC")
+    public void rollWindow() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue()
+                .setIfAbsent("search-trend-rollover-" + today.format(DAY_FORMAT), "1", Duration.ofDays(2)))) {
+            return;
+        }
+
+        // Rebuilt from the day sets still in the window, so a missed run leaves nothing stale behind.
+        List<LocalDate> days = today.minusDays(WINDOW_DAYS - 1).datesUntil(today.plusDays(1)).toList();
+        Set<String> cells = Optional.ofNullable(redisTemplate.opsForSet().members(CELLS_KEY)).orElse(Set.of());
+        for (String cell : cells) {
+            List<String> dayKeys = days.stream().map(day -> dayKey(cell, day)).toList();
+            Long size = redisTemplate.opsForZSet().unionAndStore(dayKeys.getFirst(), dayKeys.subList(1, dayKeys.size()), windowKey(cell));
+            if (size == null || size == 0) {
+                redisTemplate.opsForSet().remove(CELLS_KEY, cell);
+            }
+        }
+        log.info("Rolled search trend window for {} cells", cells.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFromHistory() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(SEEDED_KEY))
+                || !Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(SEEDING_KEY, "1", SEEDING_LOCK_TTL))) {
+            return;
+        }
+
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(SEEDED_KEY))) {
+                seed();
+                redisTemplate.opsForValue().set(SEEDED_KEY, "1");
+            }
+        } finally {
+            redisTemplate.delete(SEEDING_KEY);
+        }
+    }
+
+    private void seed() {
+        Field<String> cell = DSL.field("st_geohash(search_location::geometry, " + CELL_PRECISION + ")", String.class);
+        Field<LocalDate> day = DSL.field("(search_timestamp at time zone 'UTC')::date", LocalDate.class);
+        Field<Integer> count = DSL.count();
+
+        var history = context.select(SEARCHHISTORY.SEARCH_TERM, cell, day, count)
+                .from(SEARCHHISTORY)
+                .where(SEARCHHISTORY.SEARCH_TIMESTAMP.gt(OffsetDateTime.now().minusDays(WINDOW_DAYS))
+                        .and(SEARCHHISTORY.SEARCH_LOCATION.isNotNull()))
+                .groupBy(SEARCHHISTORY.SEARCH_TERM, cell, day)
+                .fetch();
+
+        Map<String, Map<LocalDate, Map<String, Integer>>> counters = new HashMap<>();
+        history.forEach(record -> counters.computeIfAbsent(record.value2(), c -> new HashMap<>())
+                .computeIfAbsent(record.value3(), d -> new HashMap<>())
+                .merge(record.value1(), record.value4(), Integer::sum));
+        increment(counters);
+
+        log.info("Seeded search trends from {} search history groups", history.size());
+    }
+
+    private void write(List<SearchEntry> entries) {
+        var insert = context.insertInto(SEARCHHISTORY, SEARCHHISTORY.SEARCH_TERM, SEARCHHISTORY.SEARCH_LOCATION,
+                SEARCHHISTORY.SEARCH_TIMESTAMP, SEARCHHISTORY.USER_ID);
+        Map<String, Map<LocalDate, Map<String, Integer>>> counters = new HashMap<>();
+
+        for (SearchEntry entry : entries) {
+            var location = entry.hasLocation()
+                    ? DSL.field("ST_GeographyFromText(?)", SEARCHHISTORY.SEARCH_LOCATION.getDataType(),
+                            "POINT(" + entry.lon() + " " + entry.lat() + ")")
+                    : DSL.val(null, SEARCHHISTORY.SEARCH_LOCATION);
+            insert = insert.values(DSL.val(entry.term(), SEARCHHISTORY.SEARCH_TERM), location,
+                    DSL.val(entry.timestamp(), SEARCHHISTORY.SEARCH_TIMESTAMP), DSL.val(entry.userID(), SEARCHHISTORY.USER_ID));
+
+            if (entry.hasLocation()) {
+                counters.computeIfAbsent(GeoHash.encode(entry.lat(), entry.lon(), CELL_PRECISION), c -> new HashMap<>())
+                        .computeIfAbsent(entry.timestamp().atZoneSameInstant(ZoneOffset.UTC).toLocalDate(), d -> new HashMap<>())
+                        .merge(entry.term(), 1, Integer::sum);
+            }
+        }
+        insert.execute();
+
+        try {
+            increment(counters);
+        } catch (RuntimeException e) {
+            log.error("Error updating search trend counters: {}", e.getMessage());
+        }
+    }
+
+    private void increment(Map<String, Map<LocalDate, Map<String, Integer>>> counters) {
+        if (counters.isEmpty()) {
+            return;
+        }
+
+        LocalDate windowStart = LocalDate.now(ZoneOffset.UTC).minusDays(WINDOW_DAYS - 1);
+        String dayTtl = String.valueOf(Duration.ofDays(WINDOW_DAYS + 10).toSeconds());
+        counters.forEach((cell, days) -> {
+            String windowKey = windowKey(cell);
+            days.forEach((day, terms) -> {
+                if (day.isBefore(windowStart)) {
+                    return;
+                }
+                List<String> args = new ArrayList<>(terms.size() * 2 + 2);
+                args.add(String.valueOf(DAY_TERMS));
+                args.add(dayTtl);
+                terms.forEach((term, count) -> {
+                    args.add(term);
+                    args.add(count.toString());
+                });
+                redisTemplate.execute(INCREMENT_SCRIPT, List.of(dayKey(cell, day), windowKey), args.toArray());
+            });
+            redisTemplate.opsForSet().add(CELLS_KEY, cell);
+        });
+    }
+
+    private static String windowKey(String cell) {
+        return "search-trend-" + cell;
+    }
+
+    private static String dayKey(String cell, LocalDate day) {
+        return "search-trend-" + cell + "-" + day.format(DAY_FORMAT);
+    }
+
+    private static Double parseCoordinate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record SearchEntry(String term, Double lat, Double lon, OffsetDateTime timestamp, Integer userID) {
+
+        private boolean hasLocation() {
+            return lat != null && lon != null;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.nkd.event.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.nkd.event.Tables.TICKETS;
+
+@Slf4j
+@Component
+public class SeatHoldManager {
+
+    private static final long FREE = 0L;
+    private static final long SOLD = -1L;
+    private static final long HOLD_TTL_SECONDS = TicketReservationService.HOLD_TTL.toSeconds();
+    private static final long IDLE_EVICTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final DSLContext context;
+    private final Map<UUID, SeatTable> tables = new ConcurrentHashMap<>();
+    private final Timer holdTimer;
+    private final Timer claimTimer;
+
+    public SeatHoldManager(DSLContext context, MeterRegistry meterRegistry) {
+        this.context = context;
+        this.holdTimer = Timer.builder("seat.hold.latency")
+                .description("Time taken to hold every seat of a reserved seating cart")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.claimTimer = Timer.builder("seat.claim.latency")
+                .description("Time taken to persist and confirm held seats")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public Optional<String> hold(String eventID, List<String> seatIDs, Integer profileID) {
+        return holdTimer.record(() -> table(UUID.fromString(eventID)).hold(seatIDs, profileID));
+    }
+
+    public void release(String eventID, List<String> seatIDs, Integer profileID) {
+        SeatTable table = tables.get(UUID.fromString(eventID));
+        if (table != null && seatIDs != null) {
+            table.release(seatIDs, profileID);
+        }
+    }
+
+    public void confirm(String eventID, List<String> seatIDs, Runnable persist) {
+        claimTimer.record(() -> {
+            UUID eventUUID = UUID.fromString(eventID);
+            try {
+                persist.run();
+            } catch (RuntimeException e) {
+                tables.remove(eventUUID);
+                throw e;
+            }
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                table(eventUUID).markSold(seatIDs);
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    table(eventUUID).markSold(seatIDs);
+                }
+            });
+        });
+    }
+
+    public void markAvailable(String eventID, List<String> seatIDs) {
+        SeatTable table = tables.get(UUID.fromString(eventID));
+        if (table != null) {
+            table.markAvailable(seatIDs);
+        }
+    }
+
+    public void evict(String eventID) {
+        tables.remove(UUID.fromString(eventID));
+    }
+
+    @Scheduled(fixedDelay = 15, timeUnit = TimeUnit.MINUTES)
+    public void evictIdleTables() {
+        long threshold = System.currentTimeMillis() - IDLE_EVICTION_MILLIS;
+        tables.values().removeIf(table -> table.lastAccess < threshold);
+    }
+
+    private SeatTable table(UUID eventID) {
+        SeatTable table = tables.computeIfAbsent(eventID, this::loadTable);
+        table.lastAccess = System.currentTimeMillis();
+        return table;
+    }
+
+    private SeatTable loadTable(UUID eventID) {
+        var seats = context.select(TICKETS.SEAT_IDENTIFIER, TICKETS.STATUS)
+                .from(TICKETS)
+                .where(TICKETS.EVENT_ID.eq(eventID).and(TICKETS.SEAT_IDENTIFIER.isNotNull()))
+                .fetch();
+
+        SeatTable table = new SeatTable(seats.size());
+        seats.forEach(seat -> table.add(seat.value1(), !"available".equals(seat.value2())));
+        return table;
+    }
+
+    private static final class SeatTable {
+
+        private final Map<String, Integer> index;
+        private final AtomicLongArray states;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private SeatTable(int size) {
+            this.index = new HashMap<>(size * 4 / 3 + 1);
+            this.states = new AtomicLongArray(size);
+        }
+
+        private void add(String seatID, boolean sold) {
+            int position = index.size();
+            index.put(seatID, position);
+            states.set(position, sold ? SOLD : FREE);
+        }
+
+        private Optional<String> hold(List<String> seatIDs, Integer profileID) {
+            long nowSeconds = System.currentTimeMillis() / 1000;
+            long held = (long) profileID << 32 | (nowSeconds + HOLD_TTL_SECONDS);
+            int[] positions = new int[seatIDs.size()];
+            long[] previous = new long[seatIDs.size()];
+
+            for (int i = 0; i < seatIDs.size(); i++) {
+                Integer position = index.get(seatIDs.get(i));
+                if (position == null) {
+                    rollback(positions, previous, held, i);
+                    return Optional.of(seatIDs.get(i));
+                }
+
+                positions[i] = position;
+                long current;
+                do {
+                    current = states.get(position);
+                    if (!claimable(current, profileID, nowSeconds)) {
+                        rollback(positions, previous, held, i);
+                        return Optional.of(seatIDs.get(i));
+                    }
+                } while (!states.compareAndSet(position, current, held));
+                previous[i] = current;
+            }
+
+            return Optional.empty();
+        }
+
+        private void release(List<String> seatIDs, Integer profileID) {
+            for (String seatID : seatIDs) {
+                Integer position = index.get(seatID);
+                if (position == null) {
+                    continue;
+                }
+                long current = states.get(position);
+                if (current != SOLD && current != FREE && (int) (current >>> 32) == profileID) {
+                    states.compareAndSet(position, current, FREE);
+                }
+            }
+        }
+
+        private void markSold(List<String> seatIDs) {
+            seatIDs.stream().map(index::get).filter(Objects::nonNull)
+                    .forEach(position -> states.set(position, SOLD));
+        }
+
+        private void markAvailable(List<String> seatIDs) {
+            seatIDs.stream().map(index::get).filter(Objects::nonNull)
+                    .forEach(position -> states.set(position, FREE));
+        }
+
+        private void rollback(int[] positions, long[] previous, long held, int count) {
+            for (int i = 0; i < count; i++) {
+                states.compareAndSet(positions[i], held, previous[i]);
+            }
+        }
+
+        private static boolean claimable(long state, Integer profileID, long nowSeconds) {
+            if (state == FREE) {
+                return true;
+            }
+            if (state == SOLD) {
+                return false;
+            }
+            return (int) (state >>> 32) == profileID || (state & 0xFFFFFFFFL) < nowSeconds;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.nkd.event.service;
+
+import com.nkd.event.dto.Tier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.InsertValuesStep4;
+import org.jooq.impl.DSL;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.nkd.event.Tables.TICKETS;
+import static com.nkd.event.Tables.TICKETTYPES;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeatInventoryLoader {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int PROGRESS_INTERVAL = 10_000;
+
+    private final DSLContext context;
+
+    public int createSeats(UUID eventID, List<Tier> tiers) {
+        List<Tier> seatedTiers = tiers.stream()
+                .filter(tier -> tier.getAssignedSeats() != null && !tier.getAssignedSeats().isEmpty())
+                .toList();
+        if (seatedTiers.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, Integer> ticketTypeIDs = context.select(TICKETTYPES.SEAT_TIER_ID, TICKETTYPES.TICKET_TYPE_ID)
+                .from(TICKETTYPES)
+                .where(TICKETTYPES.SEAT_TIER_ID.in(seatedTiers.stream().map(tier -> Integer.parseInt(tier.getDbTierID())).toList()))
+                .fetchMap(TICKETTYPES.SEAT_TIER_ID, TICKETTYPES.TICKET_TYPE_ID);
+        int total = seatedTiers.stream().mapToInt(tier -> tier.getAssignedSeats().size()).sum();
+        long start = System.currentTimeMillis();
+
+        int written = context.transactionResult(configuration -> {
+            DSLContext transaction = DSL.using(configuration);
+            int count = 0;
+            InsertValuesStep4<?, UUID, Integer, String, String> batch = null;
+
+            for (Tier tier : seatedTiers) {
+                Integer ticketTypeID = ticketTypeIDs.get(Integer.parseInt(tier.getDbTierID()));
+                for (String seat : tier.getAssignedSeats()) {
+                    if (batch == null) {
+                        batch = transaction.insertInto(TICKETS, TICKETS.EVENT_ID, TICKETS.TICKET_TYPE_ID, TICKETS.STATUS, TICKETS.SEAT_IDENTIFIER);
+                    }
+                    batch = batch.values(eventID, ticketTypeID, "available", seat);
+
+                    if (++count % BATCH_SIZE == 0) {
+                        batch.execute();
+                        batch = null;
+                        if (total > PROGRESS_INTERVAL && count % PROGRESS_INTERVAL == 0) {
+                            log.info("Created {}/{} seats for event {}", count, total, eventID);
+                        }
+                    }
+                }
+            }
+            if (batch != null) {
+                batch.execute();
+            }
+            return count;
+        });
+
+        log.info("Created {} seats for event {} in {} ms", written, eventID, System.currentTimeMillis() - start);
+        return written;
+    }
+}
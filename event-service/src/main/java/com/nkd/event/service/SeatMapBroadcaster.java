@@ -0,0 +1,266 @@
+package com.nkd.event.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.nkd.event.Tables.SEATMAP;
+import static com.nkd.event.Tables.TICKETS;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatMapBroadcaster {
+
+    public static final String RELAY_CHANNEL = "seat-map-relay";
+
+    private static final int REPLAY_CAPACITY = 256;
+    private static final long IDLE_EVICTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final RedisScript<Long> PUBLISH_SCRIPT = RedisScript.of(new ClassPathResource("scripts/publish_seat_delta.lua"), Long.class);
+
+    @Value("${seat-map.broker:simple}")
+    private String broker;
+
+    private final DSLContext context;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper mapper;
+    private final Map<Integer, MapChannel> channels = new ConcurrentHashMap<>();
+
+    public void seatsTaken(Integer mapID, Collection<String> seatIDs) {
+        stage(mapID, seatIDs, true);
+    }
+
+    public void seatsReleased(Integer mapID, Collection<String> seatIDs) {
+        stage(mapID, seatIDs, false);
+    }
+
+    public Map<String, Object> snapshot(Integer mapID) {
+        MapChannel channel = channel(mapID);
+        synchronized (channel) {
+            return Map.of("seq", channel.sequence, "seats", channel.seats, "taken", encode(channel.taken));
+        }
+    }
+
+    public Map<String, Object> replay(Integer mapID, long since) {
+        MapChannel channel = channel(mapID);
+        synchronized (channel) {
+            Map<String, Object> oldest = channel.history.peekFirst();
+            boolean gap = since < channel.sequence && (oldest == null || (long) oldest.get("seq") > since + 1);
+            if (gap || since > channel.sequence) {
+                return Map.of("seq", channel.sequence, "complete", false, "deltas", List.of());
+            }
+
+            List<Map<String, Object>> deltas = channel.history.stream()
+                    .filter(delta -> (long) delta.get("seq") > since)
+                    .toList();
+            return Map.of("seq", channel.sequence, "complete", true, "deltas", deltas);
+        }
+    }
+
+    public void evict(Integer mapID) {
+        channels.remove(mapID);
+    }
+
+    @Scheduled(fixedRate = 50, timeUnit = TimeUnit.MILLISECONDS)
+    public void flush() {
+        channels.forEach((mapID, channel) -> {
+            BitSet[] changes;
+            synchronized (channel) {
+                changes = channel.drain();
+            }
+            if (changes == null) {
+                return;
+            }
+
+            if (isRelayed()) {
+                relay(mapID, changes);
+            } else {
+                long sequence;
+                synchronized (channel) {
+                    sequence = channel.sequence + 1;
+                }
+                deliver(mapID, sequence, encode(changes[0]), encode(changes[1]));
+            }
+        });
+    }
+
+    public void onRelayedDelta(String message) {
+        try {
+            RelayedDelta delta = mapper.readValue(message, RelayedDelta.class);
+            deliver(delta.mapID(), delta.seq(), delta.taken(), delta.released());
+        } catch (JsonProcessingException e) {
+            log.error("Error reading relayed seat map delta: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 15, timeUnit = TimeUnit.MINUTES)
+    public void evictIdleChannels() {
+        long threshold = System.currentTimeMillis() - IDLE_EVICTION_MILLIS;
+        channels.values().removeIf(channel -> channel.lastAccess < threshold);
+    }
+
+    private void relay(Integer mapID, BitSet[] changes) {
+        try {
+            Map<String, Object> delta = new LinkedHashMap<>();
+            delta.put("mapID", mapID);
+            delta.put("taken", encode(changes[0]));
+            delta.put("released", encode(changes[1]));
+            redisTemplate.execute(PUBLISH_SCRIPT, List.of(sequenceKey(mapID)), RELAY_CHANNEL, mapper.writeValueAsString(delta));
+        } catch (JsonProcessingException e) {
+            log.error("Error relaying seat map delta for map {}: {}", mapID, e.getMessage());
+        }
+    }
+
+    private void deliver(Integer mapID, long sequence, List<int[]> taken, List<int[]> released) {
+        Map<String, Object> delta = Map.of("seq", sequence, "taken", taken, "released", released);
+
+        MapChannel channel = channels.get(mapID);
+        if (channel != null) {
+            synchronized (channel) {
+                channel.apply(delta, decode(taken), decode(released));
+            }
+        }
+        messagingTemplate.convertAndSend("/seat-map/" + mapID, delta);
+    }
+
+    private boolean isRelayed() {
+        return "redis".equalsIgnoreCase(broker);
+    }
+
+    private static String sequenceKey(Integer mapID) {
+        return "seat-map-seq-" + mapID;
+    }
+
+    private void stage(Integer mapID, Collection<String> seatIDs, boolean taken) {
+        if (mapID == null || seatIDs == null || seatIDs.isEmpty()) {
+            return;
+        }
+
+        MapChannel channel = channel(mapID);
+        if (!seatIDs.stream().allMatch(channel.index::containsKey)) {
+            channels.remove(mapID, channel);
+            channel = channel(mapID);
+        }
+
+        synchronized (channel) {
+            for (String seatID : seatIDs) {
+                Integer position = channel.index.get(seatID);
+                if (position == null) {
+                    log.warn("Seat {} is not part of seat map {}", seatID, mapID);
+                    continue;
+                }
+                channel.pendingTaken.set(position, taken);
+                channel.pendingReleased.set(position, !taken);
+            }
+        }
+    }
+
+    private MapChannel channel(Integer mapID) {
+        MapChannel channel = channels.computeIfAbsent(mapID, this::loadChannel);
+        channel.lastAccess = System.currentTimeMillis();
+        return channel;
+    }
+
+    private MapChannel loadChannel(Integer mapID) {
+        var seats = context.select(TICKETS.SEAT_IDENTIFIER, TICKETS.STATUS)
+                .from(TICKETS)
+                .join(SEATMAP).on(SEATMAP.EVENT_ID.eq(TICKETS.EVENT_ID))
+                .where(SEATMAP.MAP_ID.eq(mapID).and(TICKETS.SEAT_IDENTIFIER.isNotNull()))
+                .orderBy(TICKETS.TICKET_ID)
+                .fetch();
+
+        MapChannel channel = new MapChannel(seats.size());
+        seats.forEach(seat -> {
+            int position = channel.seats.size();
+            channel.seats.add(seat.value1());
+            channel.index.put(seat.value1(), position);
+            channel.taken.set(position, !"available".equals(seat.value2()));
+        });
+
+        if (isRelayed()) {
+            channel.sequence = Optional.ofNullable(redisTemplate.opsForValue().get(sequenceKey(mapID)))
+                    .map(Long::parseLong).orElse(0L);
+        } else {
+            // A reloaded channel must not reuse numbers clients already saw. A channel emits at most one
+            // delta per flush, far fewer than one per millisecond, so the clock stays ahead of any earlier run.
+            channel.sequence = System.currentTimeMillis();
+        }
+        return channel;
+    }
+
+    private static List<int[]> encode(BitSet bits) {
+        List<int[]> ranges = new ArrayList<>();
+        int start = bits.nextSetBit(0);
+        while (start >= 0) {
+            int end = bits.nextClearBit(start);
+            ranges.add(new int[]{start, end - start});
+            start = bits.nextSetBit(end);
+        }
+        return ranges;
+    }
+
+    private static BitSet decode(List<int[]> ranges) {
+        BitSet bits = new BitSet();
+        ranges.forEach(range -> bits.set(range[0], range[0] + range[1]));
+        return bits;
+    }
+
+    record RelayedDelta(Integer mapID, long seq, List<int[]> taken, List<int[]> released) {}
+
+    private static final class MapChannel {
+
+        private final List<String> seats;
+        private final Map<String, Integer> index;
+        private final BitSet taken;
+        private final BitSet pendingTaken = new BitSet();
+        private final BitSet pendingReleased = new BitSet();
+        private final Deque<Map<String, Object>> history = new ArrayDeque<>(REPLAY_CAPACITY);
+        private long sequence;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private MapChannel(int size) {
+            this.seats = new ArrayList<>(size);
+            this.index = new HashMap<>(size * 4 / 3 + 1);
+            this.taken = new BitSet(size);
+        }
+
+        private BitSet[] drain() {
+            if (pendingTaken.isEmpty() && pendingReleased.isEmpty()) {
+                return null;
+            }
+
+            // A channel loaded after the write already counts these seats as taken, so
+            // staged changes go out as-is; applying them twice is harmless for clients.
+            BitSet newlyTaken = (BitSet) pendingTaken.clone();
+            BitSet newlyReleased = (BitSet) pendingReleased.clone();
+            pendingTaken.clear();
+            pendingReleased.clear();
+            return new BitSet[]{newlyTaken, newlyReleased};
+        }
+
+        private void apply(Map<String, Object> delta, BitSet newlyTaken, BitSet newlyReleased) {
+            taken.or(newlyTaken);
+            taken.andNot(newlyReleased);
+            sequence = Math.max(sequence, (long) delta.get("seq"));
+
+            if (history.size() == REPLAY_CAPACITY) {
+                history.removeFirst();
+            }
+            history.addLast(delta);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.nkd.event.service;
+
+import com.nkd.event.dto.PrintTicketDTO;
+import com.nkd.event.utils.BoundedCache;
+import com.nkd.event.utils.EventUtils;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+public class TicketPdfRenderer {
+
+    private static final String TEMPLATE = "print_ticket";
+    private static final String ORDER_TEMPLATE = "print_order";
+    private static final String LOGO = "https://res.cloudinary.com/de25mkp9v/image/upload/v1743413016/logo_xdxerq.png";
+    private static final String FONT = "templates/Nunito-VariableFont_wght.ttf";
+    private static final long RENDER_TIMEOUT_SECONDS = 30;
+    private static final long IMAGE_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long PDF_TTL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final int IMAGE_TIMEOUT_MILLIS = 5000;
+    private static final int MAX_IMAGE_BYTES = 5 * 1024 * 1024;
+    private static final DateTimeFormatter PRINT_DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
+    private final TemplateEngine templateEngine;
+    private final ThreadPoolExecutor executor;
+    private final BoundedCache<String, String> imageCache;
+    private final BoundedCache<String, byte[]> pdfCache;
+    private final Map<String, CompletableFuture<String>> imageLoads = new ConcurrentHashMap<>();
+    private final byte[] font;
+    private final String baseUri;
+
+    private final Timer renderTimer;
+    private final Counter pdfHits;
+    private final Counter pdfMisses;
+    private final Counter imageHits;
+    private final Counter imageMisses;
+    private final Counter rejected;
+
+    public TicketPdfRenderer(TemplateEngine templateEngine, MeterRegistry meterRegistry,
+                             @Value("${ticket.rendering.threads:0}") int threads,
+                             @Value("${ticket.rendering.queue-capacity:256}") int queueCapacity,
+                             @Value("${ticket.rendering.image-cache-mb:32}") long imageCacheMb,
+                             @Value("${ticket.rendering.pdf-cache-mb:128}") long pdfCacheMb) throws IOException {
+        this.templateEngine = templateEngine;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ticket-render-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.imageCache = new BoundedCache<>(imageCacheMb * 1024 * 1024, IMAGE_TTL_MILLIS, String::length);
+        this.pdfCache = new BoundedCache<>(pdfCacheMb * 1024 * 1024, PDF_TTL_MILLIS, pdf -> pdf.length);
+
+        try (InputStream in = new ClassPathResource(FONT).getInputStream()) {
+            this.font = in.readAllBytes();
+        }
+        this.baseUri = new ClassPathResource("templates/").getURL().toString();
+
+        this.renderTimer = Timer.builder("ticket.render")
+                .description("Time taken to lay out a ticket PDF")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.pdfHits = Counter.builder("ticket.render.cache").tag("cache", "pdf").tag("result", "hit").register(meterRegistry);
+        this.pdfMisses = Counter.builder("ticket.render.cache").tag("cache", "pdf").tag("result", "miss").register(meterRegistry);
+        this.imageHits = Counter.builder("ticket.render.cache").tag("cache", "image").tag("result", "hit").register(meterRegistry);
+        this.imageMisses = Counter.builder("ticket.render.cache").tag("cache", "image").tag("result", "miss").register(meterRegistry);
+        this.rejected = Counter.builder("ticket.render.rejected").register(meterRegistry);
+        Gauge.builder("ticket.render.queue", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("ticket.render.cache.bytes", pdfCache, BoundedCache::weight).tag("cache", "pdf").register(meterRegistry);
+        Gauge.builder("ticket.render.cache.bytes", imageCache, BoundedCache::weight).tag("cache", "image").register(meterRegistry);
+    }
+
+    public byte[] render(PrintTicketDTO ticket) {
+        String key = ticket.getTicketID() + ":" + version(ticket);
+        byte[] cached = pdfCache.get(key);
+        if (cached != null) {
+            pdfHits.increment();
+            return cached;
+        }
+        pdfMisses.increment();
+
+        Context context = new Context();
+        context.setVariable("ticket", ticket);
+        context.setVariable("eventImg", imageDataUri(ticket.getEventImg()));
+        context.setVariable("qrCode", qrDataUri(ticket));
+        context.setVariable("logo", imageDataUri(LOGO));
+        context.setVariable("printDate", OffsetDateTime.now().format(PRINT_DATE));
+        String html = templateEngine.process(TEMPLATE, context);
+
+        byte[] pdf = submit(() -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            layout(html, out);
+            return out.toByteArray();
+        });
+        pdfCache.put(key, pdf);
+        return pdf;
+    }
+
+    public Path renderOrder(List<PrintTicketDTO> tickets) throws IOException {
+        Context context = new Context();
+        context.setVariable("tickets", tickets.stream()
+                .map(ticket -> Map.of("ticket", ticket, "qrCode", qrDataUri(ticket)))
+                .toList());
+        context.setVariable("eventImg", imageDataUri(tickets.getFirst().getEventImg()));
+        context.setVariable("logo", imageDataUri(LOGO));
+        context.setVariable("printDate", OffsetDateTime.now().format(PRINT_DATE));
+        String html = templateEngine.process(ORDER_TEMPLATE, context);
+
+        // Spooled to a file the caller streams and deletes, so a large order never sits in the heap. A timed-out
+        // layout cannot be interrupted and keeps writing into the file, never into the response; the file is
+        // opened without CREATE so a layout that starts after the caller gave up fails instead of recreating it.
+        Path spool = Files.createTempFile("order-", ".pdf");
+        try {
+            submit(() -> {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(spool, StandardOpenOption.WRITE))) {
+                    layout(html, out);
+                }
+                return spool;
+            });
+            return spool;
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public void evictExpired() {
+        pdfCache.evictExpired();
+        imageCache.evictExpired();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void layout(String html, OutputStream out) throws IOException {
+        PdfRendererBuilder builder = new PdfRendererBuilder();
+        builder.withHtmlContent(html, baseUri);
+        builder.useFont(() -> new ByteArrayInputStream(font), "Nunito");
+        builder.toStream(out);
+        builder.run();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> renderTimer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+
+        try {
+            return future.get(RENDER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while rendering ticket", e);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new RejectedExecutionException("Ticket rendering timed out", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private String imageDataUri(String imageUrl) {
+        if (imageUrl == null || imageUrl.isBlank()) {
+            return imageUrl;
+        }
+
+        String cached = imageCache.get(imageUrl);
+        if (cached != null) {
+            imageHits.increment();
+            return cached;
+        }
+        imageMisses.increment();
+
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletableFuture<String> existing = imageLoads.putIfAbsent(imageUrl, created);
+        if (existing != null) {
+            return existing.join();
+        }
+
+        try {
+            String dataUri = downloadImage(imageUrl);
+            created.complete(dataUri);
+            return dataUri;
+        } finally {
+            imageLoads.remove(imageUrl, created);
+        }
+    }
+
+    private String downloadImage(String imageUrl) {
+        try {
+            URLConnection connection = URI.create(imageUrl).toURL().openConnection();
+            connection.setConnectTimeout(IMAGE_TIMEOUT_MILLIS);
+            connection.setReadTimeout(IMAGE_TIMEOUT_MILLIS);
+
+            byte[] imageBytes;
+            try (InputStream in = connection.getInputStream()) {
+                imageBytes = in.readNBytes(MAX_IMAGE_BYTES + 1);
+            }
+            if (imageBytes.length > MAX_IMAGE_BYTES) {
+                log.warn("Event image {} exceeds {} bytes, leaving it to the renderer", imageUrl, MAX_IMAGE_BYTES);
+                return imageUrl;
+            }
+            String contentType = connection.getContentType();
+            String mediaType = contentType != null && contentType.startsWith("image/") ? contentType.split(";")[0] : "image/png";
+
+            String dataUri = "data:" + mediaType + ";base64," + Base64.getEncoder().encodeToString(imageBytes);
+            imageCache.put(imageUrl, dataUri);
+            return dataUri;
+        } catch (Exception e) {
+            log.error("Error converting URL to Data URI: {}", e.getMessage());
+            return imageUrl;
+        }
+    }
+
+    private static String qrDataUri(PrintTicketDTO ticket) {
+        byte[] qrBytes = EventUtils.generateTicketQRCode(ticket.getTicketID(), ticket.getEventID(), ticket.getOrderID());
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(qrBytes);
+    }
+
+    private static String version(PrintTicketDTO ticket) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(ticket.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
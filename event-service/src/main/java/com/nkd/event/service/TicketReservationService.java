@@ -0,0 +1,256 @@
+package com.nkd.event.service;
+
+import com.nkd.event.dto.TicketDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Record2;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.nkd.event.Tables.TICKETTYPES;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TicketReservationService {
+
+    public static final Duration CHECKOUT_TTL = Duration.ofMinutes(30);
+    public static final Duration HOLD_TTL = CHECKOUT_TTL.plusMinutes(5);
+
+    // Every key shares one hash tag so the multi-key scripts stay in a single cluster slot.
+    private static final String KEY_TAG = "{ticket-stock}";
+    static final String HOLD_EXPIRY_KEY = KEY_TAG + "reservation-expiry";
+    private static final Duration COMMIT_MARK_TTL = Duration.ofMinutes(2);
+    private static final long CLOCK_SKEW_MILLIS = 5000;
+    private static final long STALE_HOLD = -1_000_000L;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int EXPIRE_BATCH_SIZE = 500;
+
+    private static final RedisScript<Long> RESERVE_SCRIPT = script("scripts/reserve_tickets.lua");
+    private static final RedisScript<Long> RELEASE_SCRIPT = script("scripts/release_tickets.lua");
+    private static final RedisScript<Long> SYNC_SCRIPT = script("scripts/sync_stock.lua");
+
+    private final DSLContext context;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public void reserve(List<TicketDTO> tickets, Integer profileID) {
+        Map<Integer, Integer> lines = lines(tickets);
+        Map<Integer, String> names = new HashMap<>();
+        tickets.forEach(ticket -> names.putIfAbsent(ticket.getTicketTypeID(), ticket.getTicketName()));
+        List<Integer> ticketTypeIDs = new ArrayList<>(lines.keySet());
+
+        Long result = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Map<String, Integer> request = new LinkedHashMap<>();
+            lines.forEach((ticketTypeID, quantity) -> request.put(ticketTypeID.toString(), quantity));
+            heldTicketTypes(profileID).forEach(ticketTypeID -> request.putIfAbsent(ticketTypeID, 0));
+
+            List<String> keys = new ArrayList<>(request.size() * 2 + 2);
+            keys.add(holdKey(profileID));
+            keys.add(HOLD_EXPIRY_KEY);
+            List<String> args = new ArrayList<>(request.size() * 2 + 1);
+            args.add(String.valueOf(System.currentTimeMillis() + HOLD_TTL.toMillis()));
+            request.forEach((ticketTypeID, quantity) -> {
+                keys.add(stockKey(ticketTypeID));
+                keys.add(heldKey(ticketTypeID));
+                args.add(ticketTypeID);
+                args.add(quantity.toString());
+            });
+
+            result = redisTemplate.execute(RESERVE_SCRIPT, keys, args.toArray());
+            if (result != null && result < 0 && result != STALE_HOLD) {
+                seedStock(ticketTypeIDs);
+            } else if (result == null || result != STALE_HOLD) {
+                break;
+            }
+        }
+
+        if (result == null || result != 0) {
+            String ticketName = result == null || result < 0 ? "this event" : names.get(ticketTypeIDs.get(result.intValue() - 1));
+            throw new RuntimeException("Ticket not available for " + ticketName +
+                    ". Please lower the quantity and try again");
+        }
+    }
+
+    public void release(Integer profileID) {
+        settle(profileID, Map.of(), true, "");
+    }
+
+    public void commit(Integer profileID, List<TicketDTO> tickets) {
+        Map<Integer, Integer> sold = lines(tickets);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            settle(profileID, sold, false, "");
+            return;
+        }
+
+        sold.keySet().forEach(ticketTypeID -> {
+            redisTemplate.opsForValue().increment(committingKey(ticketTypeID.toString()));
+            redisTemplate.expire(committingKey(ticketTypeID.toString()), COMMIT_MARK_TTL);
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    settle(profileID, sold, false, "");
+                }
+                String soldAt = String.valueOf(System.currentTimeMillis());
+                sold.keySet().forEach(ticketTypeID -> {
+                    redisTemplate.opsForValue().decrement(committingKey(ticketTypeID.toString()));
+                    redisTemplate.opsForValue().set(soldAtKey(ticketTypeID.toString()), soldAt, COMMIT_MARK_TTL);
+                });
+            }
+        });
+    }
+
+    public void invalidate(Collection<Integer> ticketTypeIDs) {
+        if (ticketTypeIDs.isEmpty()) {
+            return;
+        }
+        redisTemplate.delete(ticketTypeIDs.stream().map(ticketTypeID -> stockKey(ticketTypeID.toString())).toList());
+    }
+
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.SECONDS)
+    public void expireHolds() {
+        String now = String.valueOf(System.currentTimeMillis());
+        Set<String> expired = redisTemplate.opsForZSet().rangeByScore(HOLD_EXPIRY_KEY, Double.NEGATIVE_INFINITY,
+                Double.parseDouble(now), 0, EXPIRE_BATCH_SIZE);
+        if (expired == null || expired.isEmpty()) {
+            return;
+        }
+
+        int released = 0;
+        for (String hold : expired) {
+            if (settle(hold, Map.of(), true, now) > 0) {
+                released++;
+            }
+        }
+
+        if (released > 0) {
+            log.info("Returned {} expired ticket holds to stock", released);
+        }
+    }
+
+    @Scheduled(fixedDelay = 10, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void reconcileStock() {
+        long readAt = System.currentTimeMillis();
+        var availability = context.select(TICKETTYPES.TICKET_TYPE_ID, TICKETTYPES.AVAILABLE_QUANTITY)
+                .from(TICKETTYPES)
+                .where(TICKETTYPES.SALE_END_TIME.gt(OffsetDateTime.now()))
+                .fetch();
+
+        Long corrected = syncStock(availability, true, readAt);
+
+        if (corrected != null && corrected > 0) {
+            log.warn("Reconciled {} ticket stock counters against TICKETTYPES", corrected);
+        }
+    }
+
+    private long settle(Integer profileID, Map<Integer, Integer> sold, boolean handBack, String expiredBy) {
+        return settle(holdKey(profileID), sold, handBack, expiredBy);
+    }
+
+    private long settle(String hold, Map<Integer, Integer> sold, boolean handBack, String expiredBy) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Map<String, Integer> lines = new LinkedHashMap<>();
+            sold.forEach((ticketTypeID, quantity) -> lines.put(ticketTypeID.toString(), quantity));
+            redisTemplate.<String, String>opsForHash().keys(hold).forEach(ticketTypeID -> lines.putIfAbsent(ticketTypeID, 0));
+
+            List<String> keys = new ArrayList<>(lines.size() * 2 + 2);
+            keys.add(hold);
+            keys.add(HOLD_EXPIRY_KEY);
+            List<String> args = new ArrayList<>(lines.size() * 2 + 2);
+            args.add(handBack ? "1" : "0");
+            args.add(expiredBy);
+            lines.forEach((ticketTypeID, quantity) -> {
+                keys.add(stockKey(ticketTypeID));
+                keys.add(heldKey(ticketTypeID));
+                args.add(ticketTypeID);
+                args.add(quantity.toString());
+            });
+
+            Long released = redisTemplate.execute(RELEASE_SCRIPT, keys, args.toArray());
+            if (released == null || released >= 0) {
+                return released == null ? 0 : released;
+            }
+        }
+
+        log.warn("Hold {} kept changing while being released, leaving it to expire", hold);
+        return 0;
+    }
+
+    private Set<String> heldTicketTypes(Integer profileID) {
+        return redisTemplate.<String, String>opsForHash().keys(holdKey(profileID));
+    }
+
+    private void seedStock(List<Integer> ticketTypeIDs) {
+        var availability = context.select(TICKETTYPES.TICKET_TYPE_ID, TICKETTYPES.AVAILABLE_QUANTITY)
+                .from(TICKETTYPES)
+                .where(TICKETTYPES.TICKET_TYPE_ID.in(ticketTypeIDs))
+                .fetch();
+
+        syncStock(availability, false, System.currentTimeMillis());
+    }
+
+    private Long syncStock(List<Record2<Integer, Integer>> availability, boolean overwrite, long readAt) {
+        if (availability.isEmpty()) {
+            return 0L;
+        }
+
+        List<String> keys = new ArrayList<>(availability.size() * 4);
+        List<String> args = new ArrayList<>(availability.size() * 2 + 2);
+        args.add(overwrite ? "1" : "0");
+        args.add(String.valueOf(readAt - CLOCK_SKEW_MILLIS));
+        availability.forEach(record -> {
+            String ticketTypeID = record.value1().toString();
+            keys.add(stockKey(ticketTypeID));
+            keys.add(heldKey(ticketTypeID));
+            keys.add(committingKey(ticketTypeID));
+            keys.add(soldAtKey(ticketTypeID));
+            args.add(ticketTypeID);
+            args.add(String.valueOf(Optional.ofNullable(record.value2()).orElse(0)));
+        });
+
+        return redisTemplate.execute(SYNC_SCRIPT, keys, args.toArray());
+    }
+
+    private static Map<Integer, Integer> lines(List<TicketDTO> tickets) {
+        Map<Integer, Integer> lines = new LinkedHashMap<>();
+        tickets.forEach(ticket -> lines.merge(ticket.getTicketTypeID(), ticket.getQuantity(), Integer::sum));
+        return lines;
+    }
+
+    static String holdKey(Integer profileID) {
+        return KEY_TAG + "reserved-for-" + profileID;
+    }
+
+    static String stockKey(String ticketTypeID) {
+        return KEY_TAG + "ticket-stock-" + ticketTypeID;
+    }
+
+    static String heldKey(String ticketTypeID) {
+        return KEY_TAG + "ticket-held-" + ticketTypeID;
+    }
+
+    private static String committingKey(String ticketTypeID) {
+        return KEY_TAG + "ticket-committing-" + ticketTypeID;
+    }
+
+    private static String soldAtKey(String ticketTypeID) {
+        return KEY_TAG + "ticket-sold-at-" + ticketTypeID;
+    }
+
+    private static RedisScript<Long> script(String path) {
+        return RedisScript.of(new ClassPathResource(path), Long.class);
+    }
+}
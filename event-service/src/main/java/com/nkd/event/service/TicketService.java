@@ -1,49 +1,62 @@
 package com.nkd.event.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nkd.event.dto.*;
+import com.nkd.event.enumeration.EventOperationType;
+import com.nkd.event.event.EventOperation;
 import com.nkd.event.tables.records.DiscountcodesRecord;
-import com.nkd.event.utils.CommonUtils;
 import com.nkd.event.utils.EventUtils;
 import com.nkd.event.utils.ResponseCode;
-import com.openhtmltopdf.outputdevice.helper.BaseRendererBuilder;
-import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
 import org.jooq.JSONB;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.util.Pair;
 import org.springframework.http.*;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import static com.nkd.event.Tables.*;
+import static org.jooq.impl.DSL.any;
 
 @RequiredArgsConstructor
 @Service
 @Slf4j
 public class TicketService {
 
+    private static final DateTimeFormatter TICKET_DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
     private final DSLContext context;
-    private final TemplateEngine templateEngine;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final TicketReservationService reservationService;
+    private final SeatHoldManager seatHoldManager;
+    private final PriceSummaryService priceSummaryService;
+    private final TicketPdfRenderer ticketPdfRenderer;
+    private final ObjectMapper mapper;
+    private final ApplicationEventPublisher publisher;
 
     public Response addTicket(String eventID, TicketDTO ticket, Integer timezone, Boolean isRecurring) {
         Integer ticketID = saveTicket(eventID, ticket, timezone, isRecurring);
+        priceSummaryService.invalidate(UUID.fromString(eventID));
         return new Response(HttpStatus.OK.name(), "OK", ticketID);
     }
 
@@ -136,7 +149,7 @@ public class TicketService {
                 """.formatted(currency, currencySymbol, currencyFullForm)
         );
 
-        int rowsUpdated = context.update(TICKETTYPES)
+        var updatedEvent = context.update(TICKETTYPES)
                 .set(TICKETTYPES.TICKET_TYPE, ticketDTO.getTicketType())
                 .set(TICKETTYPES.NAME, ticketDTO.getTicketName())
                 .set(TICKETTYPES.QUANTITY, ticketDTO.getQuantity())
@@ -155,9 +168,13 @@ public class TicketService {
                 .set(TICKETTYPES.UPDATED_AT, OffsetDateTime.now())
                 .set(TICKETTYPES.CURRENCY, currencyData)
                 .where(TICKETTYPES.TICKET_TYPE_ID.eq(ticketID))
-                .execute();
+                .returningResult(TICKETTYPES.EVENT_ID)
+                .fetchOptional(TICKETTYPES.EVENT_ID);
+
+        reservationService.invalidate(List.of(ticketID));
+        updatedEvent.ifPresent(priceSummaryService::invalidate);
 
-        if (rowsUpdated > 0) {
+        if (updatedEvent.isPresent()) {
             return new Response(HttpStatus.OK.name(), "Ticket updated successfully", null);
         } else {
             return new Response(HttpStatus.NOT_FOUND.name(), "Ticket not found", null);
@@ -166,9 +183,10 @@ public class TicketService {
 
     @Transactional
     public Response deleteTicket(Integer ticketID, Boolean isRecurring) {
-        int rowsDeleted = context.deleteFrom(TICKETTYPES)
+        var deletedEvent = context.deleteFrom(TICKETTYPES)
                 .where(TICKETTYPES.TICKET_TYPE_ID.eq(ticketID))
-                .execute();
+                .returningResult(TICKETTYPES.EVENT_ID)
+                .fetchOptional(TICKETTYPES.EVENT_ID);
 
         if(isRecurring){
             context.deleteFrom(TICKETTYPEOCCURRENCES)
@@ -176,7 +194,10 @@ public class TicketService {
                     .execute();
         }
 
-        if (rowsDeleted > 0) {
+        reservationService.invalidate(List.of(ticketID));
+        deletedEvent.ifPresent(priceSummaryService::invalidate);
+
+        if (deletedEvent.isPresent()) {
             return new Response(HttpStatus.OK.name(), "Ticket deleted successfully", null);
         } else {
             return new Response(HttpStatus.NOT_FOUND.name(), "Ticket not found", null);
@@ -214,33 +235,24 @@ public class TicketService {
             generatedTicketIDs = insertTickets.returningResult(TICKETS.TICKET_ID).fetch().getValues(TICKETS.TICKET_ID);
         }
         else {
-            generatedTicketIDs = new ArrayList<>();
-            for (String ticketTierID : ticketTierIDs) {
-                TicketDTO ticket = tickets.stream()
-                        .filter(t -> t.getTicketTypeID() != null)
-                        .findFirst()
-                        .orElse(tickets.getFirst());
-
-                Integer orderItemID = orderItemIDs.getFirst();
-
-                Integer ticketId = context.update(TICKETS)
-                        .set(TICKETS.ORDER_ITEM_ID, orderItemID)
-                        .set(TICKETS.EVENT_ID, eventUUID)
-                        .set(TICKETS.USER_ID, userID)
-                        .set(TICKETS.PROFILE_ID, profileID)
-                        .set(TICKETS.PURCHASE_DATE, OffsetDateTime.now())
-                        .set(TICKETS.TICKET_TYPE_ID, ticket.getTicketTypeID())
-                        .set(TICKETS.STATUS, "reserved")
-                        .where(TICKETS.SEAT_IDENTIFIER.eq(ticketTierID))
-                        .returningResult(TICKETS.TICKET_ID)
-                        .fetchOneInto(Integer.class);
-
-                generatedTicketIDs.add(ticketId);
-            }        }
+            generatedTicketIDs = context.update(TICKETS)
+                    .set(TICKETS.ORDER_ITEM_ID, orderItemIDs.getFirst())
+                    .where(TICKETS.EVENT_ID.eq(eventUUID)
+                            .and(TICKETS.SEAT_IDENTIFIER.eq(any(ticketTierIDs.toArray(new String[0]))))
+                            .and(TICKETS.PROFILE_ID.eq(profileID))
+                            .and(TICKETS.STATUS.eq("reserved"))
+                            .and(TICKETS.ORDER_ITEM_ID.isNull()))
+                    .returningResult(TICKETS.TICKET_ID)
+                    .fetchInto(Integer.class);
+
+            if (generatedTicketIDs.size() != ticketTierIDs.size()) {
+                log.error("Order {} linked {} of its {} claimed seats", orderID, generatedTicketIDs.size(), ticketTierIDs.size());
+            }
+        }
 
         var insertAttendees = context.insertInto(ATTENDEES, ATTENDEES.EVENT_ID, ATTENDEES.USER_ID, ATTENDEES.PROFILE_ID, ATTENDEES.TICKET_ID);
 
-        for (int i = 0; i < tickets.size(); i++) {
+        for (int i = 0; i < Math.min(tickets.size(), generatedTicketIDs.size()); i++) {
             insertAttendees = insertAttendees.values(eventUUID, userID, profileID, generatedTicketIDs.get(i));
         }
 
@@ -252,11 +264,55 @@ public class TicketService {
                     .where(TICKETTYPES.TICKET_TYPE_ID.eq(ticket.getTicketTypeID()))
                     .execute();
         }
+
+        if (!isReserve) {
+            reservationService.commit(profileID, tickets);
+        }
+
+        // Published last so the ledger listener runs once ORDERITEMS and TICKETS are committed.
+        publisher.publishEvent(EventOperation.builder()
+                .data(Map.of("orderID", orderID))
+                .type(EventOperationType.SALE)
+                .build());
+    }
+
+    public void claimSeats(String eventID, List<String> seatIDs, Integer userID, Integer profileID, List<TicketDTO> tickets) {
+        UUID eventUUID = UUID.fromString(eventID);
+        Integer ticketTypeID = tickets.stream()
+                .map(TicketDTO::getTicketTypeID)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+
+        seatHoldManager.confirm(eventID, seatIDs, () -> {
+            List<Integer> availableTicketIDs = context.select(TICKETS.TICKET_ID)
+                    .from(TICKETS)
+                    .where(TICKETS.EVENT_ID.eq(eventUUID)
+                            .and(TICKETS.SEAT_IDENTIFIER.eq(any(seatIDs.toArray(new String[0]))))
+                            .and(TICKETS.STATUS.eq("available")))
+                    .forUpdate()
+                    .fetchInto(Integer.class);
+
+            if (availableTicketIDs.size() != seatIDs.size()) {
+                throw new IllegalStateException("Seats are no longer available");
+            }
+
+            context.update(TICKETS)
+                    .setNull(TICKETS.ORDER_ITEM_ID)
+                    .set(TICKETS.USER_ID, userID)
+                    .set(TICKETS.PROFILE_ID, profileID)
+                    .set(TICKETS.PURCHASE_DATE, OffsetDateTime.now())
+                    .set(TICKETS.TICKET_TYPE_ID, ticketTypeID)
+                    .set(TICKETS.STATUS, "reserved")
+                    .where(TICKETS.TICKET_ID.in(availableTicketIDs))
+                    .execute();
+        });
     }
 
     public List<Map<String, Object>> getOrderTicket(Integer orderID) {
         return context.select(TICKETTYPES.NAME, ORDERITEMS.PRICE, ORDERITEMS.QUANTITY, TICKETS.TICKET_ID, TICKETS.PURCHASE_DATE, EVENTS.ORGANIZER_ID,
-                        SEATTIERS.NAME.as("tier_name"), SEATTIERS.PERKS, SEATMAP.MAP_URL, SEATTIERS.TIER_COLOR, TICKETS.SEAT_IDENTIFIER, EVENTS.REFUND_POLICY, PAYMENTS.CURRENCY, EVENTS.END_TIME)
+                        SEATTIERS.NAME.as("tier_name"), SEATTIERS.PERKS, SEATMAP.MAP_URL, SEATTIERS.TIER_COLOR, TICKETS.SEAT_IDENTIFIER, EVENTS.REFUND_POLICY, PAYMENTS.CURRENCY, EVENTS.END_TIME,
+                        EVENTS.EVENT_ID, EVENTS.NAME.as("event_name"), EVENTS.IMAGES, EVENTS.START_TIME, EVENTS.LOCATION, EVENTS.TIMEZONE, ORDERS.CREATED_AT.as("order_date"))
                 .from(ORDERS.join(ORDERITEMS).on(ORDERS.ORDER_ID.eq(ORDERITEMS.ORDER_ID))
                         .join(TICKETS).on(ORDERITEMS.ORDER_ITEM_ID.eq(TICKETS.ORDER_ITEM_ID))
                         .join(TICKETTYPES).on(TICKETS.TICKET_TYPE_ID.eq(TICKETTYPES.TICKET_TYPE_ID))
@@ -270,14 +326,16 @@ public class TicketService {
 
     @Async("taskExecutor")
     protected void cleanUpOnDeleteOrder(Integer orderID, Integer profileID) {
+        List<Integer> ticketTypeIDs = context.selectDistinct(TICKETS.TICKET_TYPE_ID)
+                .from(TICKETS).join(ORDERITEMS).on(TICKETS.ORDER_ITEM_ID.eq(ORDERITEMS.ORDER_ITEM_ID))
+                .where(ORDERITEMS.ORDER_ID.eq(orderID))
+                .fetchInto(Integer.class);
+
         context.update(TICKETTYPES)
                 .set(TICKETTYPES.AVAILABLE_QUANTITY, TICKETTYPES.QUANTITY)
-                .where(TICKETTYPES.TICKET_TYPE_ID.in(
-                        context.select(TICKETS.TICKET_TYPE_ID)
-                                .from(TICKETS).join(ORDERITEMS).on(TICKETS.ORDER_ITEM_ID.eq(ORDERITEMS.ORDER_ITEM_ID))
-                                .where(ORDERITEMS.ORDER_ID.eq(orderID))
-                ))
+                .where(TICKETTYPES.TICKET_TYPE_ID.in(ticketTypeIDs))
                 .execute();
+        reservationService.invalidate(ticketTypeIDs);
         context.deleteFrom(ATTENDEES)
                 .where(ATTENDEES.PROFILE_ID.eq(profileID))
                 .execute();
@@ -285,16 +343,7 @@ public class TicketService {
 
     public ResponseEntity<?> downloadTicket(PrintTicketDTO ticket) {
         try {
-            Context context = new Context();
-            context.setVariable("ticket", ticket);
-            context.setVariable("eventImg", CommonUtils.convertUrlToDataUri(ticket.getEventImg()));
-            byte[] qrBytes = EventUtils.generateTicketQRCode(ticket.getTicketID(), ticket.getEventID(), ticket.getOrderID());
-            String qrDataUri = "data:image/png;base64," + Base64.getEncoder().encodeToString(qrBytes);
-            context.setVariable("qrCode", qrDataUri);
-            context.setVariable("printDate", OffsetDateTime.now().format(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm")));
-            String htmlContent = templateEngine.process("print_ticket", context);
-
-            byte[] pdfBytes = getPdfBytes(htmlContent);
+            byte[] pdfBytes = ticketPdfRenderer.render(ticket);
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
@@ -302,21 +351,105 @@ public class TicketService {
             headers.setContentLength(pdfBytes.length);
 
             return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+        } catch (RejectedExecutionException e) {
+            log.warn("Ticket rendering is saturated: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").body(null);
         } catch (Exception e) {
             log.error("Error generating ticket", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
-    private byte @NotNull [] getPdfBytes(String htmlContent) throws IOException {
-        ByteArrayOutputStream pdfStream = new ByteArrayOutputStream();
-        PdfRendererBuilder builder = new PdfRendererBuilder();
-        builder.withHtmlContent(htmlContent, new ClassPathResource("templates/").getURL().toString());
-        builder.toStream(pdfStream);
-        builder.useFont(new File("D:\\Web projects\\microservices\\tixery-be\\event-service\\src\\main\\resources\\templates\\Nunito-VariableFont_wght.ttf"), "Nunito");
-        builder.run();
+    public ResponseEntity<StreamingResponseBody> downloadOrderTickets(Integer orderID, Integer userID) {
+        boolean owned = userID != null
+                && context.fetchExists(ORDERS, ORDERS.ORDER_ID.eq(orderID).and(ORDERS.USER_ID.eq(userID)));
+        if (!owned) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        List<Map<String, Object>> lines = getOrderTicket(orderID);
+        if (lines.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
 
-        return pdfStream.toByteArray();
+        List<PrintTicketDTO> tickets = lines.stream().map(line -> toPrintTicket(orderID, line)).toList();
+
+        Path pdf;
+        try {
+            pdf = ticketPdfRenderer.renderOrder(tickets);
+        } catch (RejectedExecutionException e) {
+            log.warn("Ticket rendering is saturated: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").body(null);
+        } catch (IOException e) {
+            log.error("Error spooling tickets for order {}", orderID, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDisposition(ContentDisposition.attachment().filename("order-" + orderID + ".pdf").build());
+        headers.setContentLength(pdf.toFile().length());
+
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(pdf, out);
+            } finally {
+                Files.deleteIfExists(pdf);
+            }
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    private PrintTicketDTO toPrintTicket(Integer orderID, Map<String, Object> line) {
+        ZoneId zone = eventZone((String) line.get("timezone"));
+        String[] images = (String[]) line.get("images");
+        BigDecimal price = (BigDecimal) line.get("price");
+        OffsetDateTime startTime = (OffsetDateTime) line.get("start_time");
+        OffsetDateTime orderDate = (OffsetDateTime) line.get("order_date");
+
+        return new PrintTicketDTO(
+                images != null && images.length > 0 ? images[0] : null,
+                (String) line.get("event_name"),
+                startTime != null ? startTime.atZoneSameInstant(zone).format(TICKET_DATE) : "",
+                orderDate != null ? orderDate.atZoneSameInstant(zone).format(TICKET_DATE) : "",
+                locationName((JSONB) line.get("location")),
+                (String) line.get("name"),
+                String.valueOf(line.get("quantity")),
+                Objects.toString(line.get("currency"), ""),
+                price != null ? price.floatValue() : 0,
+                orderID,
+                (Integer) line.get("ticket_id"),
+                String.valueOf(line.get("event_id")));
+    }
+
+    private static ZoneId eventZone(String timezone) {
+        if (timezone == null || timezone.isBlank()) {
+            return ZoneOffset.UTC;
+        }
+        try {
+            return ZoneId.of(timezone.trim());
+        } catch (DateTimeException e) {
+            try {
+                return ZoneOffset.ofHours(Integer.parseInt(timezone.trim()));
+            } catch (RuntimeException ignored) {
+                return ZoneOffset.UTC;
+            }
+        }
+    }
+
+    private String locationName(JSONB location) {
+        if (location == null) {
+            return "";
+        }
+        try {
+            JsonNode node = mapper.readTree(location.data());
+            if ("online".equals(node.path("locationType").asText())) {
+                return "Online";
+            }
+            return node.path("location").asText(node.path("name").asText(""));
+        } catch (JsonProcessingException e) {
+            return "";
+        }
     }
 
     public Response activateCoupon(Integer profileID, List<CouponDTO> coupon) {
@@ -386,6 +519,7 @@ public class TicketService {
         }).toList();
 
         List<Integer> ticketIDs = tierTickets.stream().map(ticket -> saveTicket(eventID, ticket, timezone, false)).toList();
+        priceSummaryService.invalidate(UUID.fromString(eventID));
 
         return new Response(HttpStatus.OK.name(), "OK", ticketIDs);
     }
@@ -0,0 +1,194 @@
+package com.nkd.event.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nkd.event.dto.UserInteraction;
+import com.nkd.event.utils.WriteBehindBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.nkd.event.Tables.USERINTERACTIONS;
+
+@Slf4j
+@Component
+public class UserInteractionRecorder {
+
+    private static final int CAPACITY = 1 << 16;
+    private static final int BATCH_SIZE = 1000;
+
+    private final DSLContext context;
+    private final ObjectMapper mapper;
+    private final Path spillFile;
+    private final WriteBehindBuffer<Interaction> buffer;
+    private BufferedWriter spillWriter;
+
+    public UserInteractionRecorder(DSLContext context, ObjectMapper mapper, MeterRegistry meterRegistry,
+                                   @Value("${interaction.spill-file:}") String spillFile) {
+        this.context = context;
+        this.mapper = mapper;
+        this.spillFile = spillFile.isBlank() ? null : Path.of(spillFile);
+        this.buffer = new WriteBehindBuffer<>("user-interactions", CAPACITY, BATCH_SIZE, this::write, meterRegistry);
+    }
+
+    public void record(UserInteraction userInteraction) {
+        Interaction interaction = new Interaction(userInteraction.getProfileID(), UUID.fromString(userInteraction.getEventID()),
+                userInteraction.getType(), userInteraction.getStrength(), userInteraction.getOrganizerID(), LocalDateTime.now());
+
+        if (!buffer.offer(interaction)) {
+            spill(List.of(interaction));
+        }
+    }
+
+    @Scheduled(fixedDelay = 500, timeUnit = TimeUnit.MILLISECONDS)
+    public void flush() {
+        buffer.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        buffer.flush();
+        closeSpill();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replaySpill() {
+        if (spillFile == null) {
+            return;
+        }
+
+        Path replayFile = spillFile.resolveSibling(spillFile.getFileName() + ".replay");
+        try {
+            rotateSpill(replayFile);
+            if (!Files.exists(replayFile)) {
+                return;
+            }
+
+            List<Interaction> batch = new ArrayList<>(BATCH_SIZE);
+            int replayed = 0;
+            int skipped = 0;
+            try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        batch.add(mapper.readValue(line, Interaction.class));
+                    } catch (JsonProcessingException e) {
+                        skipped++;
+                        continue;
+                    }
+                    if (batch.size() == BATCH_SIZE) {
+                        write(batch);
+                        replayed += batch.size();
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                replayed += batch.size();
+            }
+            Files.delete(replayFile);
+            log.info("Replayed {} spilled user interactions, skipped {} malformed lines", replayed, skipped);
+        } catch (IOException e) {
+            log.error("Error replaying spilled user interactions from {}: {}", replayFile, e.getMessage());
+        }
+    }
+
+    private void write(List<Interaction> interactions) {
+        var insert = context.insertInto(USERINTERACTIONS, USERINTERACTIONS.PROFILE_ID, USERINTERACTIONS.EVENT_ID,
+                USERINTERACTIONS.INTERACTION_TYPE, USERINTERACTIONS.INTERACTION_STRENGTH, USERINTERACTIONS.ORGANIZER_ID,
+                USERINTERACTIONS.TIMESTAMP);
+        for (Interaction interaction : interactions) {
+            insert = insert.values(interaction.profileID(), interaction.eventID(), interaction.type(),
+                    interaction.strength(), interaction.organizerID(), interaction.timestamp());
+        }
+
+        try {
+            insert.execute();
+        } catch (RuntimeException e) {
+            if (!spill(interactions)) {
+                throw e;
+            }
+            log.warn("Spilled {} user interactions after failed write: {}", interactions.size(), e.getMessage());
+        }
+    }
+
+    private synchronized boolean spill(List<Interaction> interactions) {
+        if (spillFile == null) {
+            return false;
+        }
+
+        try {
+            if (spillWriter == null) {
+                spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (Interaction interaction : interactions) {
+                spillWriter.write(mapper.writeValueAsString(interaction));
+                spillWriter.newLine();
+            }
+            spillWriter.flush();
+            return true;
+        } catch (IOException e) {
+            log.error("Error spilling {} user interactions to {}: {}", interactions.size(), spillFile, e.getMessage());
+            closeSpill();
+            return false;
+        }
+    }
+
+    // Hands the spill file over to replay, appending to a replay file a previous run left unfinished.
+    private synchronized void rotateSpill(Path replayFile) throws IOException {
+        closeSpill();
+        if (!Files.exists(spillFile)) {
+            return;
+        }
+
+        if (Files.exists(replayFile)) {
+            try (OutputStream out = Files.newOutputStream(replayFile, StandardOpenOption.APPEND)) {
+                Files.copy(spillFile, out);
+            }
+            Files.delete(spillFile);
+        } else {
+            Files.move(spillFile, replayFile);
+        }
+    }
+
+    private synchronized void closeSpill() {
+        if (spillWriter == null) {
+            return;
+        }
+        try {
+            spillWriter.close();
+        } catch (IOException e) {
+            log.warn("Error closing spill file {}: {}", spillFile, e.getMessage());
+        }
+        spillWriter = null;
+    }
+
+    record Interaction(Integer profileID, UUID eventID, String type, BigDecimal strength, Integer organizerID,
+                       LocalDateTime timestamp) {}
+}
@@ -0,0 +1,78 @@
+package com.nkd.event.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.ToIntFunction;
+
+public class BoundedCache<K, V> {
+
+    private final long maxWeight;
+    private final long ttlMillis;
+    private final ToIntFunction<V> weigher;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    public BoundedCache(long maxWeight, long ttlMillis, ToIntFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.ttlMillis = ttlMillis;
+        this.weigher = weigher;
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        int weight = weigher.applyAsInt(value);
+        if (weight > maxWeight / 4) {
+            return;
+        }
+
+        remove(key);
+        entries.put(key, new Entry<>(value, weight, System.currentTimeMillis() + ttlMillis));
+        totalWeight += weight;
+
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (totalWeight > maxWeight && eldest.hasNext()) {
+            totalWeight -= eldest.next().weight();
+            eldest.remove();
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        remove(key);
+    }
+
+    public synchronized void evictExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry<V> entry = iterator.next();
+            if (entry.expiresAt() <= now) {
+                totalWeight -= entry.weight();
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized long weight() {
+        return totalWeight;
+    }
+
+    private void remove(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight();
+        }
+    }
+
+    private record Entry<V>(V value, int weight, long expiresAt) {}
+}
@@ -0,0 +1,102 @@
+package com.nkd.event.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+public class ExportWriter implements Flushable {
+
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    public enum Format {
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        NDJSON("ndjson", new MediaType("application", "x-ndjson", StandardCharsets.UTF_8));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public static Format of(String value) {
+            return value != null && value.equalsIgnoreCase("ndjson") ? NDJSON : CSV;
+        }
+    }
+
+    private final Format format;
+    private final List<String> columns;
+    private final ObjectMapper mapper;
+    private final Writer writer;
+    private int pendingRows;
+
+    public ExportWriter(OutputStream out, Format format, List<String> columns, ObjectMapper mapper) throws IOException {
+        this.format = format;
+        this.columns = columns;
+        this.mapper = mapper;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writeCsvLine(columns);
+        }
+    }
+
+    public static ResponseEntity<StreamingResponseBody> attachment(String name, Format format, StreamingResponseBody body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(format.mediaType);
+        headers.setContentDisposition(ContentDisposition.attachment().filename(name + "." + format.extension).build());
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    public Format format() {
+        return format;
+    }
+
+    public void write(Map<String, Object> row) throws IOException {
+        if (format == Format.NDJSON) {
+            writer.write(mapper.writeValueAsString(row));
+            writer.write('\n');
+        } else {
+            writeCsvLine(columns.stream().map(row::get).toList());
+        }
+        if (++pendingRows >= FLUSH_EVERY_ROWS) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        pendingRows = 0;
+        writer.flush();
+    }
+
+    private void writeCsvLine(List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,113 @@
+package com.nkd.event.utils;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class GeoHash {
+
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    private static final String ALPHABET = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final char[] BASE32 = ALPHABET.toCharArray();
+
+    public static String encode(double lat, double lon, int precision) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0, index = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (lon >= mid) {
+                    index = index * 2 + 1;
+                    minLon = mid;
+                } else {
+                    index = index * 2;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    index = index * 2 + 1;
+                    minLat = mid;
+                } else {
+                    index = index * 2;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32[index]);
+                bit = 0;
+                index = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    public static double[] center(String hash) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        boolean evenBit = true;
+
+        for (char c : hash.toCharArray()) {
+            int index = ALPHABET.indexOf(c);
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = (index >> bit & 1) == 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) {
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[]{(minLat + maxLat) / 2, (minLon + maxLon) / 2};
+    }
+
+    public static Set<String> cellWithNeighbours(double lat, double lon, int precision) {
+        int lonBits = (precision * 5 + 1) / 2;
+        int latBits = precision * 5 / 2;
+        double cellWidth = 360.0 / (1L << lonBits);
+        double cellHeight = 180.0 / (1L << latBits);
+
+        Set<String> cells = new LinkedHashSet<>();
+        cells.add(encode(lat, lon, precision));
+        for (int dLat = -1; dLat <= 1; dLat++) {
+            for (int dLon = -1; dLon <= 1; dLon++) {
+                double neighbourLat = Math.max(-90, Math.min(90 - 1e-9, lat + dLat * cellHeight));
+                double neighbourLon = wrapLongitude(lon + dLon * cellWidth);
+                cells.add(encode(neighbourLat, neighbourLon, precision));
+            }
+        }
+        return cells;
+    }
+
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
+    }
+
+    private static double wrapLongitude(double lon) {
+        if (lon >= 180) {
+            return lon - 360;
+        }
+        if (lon < -180) {
+            return lon + 360;
+        }
+        return lon;
+    }
+}
@@ -0,0 +1,140 @@
+package com.nkd.event.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+@Slf4j
+public class WriteBehindBuffer<T> {
+
+    private final String name;
+    private final int capacity;
+    private final int mask;
+    private final int batchSize;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final Consumer<List<T>> writer;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final Counter accepted;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Timer flushTimer;
+
+    public WriteBehindBuffer(String name, int capacity, int batchSize, Consumer<List<T>> writer, MeterRegistry meterRegistry) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Write-behind buffer capacity must be a power of two");
+        }
+
+        this.name = name;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.batchSize = batchSize;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.writer = writer;
+
+        this.accepted = Counter.builder("write.behind.accepted").tag("buffer", name).register(meterRegistry);
+        this.dropped = Counter.builder("write.behind.dropped")
+                .description("Rows rejected because the buffer was full")
+                .tag("buffer", name).register(meterRegistry);
+        this.failed = Counter.builder("write.behind.failed")
+                .description("Rows lost because their batch could not be written")
+                .tag("buffer", name).register(meterRegistry);
+        this.flushTimer = Timer.builder("write.behind.flush.latency")
+                .tag("buffer", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("write.behind.depth", this, WriteBehindBuffer::size)
+                .tag("buffer", name)
+                .register(meterRegistry);
+    }
+
+    public boolean offer(T item) {
+        long position;
+        while (true) {
+            position = tail.get();
+            long sequence = sequences.get((int) (position & mask));
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (sequence < position) {
+                dropped.increment();
+                return false;
+            }
+        }
+
+        int slot = (int) (position & mask);
+        slots.set(slot, item);
+        sequences.set(slot, position + 1);
+        accepted.increment();
+
+        if (position + 1 - head >= batchSize && flushRequested.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("write-behind-" + name).start(this::flush);
+        }
+        return true;
+    }
+
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+    }
+
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+
+        try {
+            flushRequested.set(false);
+            List<T> batch = new ArrayList<>(batchSize);
+            while (drain(batch) > 0) {
+                try {
+                    flushTimer.record(() -> writer.accept(batch));
+                } catch (RuntimeException e) {
+                    failed.increment(batch.size());
+                    log.error("Error flushing {} rows from write-behind buffer {}: {}", batch.size(), name, e.getMessage());
+                }
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int drain(List<T> batch) {
+        long current = head;
+        int count = 0;
+        while (count < batchSize) {
+            int slot = (int) (current & mask);
+            if (sequences.get(slot) != current + 1) {
+                break;
+            }
+            batch.add(slots.get(slot));
+            slots.set(slot, null);
+            sequences.set(slot, current + capacity);
+            current++;
+            count++;
+        }
+        head = current;
+        return count;
+    }
+}
@@ -0,0 +1,25 @@
+-- KEYS[1] search trend counters of one cell and day
+-- KEYS[2] rolling window counters of the same cell
+-- ARGV[1] number of terms kept per day
+-- ARGV[2] day counters ttl in seconds
+-- ARGV[3..n] term / count pairs
+-- Terms trimmed from the day are subtracted from the window as well, so the
+-- window always equals the sum of the day counters it will later roll off.
+for i = 3, #ARGV, 2 do
+    redis.call('ZINCRBY', KEYS[1], ARGV[i + 1], ARGV[i])
+    redis.call('ZINCRBY', KEYS[2], ARGV[i + 1], ARGV[i])
+end
+
+local overflow = redis.call('ZCARD', KEYS[1]) - tonumber(ARGV[1])
+if overflow > 0 then
+    local trimmed = redis.call('ZRANGE', KEYS[1], 0, overflow - 1, 'WITHSCORES')
+    for i = 1, #trimmed, 2 do
+        if tonumber(redis.call('ZINCRBY', KEYS[2], -tonumber(trimmed[i + 1]), trimmed[i])) <= 0 then
+            redis.call('ZREM', KEYS[2], trimmed[i])
+        end
+    end
+    redis.call('ZREMRANGEBYRANK', KEYS[1], 0, overflow - 1)
+end
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+
+return 1
@@ -0,0 +1,11 @@
+-- KEYS[1] sequence counter of one seat map
+-- ARGV[1] relay channel
+-- ARGV[2] delta as a JSON object without its sequence number
+-- Assigning the sequence and publishing in one script keeps every subscriber
+-- seeing deltas in sequence order, even with several instances relaying.
+-- Returns the sequence number the delta was published with.
+local sequence = redis.call('INCR', KEYS[1])
+local message = '{"seq":' .. sequence .. ',' .. string.sub(ARGV[2], 2)
+redis.call('PUBLISH', ARGV[1], message)
+
+return sequence
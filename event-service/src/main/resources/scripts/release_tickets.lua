@@ -0,0 +1,54 @@
+-- KEYS[1] hold hash of the buyer, KEYS[2] hold expiry index
+-- KEYS[3..n] stock / held counter pairs, one pair per ticket type in ARGV
+-- ARGV[1] "1" to hand the held quantities back to stock, "0" when they were sold
+-- ARGV[2] only release a hold that expires at or before this epoch millis ("" for any)
+-- ARGV[3..n] ticket type id / sold quantity pairs covering every line of the hold.
+-- A sale whose hold already expired back to stock takes the sold quantities
+-- out of stock instead. A missing stock counter was invalidated and is left
+-- missing, so that the next reservation reseeds it from TICKETTYPES.
+-- Returns the number of lines released, or -1 when the hold has a line that was
+-- not passed in (the caller re-reads the hold and retries).
+local hold = KEYS[1]
+
+if ARGV[2] ~= '' then
+    local expiry = redis.call('ZSCORE', KEYS[2], hold)
+    if not expiry or tonumber(expiry) > tonumber(ARGV[2]) then
+        return 0
+    end
+end
+
+local position = {}
+for i = 3, #ARGV, 2 do
+    position[ARGV[i]] = i
+end
+
+local lines = redis.call('HGETALL', hold)
+for i = 1, #lines, 2 do
+    if not position[lines[i]] then
+        return -1
+    end
+end
+
+if #lines == 0 then
+    redis.call('ZREM', KEYS[2], hold)
+    if ARGV[1] == '0' then
+        for i = 3, #ARGV, 2 do
+            if redis.call('EXISTS', KEYS[i]) == 1 then
+                redis.call('DECRBY', KEYS[i], ARGV[i + 1])
+            end
+        end
+    end
+    return 0
+end
+
+for i = 1, #lines, 2 do
+    local p = position[lines[i]]
+    if ARGV[1] == '1' and redis.call('EXISTS', KEYS[p]) == 1 then
+        redis.call('INCRBY', KEYS[p], lines[i + 1])
+    end
+    redis.call('DECRBY', KEYS[p + 1], lines[i + 1])
+end
+redis.call('DEL', hold)
+redis.call('ZREM', KEYS[2], hold)
+
+return #lines / 2
@@ -0,0 +1,62 @@
+-- KEYS[1] hold hash of the buyer, KEYS[2] hold expiry index
+-- KEYS[3..n] stock / held counter pairs, one pair per ticket type in ARGV
+-- ARGV[1] hold expiry (epoch millis), ARGV[2..n] ticket type id / quantity pairs:
+-- the requested lines first, then every other line of the buyer's current hold
+-- with quantity 0 so that its counters are declared as well.
+-- Returns 0 when every line is reserved, k when line k is short of stock,
+-- -k when the stock counter of line k has not been seeded yet and -1000000
+-- when the current hold has a line that was not passed in (the caller re-reads
+-- the hold and retries).
+-- Stock counters that were invalidated are left missing when a hold is handed
+-- back, so that they are reseeded from TICKETTYPES instead of holding only the
+-- returned quantity.
+local hold = KEYS[1]
+
+local position = {}
+for i = 2, #ARGV, 2 do
+    position[ARGV[i]] = i
+end
+
+local previous = redis.call('HGETALL', hold)
+for i = 1, #previous, 2 do
+    if not position[previous[i]] then
+        return -1000000
+    end
+end
+
+for i = 1, #previous, 2 do
+    local p = position[previous[i]]
+    if redis.call('EXISTS', KEYS[p + 1]) == 1 then
+        redis.call('INCRBY', KEYS[p + 1], previous[i + 1])
+    end
+    redis.call('DECRBY', KEYS[p + 2], previous[i + 1])
+end
+redis.call('DEL', hold)
+redis.call('ZREM', KEYS[2], hold)
+
+local reserved = false
+for i = 2, #ARGV, 2 do
+    if tonumber(ARGV[i + 1]) > 0 then
+        local stock = redis.call('GET', KEYS[i + 1])
+        if not stock then
+            return -(i / 2)
+        end
+        if tonumber(stock) < tonumber(ARGV[i + 1]) then
+            return i / 2
+        end
+        reserved = true
+    end
+end
+
+for i = 2, #ARGV, 2 do
+    if tonumber(ARGV[i + 1]) > 0 then
+        redis.call('DECRBY', KEYS[i + 1], ARGV[i + 1])
+        redis.call('INCRBY', KEYS[i + 2], ARGV[i + 1])
+        redis.call('HSET', hold, ARGV[i], ARGV[i + 1])
+    end
+end
+if reserved then
+    redis.call('ZADD', KEYS[2], ARGV[1], hold)
+end
+
+return 0
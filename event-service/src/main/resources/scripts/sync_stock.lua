@@ -0,0 +1,31 @@
+-- KEYS[4k-3..4k] stock, held, committing and last-sold keys of the k-th ticket type in ARGV
+-- ARGV[1] "1" to correct counters that already exist, "0" to seed missing ones
+-- ARGV[2] epoch millis at which the availability below was read
+-- ARGV[3..n] ticket type id / available quantity (from TICKETTYPES) pairs
+-- Stock is always the persisted availability minus what is currently held.
+-- Corrections skip ticket types with a sale being committed or committed since
+-- the availability was read, as their held counter and row may disagree.
+-- Returns the number of counters that were written.
+local written = 0
+
+for i = 3, #ARGV, 2 do
+    local k = (i - 1) / 2
+    local stockKey = KEYS[4 * k - 3]
+    local held = tonumber(redis.call('GET', KEYS[4 * k - 2]) or '0')
+    local target = tonumber(ARGV[i + 1]) - held
+    local current = redis.call('GET', stockKey)
+
+    if not current and ARGV[1] == '0' then
+        redis.call('SET', stockKey, target)
+        written = written + 1
+    elseif current and ARGV[1] == '1' and tonumber(current) ~= target then
+        local committing = tonumber(redis.call('GET', KEYS[4 * k - 1]) or '0')
+        local soldAt = tonumber(redis.call('GET', KEYS[4 * k]) or '0')
+        if committing <= 0 and soldAt < tonumber(ARGV[2]) then
+            redis.call('SET', stockKey, target)
+            written = written + 1
+        end
+    end
+end
+
+return written
@@ -0,0 +1,112 @@
+package com.nkd.event.security;
+
+import com.nkd.event.client.AccountClient;
+import com.nkd.event.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+// Prints the per-request cost of JwtFilter next to the previous filter path, which parsed and verified the
+// token four times with a freshly derived key. The same tokens are replayed, as a logged-in user's requests are.
+@EnabledIfEnvironmentVariable(named = "BENCHMARKS", matches = "true")
+class JwtFilterBenchmarkTest {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+    private static final int USERS = 1000;
+    private static final int WARMUP_REQUESTS = 50_000;
+    private static final int MEASURED_REQUESTS = 200_000;
+
+    private final FilterChain chain = (request, response) -> {};
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void filterVerifiesEachTokenOnce() throws Exception {
+        List<String> tokens = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            tokens.add(Jwts.builder()
+                    .subject("user" + i + "@tixery.test")
+                    .claim("role", "USER")
+                    .claim("privileges", "READ,WRITE")
+                    .claim("userID", String.valueOf(i))
+                    .issuedAt(new Date())
+                    .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                    .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                    .compact());
+        }
+
+        JwtService jwtService = new JwtService(mock(RedisTemplate.class));
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        jwtService.init();
+        JwtFilter filter = new JwtFilter();
+        ReflectionTestUtils.setField(filter, "jwtService", jwtService);
+        ReflectionTestUtils.setField(filter, "accountClient", mock(AccountClient.class));
+
+        Request current = token -> {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/event/get");
+            request.addHeader("Authorization", "Bearer " + token);
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            assertTrue(SecurityContextHolder.getContext().getAuthentication() != null);
+            SecurityContextHolder.clearContext();
+        };
+        Request previous = token -> {
+            String email = legacyClaims(token).getSubject();
+            Claims claims = legacyClaims(token);
+            String privileges = claims.get("privileges") + ",ROLE_" + claims.get("role");
+            String username = legacyClaims(token).getSubject();
+            boolean valid = !legacyClaims(token).getExpiration().before(new Date());
+            assertEquals(email, username);
+            assertTrue(valid && !privileges.isEmpty());
+        };
+
+        report("previous filter", previous, tokens);
+        report("cached verification", current, tokens);
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseSignedClaims(token).getPayload();
+    }
+
+    private static void report(String label, Request request, List<String> tokens) throws Exception {
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            request.handle(tokens.get(i % tokens.size()));
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            request.handle(tokens.get(i % tokens.size()));
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%-20s %,10.0f requests/s, %6.2f us per request%n", label,
+                MEASURED_REQUESTS / seconds, seconds * 1e6 / MEASURED_REQUESTS);
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        void handle(String token) throws Exception;
+    }
+}
@@ -0,0 +1,154 @@
+package com.nkd.event.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkMailDispatcherTest {
+
+    private static final String GREYLISTED = "greylisted@tixery.test";
+    private static final String REJECTED = "rejected@tixery.test";
+    private static final String ACCEPTED = "accepted@tixery.test";
+
+    private FakeSmtpServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private BulkMailDispatcher dispatcher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        server = new FakeSmtpServer();
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(server.port());
+
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new BulkMailDispatcher(mailSender, redisTemplate, meterRegistry, "noreply@tixery.test", 1, 50, 0, 3);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        dispatcher.shutdown();
+        server.close();
+    }
+
+    @Test
+    void transientRejectionsAreRetriedAndPermanentOnesAreNot() throws Exception {
+        dispatcher.submit(List.of(GREYLISTED, REJECTED, ACCEPTED), "Event update", "<p>Doors open at 7pm</p>");
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(15);
+        while (messages("sent") + messages("failed") < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(2, messages("sent"));
+        assertEquals(1, messages("failed"));
+        assertEquals(1, (long) meterRegistry.get("bulk.mail.retries").counter().count());
+        assertEquals(List.of(GREYLISTED, ACCEPTED), List.copyOf(server.delivered));
+        assertEquals(1, server.attempts.get(REJECTED).get());
+    }
+
+    private long messages(String result) {
+        return (long) meterRegistry.get("bulk.mail.messages").tag("result", result).counter().count();
+    }
+
+    // Just enough SMTP for JavaMail: greylists GREYLISTED once with a 451 and rejects REJECTED with a 550.
+    private static final class FakeSmtpServer implements Closeable {
+
+        private final ServerSocket socket = new ServerSocket(0);
+        private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        private final Queue<String> delivered = new ConcurrentLinkedQueue<>();
+
+        private FakeSmtpServer() throws IOException {
+            Thread.ofVirtual().start(() -> {
+                while (!socket.isClosed()) {
+                    try {
+                        Socket client = socket.accept();
+                        Thread.ofVirtual().start(() -> converse(client));
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        private int port() {
+            return socket.getLocalPort();
+        }
+
+        private void converse(Socket client) {
+            try (client;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+                 Writer out = new OutputStreamWriter(client.getOutputStream(), StandardCharsets.US_ASCII)) {
+                reply(out, "220 localhost ESMTP");
+                String recipient = null;
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                        reply(out, "250 localhost");
+                    } else if (command.startsWith("RCPT TO:")) {
+                        recipient = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                        int attempt = attempts.computeIfAbsent(recipient, r -> new AtomicInteger()).incrementAndGet();
+                        if (REJECTED.equals(recipient)) {
+                            reply(out, "550 5.1.1 No such user");
+                        } else if (GREYLISTED.equals(recipient) && attempt == 1) {
+                            reply(out, "451 4.7.1 Greylisted, try again later");
+                        } else {
+                            reply(out, "250 OK");
+                        }
+                    } else if (command.equals("DATA")) {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // discard the message body
+                        }
+                        delivered.add(recipient);
+                        reply(out, "250 OK");
+                    } else if (command.equals("QUIT")) {
+                        reply(out, "221 Bye");
+                        return;
+                    } else {
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException ignored) {
+                // client went away
+            }
+        }
+
+        private static void reply(Writer out, String line) throws IOException {
+            out.write(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
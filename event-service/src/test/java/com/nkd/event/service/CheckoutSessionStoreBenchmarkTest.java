@@ -0,0 +1,188 @@
+package com.nkd.event.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.nkd.event.dto.PaymentDTO;
+import com.nkd.event.dto.TicketDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Prints the serialized size and encode/decode cost of a checkout session in the store's typed form next to the
+// Jackson2JsonRedisSerializer setups in RedisConfig: the serializer as configured there, and with the default-typing
+// mapper it builds but never passes in. With REDIS_HOST set, put/get latencies against Redis are printed as well.
+@EnabledIfEnvironmentVariable(named = "BENCHMARKS", matches = "true")
+class CheckoutSessionStoreBenchmarkTest {
+
+    private static final int TICKET_LINES = 8;
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 100_000;
+    private static final int REDIS_ROUNDS = 10_000;
+
+    private static int sinkHash;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final PaymentDTO payment = payment();
+
+    @Test
+    void sizeAndLatencyAgainstRedisConfigSerializers() throws Exception {
+        ObjectWriter writer = mapper.writerFor(CheckoutSessionStore.CheckoutSession.class);
+        ObjectReader reader = mapper.readerFor(CheckoutSessionStore.CheckoutSession.class);
+        CheckoutSessionStore.CheckoutSession session = new CheckoutSessionStore.CheckoutSession(true, payment);
+        Jackson2JsonRedisSerializer<Object> configured = new Jackson2JsonRedisSerializer<>(Object.class);
+        Jackson2JsonRedisSerializer<Object> defaultTyping = new Jackson2JsonRedisSerializer<>(defaultTypingMapper(), Object.class);
+
+        byte[] typed = writer.writeValueAsBytes(session);
+        byte[] untyped = configured.serialize(payment);
+        byte[] polymorphic = defaultTyping.serialize(payment);
+        assertEquals(TICKET_LINES, ((PaymentDTO) defaultTyping.deserialize(polymorphic)).getTickets().size());
+        System.out.printf("serialized size: typed %,d bytes, RedisConfig serializer %,d bytes, with default typing %,d bytes%n",
+                typed.length, untyped.length, polymorphic.length);
+
+        report("typed encode", i -> sink(writer.writeValueAsBytes(session)));
+        report("typed decode", i -> sink(reader.readValue(typed)));
+        report("RedisConfig encode", i -> sink(configured.serialize(payment)));
+        report("RedisConfig decode", i -> sink(configured.deserialize(untyped)));
+        report("default typing encode", i -> sink(defaultTyping.serialize(payment)));
+        report("default typing decode", i -> sink(defaultTyping.deserialize(polymorphic)));
+
+        String host = System.getenv("REDIS_HOST");
+        if (host == null || host.isBlank()) {
+            System.out.println("redis put/get: skipped, REDIS_HOST is not set");
+            return;
+        }
+        redisLatencies(host);
+    }
+
+    private void redisLatencies(String host) throws Exception {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(host,
+                Integer.parseInt(Optional.ofNullable(System.getenv("REDIS_PORT")).orElse("6379")));
+        Optional.ofNullable(System.getenv("REDIS_PASSWORD")).filter(password -> !password.isEmpty())
+                .ifPresent(configuration::setPassword);
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        // The RedisConfig object template, built the same way.
+        RedisTemplate<String, Object> objectTemplate = new RedisTemplate<>();
+        objectTemplate.setConnectionFactory(connectionFactory);
+        objectTemplate.setKeySerializer(new StringRedisSerializer());
+        objectTemplate.setValueSerializer(new Jackson2JsonRedisSerializer<>(Object.class));
+        objectTemplate.afterPropertiesSet();
+
+        StringRedisTemplate stringTemplate = new StringRedisTemplate(connectionFactory);
+        CheckoutSessionStore store = new CheckoutSessionStore(stringTemplate, mapper, new SimpleMeterRegistry(), 0);
+        CheckoutSessionStore nearCached = new CheckoutSessionStore(stringTemplate, mapper, new SimpleMeterRegistry(), 2048);
+        int firstOrderID = 1_000_000_000 + new Random().nextInt(100_000_000);
+        try {
+            redisReport("store put", i -> store.put(firstOrderID + i, true, payment));
+            redisReport("store get", i -> assertTrue(store.get(firstOrderID + i).isPresent()));
+            redisReport("store get, near cache", i -> {
+                if (i == 0) {
+                    IntStream.range(0, 100).forEach(order -> nearCached.put(firstOrderID + order, true, payment));
+                }
+                assertTrue(nearCached.get(firstOrderID + i % 100).isPresent());
+            });
+            redisReport("RedisConfig put", i -> objectTemplate.opsForValue().set(legacyKey(firstOrderID + i), payment));
+            redisReport("RedisConfig get", i -> sink(objectTemplate.opsForValue().get(legacyKey(firstOrderID + i))));
+        } finally {
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < REDIS_ROUNDS; i++) {
+                keys.add("checkout-session-" + (firstOrderID + i));
+                keys.add(legacyKey(firstOrderID + i));
+            }
+            stringTemplate.delete(keys);
+            connectionFactory.destroy();
+        }
+    }
+
+    private static void report(String label, Operation operation) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            operation.run(i);
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            operation.run(i);
+        }
+        System.out.printf("%-24s %8.2f us per session%n", label, (System.nanoTime() - started) / 1000.0 / MEASURED_ROUNDS);
+    }
+
+    private static void redisReport(String label, IntConsumer operation) {
+        long[] samples = new long[REDIS_ROUNDS];
+        for (int i = 0; i < REDIS_ROUNDS; i++) {
+            long started = System.nanoTime();
+            operation.accept(i);
+            samples[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(samples);
+        System.out.printf("%-24s p50 %8.1f us, p99 %8.1f us%n", label,
+                samples[samples.length / 2] / 1000.0, samples[samples.length * 99 / 100] / 1000.0);
+    }
+
+    private static ObjectMapper defaultTypingMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.activateDefaultTyping(
+                BasicPolymorphicTypeValidator.builder().allowIfBaseType(Object.class).build(),
+                ObjectMapper.DefaultTyping.NON_FINAL
+        );
+        return objectMapper;
+    }
+
+    // Mutable lists, as a deserialized checkout request carries; default typing cannot read back immutable ones.
+    private static PaymentDTO payment() {
+        List<TicketDTO> tickets = IntStream.range(0, TICKET_LINES)
+                .mapToObj(line -> TicketDTO.builder()
+                        .ticketTypeID(10_000 + line)
+                        .ticketType("paid")
+                        .ticketName("General Admission " + line)
+                        .quantity(2)
+                        .price("250000")
+                        .currency("VND")
+                        .currencySymbol("₫")
+                        .build())
+                .collect(Collectors.toCollection(ArrayList::new));
+        return PaymentDTO.builder()
+                .email("buyer@tixery.test")
+                .userID(42)
+                .profileID(7)
+                .organizerID(3)
+                .eventID(new UUID(0, 1).toString())
+                .tickets(tickets)
+                .amount(4_000_000L)
+                .quantity((long) TICKET_LINES * 2)
+                .name("Benchmark Night")
+                .currency("VND")
+                .username("Benchmark Buyer")
+                .tierTicketIDs(new ArrayList<>(List.of("101", "102", "103")))
+                .build();
+    }
+
+    private static String legacyKey(int orderID) {
+        return "checkout-benchmark-" + orderID;
+    }
+
+    private static void sink(Object value) {
+        sinkHash ^= System.identityHashCode(value);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run(int round) throws Exception;
+    }
+}
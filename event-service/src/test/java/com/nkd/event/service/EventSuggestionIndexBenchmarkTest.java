@@ -0,0 +1,171 @@
+package com.nkd.event.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jooq.*;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+import static com.nkd.event.Tables.*;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Builds the suggestion index over a synthetic corpus (1M events unless SUGGESTION_BENCHMARK_EVENTS says
+// otherwise, give the forked JVM a few GB of heap) and prints per-keystroke latencies. When BENCHMARK_DB_URL
+// points at an event database, the same corpus is inserted in a rolled-back transaction and the previous SQL
+// path is timed on it as well.
+@EnabledIfEnvironmentVariable(named = "BENCHMARKS", matches = "true")
+class EventSuggestionIndexBenchmarkTest {
+
+    private static final String[] GENRES = {"Rock", "Jazz", "Indie", "Techno", "Classical", "Comedy", "Startup", "Food"};
+    private static final String[] FORMATS = {"Festival", "Night", "Live", "Workshop", "Meetup", "Concert", "Tour", "Fair"};
+    private static final String[] CITIES = {"Hanoi", "Saigon", "Da Nang", "Hue", "Hai Phong", "Can Tho", "Nha Trang", "Da Lat"};
+    private static final String[] VENUES = {"Opera House", "Riverside Hall", "Central Park", "Expo Center", "Old Quarter Stage"};
+    private static final List<String> QUERIES = List.of("r", "ro", "roc", "rock", "rock fes", "jazz night", "hanoi",
+            "da lat", "tech", "comedy sai", "food fair 12", "opera");
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 1000;
+
+    private final int events = Integer.parseInt(Optional.ofNullable(System.getenv("SUGGESTION_BENCHMARK_EVENTS")).orElse("1000000"));
+
+    @Test
+    void indexAnswersKeystrokesFasterThanTheSqlPath() {
+        EventSuggestionIndex index = new EventSuggestionIndex(corpusContext(), new ObjectMapper());
+        long started = System.nanoTime();
+        index.rebuild();
+        System.out.printf("index build: %d events in %d ms%n", events, (System.nanoTime() - started) / 1_000_000);
+        assertFalse(index.suggest("rock", 0, null, null).isEmpty());
+
+        report("index, any location", query -> index.suggest(query, 0, null, null));
+        report("index, nearby", query -> index.suggest(query, 2, 21.03, 105.85));
+
+        String url = System.getenv("BENCHMARK_DB_URL");
+        if (url == null || url.isBlank()) {
+            System.out.println("sql path: skipped, BENCHMARK_DB_URL is not set");
+            return;
+        }
+        try (CloseableDSLContext database = DSL.using(url, System.getenv("BENCHMARK_DB_USER"), System.getenv("BENCHMARK_DB_PASSWORD"))) {
+            database.transaction(configuration -> {
+                DSLContext tx = configuration.dsl();
+                insertCorpus(tx);
+                report("sql path", query -> sqlSuggestions(tx, query));
+                throw new RolledBack();
+            });
+        } catch (RolledBack expected) {
+            // the synthetic corpus is never committed
+        }
+    }
+
+    private void report(String label, Function<String, List<Map<String, Object>>> suggest) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            QUERIES.forEach(suggest::apply);
+        }
+
+        long[] samples = new long[MEASURED_ROUNDS * QUERIES.size()];
+        int n = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            for (String query : QUERIES) {
+                long started = System.nanoTime();
+                suggest.apply(query);
+                samples[n++] = System.nanoTime() - started;
+            }
+        }
+        Arrays.sort(samples);
+        System.out.printf("%-20s p50 %8.1f us, p99 %8.1f us, max %8.1f us%n", label,
+                samples[samples.length / 2] / 1000.0, samples[samples.length * 99 / 100] / 1000.0,
+                samples[samples.length - 1] / 1000.0);
+    }
+
+    private DSLContext corpusContext() {
+        Field<String> category = CATEGORIES.NAME.as("category");
+        Field<Double> lat = DSL.field(DSL.name("lat"), Double.class);
+        Field<Double> lon = DSL.field(DSL.name("lon"), Double.class);
+        DSLContext create = DSL.using(SQLDialect.POSTGRES);
+        OffsetDateTime start = OffsetDateTime.now().plusDays(1);
+
+        Result<Record9<UUID, String, String, String, JSONB, OffsetDateTime, String, Double, Double>> corpus = create.newResult(
+                EVENTS.EVENT_ID, EVENTS.NAME, EVENTS.SHORT_DESCRIPTION, EVENTS.TAGS, EVENTS.LOCATION, EVENTS.START_TIME,
+                category, lat, lon);
+        for (int g = 1; g <= events; g++) {
+            Record9<UUID, String, String, String, JSONB, OffsetDateTime, String, Double, Double> record = create.newRecord(
+                    EVENTS.EVENT_ID, EVENTS.NAME, EVENTS.SHORT_DESCRIPTION, EVENTS.TAGS, EVENTS.LOCATION, EVENTS.START_TIME,
+                    category, lat, lon);
+            record.values(new UUID(0, g), name(g), "Synthetic event " + g, tags(g), JSONB.valueOf(location(g)),
+                    start.plusMinutes(g % 100_000), GENRES[g % GENRES.length], latitude(g), longitude(g));
+            corpus.add(record);
+        }
+        return DSL.using(new MockConnection(execution -> new MockResult[]{new MockResult(corpus.size(), corpus)}),
+                SQLDialect.POSTGRES);
+    }
+
+    private void insertCorpus(DSLContext tx) {
+        long started = System.nanoTime();
+        // Same formulas as name(), tags(), location(), latitude() and longitude(), evaluated by the database.
+        tx.execute("""
+                insert into events (event_id, name, short_description, tags, location, coordinates, start_time, end_time,
+                                    status, sub_category_id, profile_id, organizer_id)
+                select gen_random_uuid(),
+                       genres[1 + g % 8] || ' ' || formats[1 + (g / 8) % 8] || ' ' || cities[1 + (g / 64) % 8] || ' ' || g,
+                       'Synthetic event ' || g,
+                       lower(genres[1 + g % 8]) || ',' || lower(formats[1 + (g / 8) % 8]),
+                       jsonb_build_object('locationType', 'venue', 'name', venues[1 + g % 5], 'location', cities[1 + (g / 64) % 8]),
+                       st_geographyfromtext('POINT(' || (105.35 + (g % 1000) / 1000.0) || ' ' || (20.53 + (g % 997) / 997.0) || ')'),
+                       now() + interval '1 day' + (g % 100000) * interval '1 minute',
+                       now() + interval '1 day' + (g % 100000) * interval '1 minute' + interval '3 hours',
+                       'published', seed.sub_category_id, seed.profile_id, seed.organizer_id
+                from generate_series(1, ?) g
+                cross join (select sub_category_id, profile_id, organizer_id from events
+                            where sub_category_id is not null limit 1) seed
+                cross join (select array['Rock','Jazz','Indie','Techno','Classical','Comedy','Startup','Food'] genres,
+                                   array['Festival','Night','Live','Workshop','Meetup','Concert','Tour','Fair'] formats,
+                                   array['Hanoi','Saigon','Da Nang','Hue','Hai Phong','Can Tho','Nha Trang','Da Lat'] cities,
+                                   array['Opera House','Riverside Hall','Central Park','Expo Center','Old Quarter Stage'] venues) words
+                """, events);
+        tx.execute("analyze events");
+        System.out.printf("sql corpus: %d events inserted in %d ms%n", events, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // The SearchService fallback used before the index was ready, for type 0. Words are joined with & so that
+    // multi-word keystrokes parse as a tsquery.
+    private static List<Map<String, Object>> sqlSuggestions(DSLContext tx, String query) {
+        Condition condition = DSL.condition("search_vector @@ to_tsquery(?)", query.trim().replace(' ', '&'))
+                .and(EVENTS.START_TIME.gt(OffsetDateTime.now()))
+                .or(EVENTS.TAGS.like("%" + query + "%"))
+                .or(EVENTS.NAME.like("%" + query + "%"))
+                .or(DSL.field("location ->> 'location'", String.class).like(query));
+        return tx.select(EVENTS.EVENT_ID, EVENTS.NAME, EVENTS.SHORT_DESCRIPTION, EVENTS.TAGS, EVENTS.LOCATION, CATEGORIES.NAME.as("category"))
+                .from(EVENTS)
+                .join(SUBCATEGORIES).on(EVENTS.SUB_CATEGORY_ID.eq(SUBCATEGORIES.SUB_CATEGORY_ID))
+                .join(CATEGORIES).on(SUBCATEGORIES.CATEGORY_ID.eq(CATEGORIES.CATEGORY_ID))
+                .where(condition)
+                .limit(10)
+                .fetchMaps();
+    }
+
+    private static String name(int g) {
+        return GENRES[g % 8] + " " + FORMATS[(g / 8) % 8] + " " + CITIES[(g / 64) % 8] + " " + g;
+    }
+
+    private static String tags(int g) {
+        return GENRES[g % 8].toLowerCase(Locale.ROOT) + "," + FORMATS[(g / 8) % 8].toLowerCase(Locale.ROOT);
+    }
+
+    private static String location(int g) {
+        return "{\"locationType\": \"venue\", \"name\": \"" + VENUES[g % 5] + "\", \"location\": \"" + CITIES[(g / 64) % 8] + "\"}";
+    }
+
+    private static double latitude(int g) {
+        return 20.53 + (g % 997) / 997.0;
+    }
+
+    private static double longitude(int g) {
+        return 105.35 + (g % 1000) / 1000.0;
+    }
+
+    private static final class RolledBack extends RuntimeException {}
+}
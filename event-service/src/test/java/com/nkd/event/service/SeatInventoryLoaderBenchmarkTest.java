@@ -0,0 +1,87 @@
+package com.nkd.event.service;
+
+import com.nkd.event.dto.Tier;
+import org.jooq.CloseableDSLContext;
+import org.jooq.DSLContext;
+import org.jooq.Record2;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static com.nkd.event.Tables.TICKETS;
+import static com.nkd.event.Tables.TICKETTYPES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// Publishes 1k, 10k and 50k seat maps against the event database at BENCHMARK_DB_URL, once row by row as
+// createTierTicket used to and once through SeatInventoryLoader, and prints the publish times. Every run is
+// rolled back; the database needs one ticket type bound to a seat tier to hang the seats on.
+@EnabledIfEnvironmentVariable(named = "BENCHMARKS", matches = "true")
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_DB_URL", matches = ".+")
+class SeatInventoryLoaderBenchmarkTest {
+
+    private static final List<Integer> SIZES = List.of(1_000, 10_000, 50_000);
+
+    @Test
+    void publishTimesBySeatCount() {
+        try (CloseableDSLContext database = DSL.using(System.getenv("BENCHMARK_DB_URL"),
+                System.getenv("BENCHMARK_DB_USER"), System.getenv("BENCHMARK_DB_PASSWORD"))) {
+            Record2<Integer, UUID> seatedType = database.select(TICKETTYPES.SEAT_TIER_ID, TICKETTYPES.EVENT_ID)
+                    .from(TICKETTYPES)
+                    .where(TICKETTYPES.SEAT_TIER_ID.isNotNull())
+                    .limit(1)
+                    .fetchOne();
+            assertNotNull(seatedType, "no ticket type bound to a seat tier");
+
+            for (int seats : SIZES) {
+                Tier tier = Tier.builder()
+                        .dbTierID(seatedType.value1().toString())
+                        .assignedSeats(IntStream.range(0, seats).mapToObj(seat -> "BENCH-" + seat).toList())
+                        .build();
+
+                long rowByRow = rolledBack(database, tx -> insertRowByRow(tx, seatedType.value2(), tier));
+                long batched = rolledBack(database, tx ->
+                        assertEquals(seats, new SeatInventoryLoader(tx).createSeats(seatedType.value2(), List.of(tier))));
+                System.out.printf("%,7d seats: row by row %,7d ms, batched %,6d ms%n", seats, rowByRow, batched);
+            }
+        }
+    }
+
+    private static void insertRowByRow(DSLContext tx, UUID eventID, Tier tier) {
+        Integer ticketTypeID = tx.select(TICKETTYPES.TICKET_TYPE_ID).from(TICKETTYPES)
+                .where(TICKETTYPES.SEAT_TIER_ID.eq(Integer.parseInt(tier.getDbTierID())))
+                .fetchOneInto(Integer.class);
+        tier.getAssignedSeats().forEach(seat -> tx.insertInto(TICKETS)
+                .set(TICKETS.EVENT_ID, eventID)
+                .set(TICKETS.TICKET_TYPE_ID, ticketTypeID)
+                .set(TICKETS.STATUS, "available")
+                .set(TICKETS.SEAT_IDENTIFIER, seat)
+                .execute());
+    }
+
+    private static long rolledBack(DSLContext database, Publish publish) {
+        long[] elapsed = new long[1];
+        try {
+            database.transaction(configuration -> {
+                long started = System.nanoTime();
+                publish.run(configuration.dsl());
+                elapsed[0] = (System.nanoTime() - started) / 1_000_000;
+                throw new RolledBack();
+            });
+        } catch (RolledBack expected) {
+            // benchmark seats are never committed
+        }
+        return elapsed[0];
+    }
+
+    @FunctionalInterface
+    private interface Publish {
+        void run(DSLContext tx);
+    }
+
+    private static final class RolledBack extends RuntimeException {}
+}
@@ -0,0 +1,158 @@
+package com.nkd.event.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nkd.event.config.SeatMapRelayConfig;
+import org.jooq.DSLContext;
+import org.jooq.Record2;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.nkd.event.Tables.TICKETS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@EnabledIfEnvironmentVariable(named = "REDIS_HOST", matches = ".+")
+class SeatMapBroadcasterRelayTest {
+
+    private static final int SEATS = 64;
+
+    private final List<Instance> instances = new ArrayList<>();
+    private int mapID;
+
+    @BeforeEach
+    void setUp() {
+        mapID = 1_000_000_000 + ThreadLocalRandom.current().nextInt(100_000_000);
+        instances.add(new Instance());
+        instances.add(new Instance());
+    }
+
+    @AfterEach
+    void tearDown() {
+        instances.getFirst().redisTemplate.delete("seat-map-seq-" + mapID);
+        instances.forEach(Instance::close);
+    }
+
+    @Test
+    void everyInstanceSeesRelayedDeltasInSequenceOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(instances.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < instances.size(); i++) {
+                int offset = i;
+                SeatMapBroadcaster broadcaster = instances.get(i).broadcaster;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int seat = offset; seat < SEATS; seat += instances.size()) {
+                        broadcaster.seatsTaken(mapID, List.of("S" + seat));
+                        broadcaster.flush();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Instance instance : instances) {
+            assertTrue(instance.awaitDeltas(SEATS), "instance received " + instance.sequences.size() + " deltas");
+            List<Long> expected = new ArrayList<>();
+            for (long sequence = 1; sequence <= SEATS; sequence++) {
+                expected.add(sequence);
+            }
+            assertEquals(expected, List.copyOf(instance.sequences));
+            assertEquals(SEATS, ((List<?>) instance.broadcaster.snapshot(mapID).get("taken")).stream()
+                    .mapToInt(range -> ((int[]) range)[1]).sum());
+        }
+    }
+
+    private static DSLContext seatMapContext() {
+        DSLContext create = DSL.using(SQLDialect.POSTGRES);
+        Result<Record2<String, String>> seats = create.newResult(TICKETS.SEAT_IDENTIFIER, TICKETS.STATUS);
+        for (int seat = 0; seat < SEATS; seat++) {
+            Record2<String, String> record = create.newRecord(TICKETS.SEAT_IDENTIFIER, TICKETS.STATUS);
+            record.values("S" + seat, "available");
+            seats.add(record);
+        }
+        return DSL.using(new MockConnection(execution -> new MockResult[]{new MockResult(seats.size(), seats)}),
+                SQLDialect.POSTGRES);
+    }
+
+    private final class Instance {
+
+        private final LettuceConnectionFactory connectionFactory;
+        private final StringRedisTemplate redisTemplate;
+        private final RedisMessageListenerContainer listenerContainer;
+        private final SeatMapBroadcaster broadcaster;
+        private final BlockingQueue<Long> sequences = new LinkedBlockingQueue<>();
+
+        private Instance() {
+            RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(System.getenv("REDIS_HOST"),
+                    Integer.parseInt(Optional.ofNullable(System.getenv("REDIS_PORT")).orElse("6379")));
+            Optional.ofNullable(System.getenv("REDIS_PASSWORD")).filter(password -> !password.isEmpty())
+                    .ifPresent(configuration::setPassword);
+            connectionFactory = new LettuceConnectionFactory(configuration);
+            connectionFactory.afterPropertiesSet();
+            connectionFactory.start();
+            redisTemplate = new StringRedisTemplate(connectionFactory);
+
+            SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+            doAnswer(invocation -> {
+                Map<?, ?> delta = invocation.getArgument(1);
+                sequences.add((Long) delta.get("seq"));
+                return null;
+            }).when(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+
+            broadcaster = new SeatMapBroadcaster(seatMapContext(), messagingTemplate, redisTemplate, new ObjectMapper());
+            ReflectionTestUtils.setField(broadcaster, "broker", "redis");
+
+            listenerContainer = new RedisMessageListenerContainer();
+            listenerContainer.setConnectionFactory(connectionFactory);
+            new SeatMapRelayConfig(listenerContainer, broadcaster);
+            listenerContainer.afterPropertiesSet();
+            listenerContainer.start();
+        }
+
+        private boolean awaitDeltas(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            while (sequences.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            return sequences.size() == count;
+        }
+
+        private void close() {
+            listenerContainer.stop();
+            try {
+                listenerContainer.destroy();
+            } catch (Exception ignored) {
+                // already stopped
+            }
+            connectionFactory.destroy();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.nkd.event.service;
+
+import com.nkd.event.dto.PrintTicketDTO;
+import com.nkd.event.utils.CommonUtils;
+import com.nkd.event.utils.EventUtils;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.core.io.ClassPathResource;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Prints ticket download throughput for the previous per-download path (image fetched, font read from disk and a
+// new renderer built every time) next to TicketPdfRenderer, for first downloads and for repeated ones. The event
+// image is TICKET_BENCHMARK_IMAGE_URL, or the ticket logo when unset, so the machine needs network access.
+@EnabledIfEnvironmentVariable(named = "BENCHMARKS", matches = "true")
+class TicketPdfRendererBenchmarkTest {
+
+    private static final String IMAGE = Optional.ofNullable(System.getenv("TICKET_BENCHMARK_IMAGE_URL"))
+            .orElse("https://res.cloudinary.com/de25mkp9v/image/upload/v1743413016/logo_xdxerq.png");
+    private static final int CLIENTS = 16;
+    private static final int WARMUP_DOWNLOADS = 50;
+    private static final int LEGACY_DOWNLOADS = 200;
+    private static final int DOWNLOADS = 2000;
+
+    private final TemplateEngine templateEngine = templateEngine();
+
+    @Test
+    void downloadsPerSecond() throws Exception {
+        File font = new ClassPathResource("templates/Nunito-VariableFont_wght.ttf").getFile();
+        String baseUri = new ClassPathResource("templates/").getURL().toString();
+        TicketPdfRenderer renderer = new TicketPdfRenderer(templateEngine, new SimpleMeterRegistry(), 0, 256, 32, 128);
+        try {
+            report("previous path", LEGACY_DOWNLOADS, id -> legacyRender(ticket(id), font, baseUri));
+            report("renderer, first", DOWNLOADS, id -> renderer.render(ticket(1_000_000 + id)));
+            report("renderer, repeat", DOWNLOADS, id -> renderer.render(ticket(1_000_000 + id % 100)));
+        } finally {
+            renderer.shutdown();
+        }
+    }
+
+    private static void report(String label, int downloads, IntFunction<byte[]> download) throws Exception {
+        // Warm-up tickets lie past the measured ones, so first downloads stay cache misses.
+        run(WARMUP_DOWNLOADS, id -> download.apply(downloads + id));
+        long started = System.nanoTime();
+        Result result = run(downloads, download);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long[] sorted = result.nanos().stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%-18s %,8.1f downloads/s, p50 %7.1f ms, p99 %7.1f ms, %d rejected%n", label,
+                sorted.length / seconds, sorted[sorted.length / 2] / 1e6, sorted[sorted.length * 99 / 100] / 1e6,
+                result.rejected());
+        assertTrue(sorted.length > 0, "no download succeeded");
+    }
+
+    private static Result run(int downloads, IntFunction<byte[]> download) throws Exception {
+        Queue<Long> nanos = new ConcurrentLinkedQueue<>();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            futures.add(clients.submit(() -> {
+                for (int id = next.getAndIncrement(); id < downloads; id = next.getAndIncrement()) {
+                    long started = System.nanoTime();
+                    try {
+                        byte[] pdf = download.apply(id);
+                        assertEquals('%', pdf[0]);
+                        nanos.add(System.nanoTime() - started);
+                    } catch (RejectedExecutionException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        clients.shutdown();
+        return new Result(nanos, rejected.get());
+    }
+
+    private byte[] legacyRender(PrintTicketDTO ticket, File font, String baseUri) {
+        try {
+            Context context = new Context();
+            context.setVariable("ticket", ticket);
+            context.setVariable("eventImg", CommonUtils.convertUrlToDataUri(ticket.getEventImg()));
+            byte[] qrBytes = EventUtils.generateTicketQRCode(ticket.getTicketID(), ticket.getEventID(), ticket.getOrderID());
+            context.setVariable("qrCode", "data:image/png;base64," + Base64.getEncoder().encodeToString(qrBytes));
+            context.setVariable("printDate", OffsetDateTime.now().format(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm")));
+            String html = templateEngine.process("print_ticket", context);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            PdfRendererBuilder builder = new PdfRendererBuilder();
+            builder.withHtmlContent(html, baseUri);
+            builder.toStream(out);
+            builder.useFont(font, "Nunito");
+            builder.run();
+            return out.toByteArray();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static PrintTicketDTO ticket(int id) {
+        return new PrintTicketDTO(IMAGE, "Benchmark Night " + id % 10, "20-12-2026 19:00", "01-12-2026 10:00",
+                "Opera House, Hanoi", "General Admission", "1", "VND", 250000f, id / 4, id,
+                new UUID(0, id % 10).toString());
+    }
+
+    private static TemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    private record Result(Collection<Long> nanos, int rejected) {}
+}
@@ -0,0 +1,161 @@
+package com.nkd.event.service;
+
+import com.nkd.event.dto.TicketDTO;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+
+@EnabledIfEnvironmentVariable(named = "REDIS_HOST", matches = ".+")
+class TicketReservationServiceConcurrencyTest {
+
+    private static final int STOCK = 50;
+    private static final int BUYERS = 400;
+    private static final int THREADS = 32;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private TicketReservationService reservationService;
+    private int ticketTypeID;
+    private int firstProfileID;
+
+    @BeforeEach
+    void setUp() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(System.getenv("REDIS_HOST"),
+                Integer.parseInt(Optional.ofNullable(System.getenv("REDIS_PORT")).orElse("6379")));
+        Optional.ofNullable(System.getenv("REDIS_PASSWORD")).filter(password -> !password.isEmpty())
+                .ifPresent(configuration::setPassword);
+        connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+
+        reservationService = new TicketReservationService(mock(DSLContext.class), redisTemplate);
+        ticketTypeID = 1_000_000_000 + ThreadLocalRandom.current().nextInt(100_000_000);
+        firstProfileID = 1_000_000_000 + ThreadLocalRandom.current().nextInt(100_000_000);
+        redisTemplate.opsForValue().set(TicketReservationService.stockKey(String.valueOf(ticketTypeID)), String.valueOf(STOCK));
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (int i = 0; i < BUYERS; i++) {
+            reservationService.release(firstProfileID + i);
+        }
+        redisTemplate.delete(List.of(TicketReservationService.stockKey(String.valueOf(ticketTypeID)),
+                TicketReservationService.heldKey(String.valueOf(ticketTypeID))));
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void concurrentBuyersNeverOversell() throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        runConcurrently(BUYERS, buyer -> {
+            try {
+                reservationService.reserve(List.of(ticket(1)), firstProfileID + buyer);
+                reserved.incrementAndGet();
+            } catch (RuntimeException ignored) {
+                // sold out
+            }
+        });
+
+        assertEquals(STOCK, reserved.get());
+        assertEquals(0, counter(TicketReservationService.stockKey(String.valueOf(ticketTypeID))));
+        assertEquals(STOCK, counter(TicketReservationService.heldKey(String.valueOf(ticketTypeID))));
+    }
+
+    @Test
+    void commitsReleasesAndRetriesKeepStockConserved() throws Exception {
+        AtomicInteger sold = new AtomicInteger();
+        runConcurrently(BUYERS, buyer -> {
+            int profileID = firstProfileID + buyer;
+            try {
+                reservationService.reserve(List.of(ticket(2)), profileID);
+                reservationService.reserve(List.of(ticket(1)), profileID);
+            } catch (RuntimeException e) {
+                return;
+            }
+            if (buyer % 2 == 0) {
+                reservationService.commit(profileID, List.of(ticket(1)));
+                sold.incrementAndGet();
+            } else {
+                reservationService.release(profileID);
+            }
+        });
+
+        long stock = counter(TicketReservationService.stockKey(String.valueOf(ticketTypeID)));
+        long held = counter(TicketReservationService.heldKey(String.valueOf(ticketTypeID)));
+        assertEquals(0, held);
+        assertEquals(STOCK, stock + sold.get());
+    }
+
+    @Test
+    void saleCommittedAfterItsHoldExpiredStillTakesStock() {
+        int profileID = firstProfileID;
+        reservationService.reserve(List.of(ticket(3)), profileID);
+        redisTemplate.opsForZSet().add(TicketReservationService.HOLD_EXPIRY_KEY, TicketReservationService.holdKey(profileID), 0);
+        reservationService.expireHolds();
+
+        assertEquals(STOCK, counter(TicketReservationService.stockKey(String.valueOf(ticketTypeID))));
+
+        reservationService.commit(profileID, List.of(ticket(3)));
+
+        assertEquals(STOCK - 3, counter(TicketReservationService.stockKey(String.valueOf(ticketTypeID))));
+        assertEquals(0, counter(TicketReservationService.heldKey(String.valueOf(ticketTypeID))));
+    }
+
+    @Test
+    void releasingAfterInvalidationLeavesStockToBeReseeded() {
+        int profileID = firstProfileID;
+        reservationService.reserve(List.of(ticket(3)), profileID);
+        reservationService.invalidate(List.of(ticketTypeID));
+        reservationService.release(profileID);
+
+        assertFalse(Boolean.TRUE.equals(redisTemplate.hasKey(TicketReservationService.stockKey(String.valueOf(ticketTypeID)))));
+        assertEquals(0, counter(TicketReservationService.heldKey(String.valueOf(ticketTypeID))));
+    }
+
+    private TicketDTO ticket(int quantity) {
+        return TicketDTO.builder().ticketTypeID(ticketTypeID).ticketName("General").quantity(quantity).build();
+    }
+
+    private long counter(String key) {
+        return Long.parseLong(Optional.ofNullable(redisTemplate.opsForValue().get(key)).orElse("0"));
+    }
+
+    private static void runConcurrently(int tasks, IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        try {
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.accept(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
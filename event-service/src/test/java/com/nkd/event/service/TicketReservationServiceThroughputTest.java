@@ -0,0 +1,140 @@
+package com.nkd.event.service;
+
+import com.nkd.event.dto.TicketDTO;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+// Hammers one hot ticket type with the previous read-check-increment sequence and with the reservation
+// script, and prints the throughput of both. Only the script path is required to sell exactly the stock.
+@EnabledIfEnvironmentVariable(named = "REDIS_HOST", matches = ".+")
+class TicketReservationServiceThroughputTest {
+
+    private static final int STOCK = 5_000;
+    private static final int BUYERS = 20_000;
+    private static final int THREADS = 256;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private TicketReservationService reservationService;
+    private int ticketTypeID;
+    private int firstProfileID;
+
+    @BeforeEach
+    void setUp() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(System.getenv("REDIS_HOST"),
+                Integer.parseInt(Optional.ofNullable(System.getenv("REDIS_PORT")).orElse("6379")));
+        Optional.ofNullable(System.getenv("REDIS_PASSWORD")).filter(password -> !password.isEmpty())
+                .ifPresent(configuration::setPassword);
+        connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+
+        reservationService = new TicketReservationService(mock(DSLContext.class), redisTemplate);
+        ticketTypeID = 1_000_000_000 + ThreadLocalRandom.current().nextInt(100_000_000);
+        firstProfileID = 1_000_000_000 + ThreadLocalRandom.current().nextInt(100_000_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<String> keys = new ArrayList<>(List.of(TicketReservationService.stockKey(String.valueOf(ticketTypeID)),
+                TicketReservationService.heldKey(String.valueOf(ticketTypeID)), legacyTotalKey()));
+        for (int i = 0; i < BUYERS; i++) {
+            keys.add(TicketReservationService.holdKey(firstProfileID + i));
+            keys.add(legacyProfileKey(firstProfileID + i));
+        }
+        redisTemplate.delete(keys);
+        redisTemplate.opsForZSet().remove(TicketReservationService.HOLD_EXPIRY_KEY,
+                keys.stream().filter(key -> key.contains("reserved-for-")).toArray());
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void reservationScriptSellsExactlyTheStockFasterThanReadCheckIncrement() throws Exception {
+        Result legacy = run(buyer -> {
+            // The replaced handleReserveTicket: read the reserved total, compare, then increment it.
+            String reserved = redisTemplate.opsForValue().get(legacyTotalKey());
+            if (STOCK - (reserved == null ? 0 : Integer.parseInt(reserved)) < 1) {
+                return false;
+            }
+            redisTemplate.opsForValue().increment(legacyTotalKey(), 1);
+            redisTemplate.opsForValue().set(legacyProfileKey(firstProfileID + buyer), "1");
+            return true;
+        });
+
+        redisTemplate.opsForValue().set(TicketReservationService.stockKey(String.valueOf(ticketTypeID)), String.valueOf(STOCK));
+        Result script = run(buyer -> {
+            try {
+                reservationService.reserve(List.of(ticket()), firstProfileID + buyer);
+                return true;
+            } catch (RuntimeException e) {
+                return false;
+            }
+        });
+
+        System.out.printf("read-check-increment: %,.0f reservations/s, %d sold of %d%n", legacy.perSecond(), legacy.sold(), STOCK);
+        System.out.printf("reservation script:   %,.0f reservations/s, %d sold of %d%n", script.perSecond(), script.sold(), STOCK);
+
+        assertEquals(STOCK, script.sold());
+        assertEquals(0, Long.parseLong(redisTemplate.opsForValue().get(TicketReservationService.stockKey(String.valueOf(ticketTypeID)))));
+        assertEquals(STOCK, Long.parseLong(redisTemplate.opsForValue().get(TicketReservationService.heldKey(String.valueOf(ticketTypeID)))));
+    }
+
+    private TicketDTO ticket() {
+        return TicketDTO.builder().ticketTypeID(ticketTypeID).ticketName("General").quantity(1).build();
+    }
+
+    private String legacyTotalKey() {
+        return "total-" + ticketTypeID;
+    }
+
+    private static String legacyProfileKey(int profileID) {
+        return "reserved-for-" + profileID;
+    }
+
+    private static Result run(IntPredicate reserve) throws Exception {
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(BUYERS);
+        try {
+            for (int i = 0; i < BUYERS; i++) {
+                int buyer = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    if (reserve.test(buyer)) {
+                        sold.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            return new Result(sold.get(), BUYERS / seconds);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private record Result(int sold, double perSecond) {}
+}